@@ -6,44 +6,116 @@ import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.teamcode.actions.ActionInterface;
 import org.firstinspires.ftc.teamcode.actions.ActionState;
 import org.firstinspires.ftc.teamcode.components.Component;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+import org.firstinspires.ftc.teamcode.components.encoders.OctoQuadEncoderHub;
 import org.firstinspires.ftc.teamcode.components.motion.DriveTrain;
+import org.firstinspires.ftc.teamcode.components.motion.MotorHealthMonitor;
+import org.firstinspires.ftc.teamcode.components.power.BatteryVoltageComponent;
 import org.firstinspires.ftc.teamcode.components.imu.GoBildaPinpointComponent;
 import org.firstinspires.ftc.teamcode.components.imu.IMUSensor;
+import org.firstinspires.ftc.teamcode.components.imu.SparkFunOTOSComponent;
+import org.firstinspires.ftc.teamcode.components.localization.DriveEncoderLocalizer;
+import org.firstinspires.ftc.teamcode.components.localization.FailoverLocalizer;
+import org.firstinspires.ftc.teamcode.components.localization.Localizer;
+import org.firstinspires.ftc.teamcode.components.vision.AprilTagLocalizerComponent;
+import org.firstinspires.ftc.teamcode.components.vision.CameraSchedulerComponent;
+import org.firstinspires.ftc.teamcode.components.vision.ColorLocatorComponent;
+import org.firstinspires.ftc.teamcode.components.vision.LimelightComponent;
+import org.firstinspires.ftc.teamcode.config.ConfigManager;
+import org.firstinspires.ftc.teamcode.config.Configurable;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
+import org.firstinspires.ftc.teamcode.dashboard.DashboardServer;
+import org.firstinspires.ftc.teamcode.macros.GamepadMacros;
+import org.firstinspires.ftc.teamcode.registry.ComponentRegistry;
+import org.firstinspires.ftc.teamcode.registry.Handle;
+import org.firstinspires.ftc.teamcode.registry.Registry;
+import org.firstinspires.ftc.teamcode.systems.SystemFactory;
 import org.firstinspires.ftc.teamcode.systems.SystemInterface;
 import org.firstinspires.ftc.teamcode.systems.navigation.SULUNavigationSystem;
+import org.firstinspires.ftc.teamcode.systems.navigation.planning.OccupancyGrid;
+import org.firstinspires.ftc.teamcode.systems.navigation.planning.PathPlanner;
 
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public class Afrobot {
+    // While shedding, Driver Station telemetry is sent once every this many loops
+    private static final int TELEMETRY_SHED_INTERVAL = 5;
+
     // Component management
-    private Map<String, Component> components;
-    private Map<String, SystemInterface> systems;
+    private ComponentRegistry components;
+    private Registry<SystemInterface> systems;
     private Map<String, ActionInterface> actionMap;
 
     // Core robot systems
     private TelemetryManager telemetryManager;
+    private ConfigManager configManager;
     private HardwareMap hardwareMap;
     private Gamepad gamepad1;
     private Gamepad gamepad2;
+    private GamepadMacros macros;
 
     // Frequently accessed components
     private DriveTrain driveTrain;
+    private MotorHealthMonitor motorHealth;
+    private OctoQuadEncoderHub encoderHub;
+    private BatteryVoltageComponent batteryVoltage;
     private IMUSensor imuSensor;
     private GoBildaPinpointComponent goBildaPinpointComponent;
+    private SparkFunOTOSComponent otosComponent;
+    private DriveEncoderLocalizer driveEncoderLocalizer;
+    private Localizer localizer;
+    private AprilTagLocalizerComponent aprilTagLocalizer;
+    private ColorLocatorComponent colorLocator;
+    private CameraSchedulerComponent cameraScheduler;
+    private LimelightComponent limelight;
+    private ComponentInitializer componentInitializer;
     private SULUNavigationSystem suluNavigationSystem;
+    private PathPlanner pathPlanner;
+
+    // Live dashboard, null when it could not start
+    private DashboardServer dashboard;
+    private int poseXChannel, poseYChannel, poseHeadingChannel, loopTimeChannel;
+    private int suluDistanceChannel, suluHeadingChannel, shedLevelChannel;
+
+    // Loop timing and load shedding
+    private LoopWatchdog watchdog;
+    private long lastLoopNanos = 0;
+    private double loopMs = 0;
+    private boolean visionThrottled = false;
+
+    // Runs every update in priority order, rebuilt when components or systems change
+    private UpdateScheduler updateScheduler;
+    private boolean scheduleDirty = true;
+    private boolean collectTelemetry = true;
+    // Off while a system drives the robot on its own, otherwise the idle sticks overwrite it
+    private boolean gamepadDriveEnabled = true;
 
     private boolean isInitialized = false;
 
     public Afrobot(HardwareMap hardwareMap, Telemetry telemetry, Gamepad gamepad1, Gamepad gamepad2) {
-        this.components = new HashMap<>();
+        // Components update in registration order, so a component can rely on the ones it was registered after
+        this.components = new ComponentRegistry();
         this.actionMap = new HashMap<>();
-        this.systems = new HashMap<>();
+        this.systems = new Registry<>(SystemInterface::getName);
 
         this.telemetryManager = new TelemetryManager(telemetry);
         this.hardwareMap = hardwareMap;
         this.gamepad1 = gamepad1;
         this.gamepad2 = gamepad2;
+        this.macros = new GamepadMacros(gamepad1, gamepad2);
+
+        // Settings are loaded before anything is initialized so components can read them in init
+        this.configManager = new ConfigManager();
+        RobotConfig config = configManager.load();
+        reportConfigError();
+        reportConfig(config);
+        configManager.start();
+        this.watchdog = new LoopWatchdog(config.loopBudgetMs);
+        this.updateScheduler = new UpdateScheduler(config.loopUpdateBudgetMs);
 
         try {
             initializeComponents();
@@ -60,47 +132,109 @@ public class Afrobot {
         catch( Exception e ) {
             telemetryManager.error("Robot systems failed: " + e.getMessage());
         }
+
+        startTelemetryStreams();
     }
 
     private void initializeComponents() {
-        // Initialize drive train
+        encoderHub = new OctoQuadEncoderHub();
+        batteryVoltage = new BatteryVoltageComponent();
+        driveTrain = new DriveTrain();
+        motorHealth = new MotorHealthMonitor();
+        goBildaPinpointComponent = new GoBildaPinpointComponent();
+        otosComponent = new SparkFunOTOSComponent();
+        driveEncoderLocalizer = new DriveEncoderLocalizer();
+        aprilTagLocalizer = new AprilTagLocalizerComponent();
+        colorLocator = new ColorLocatorComponent();
+        limelight = new LimelightComponent();
+        cameraScheduler = new CameraSchedulerComponent();
+
+        // Registration order is update order, initialization order comes from each component's dependencies
+        componentInitializer = new ComponentInitializer(this, telemetryManager);
+        componentInitializer.add(encoderHub, "OctoQuad not found - encoders will be read from the motors");
+        componentInitializer.add(batteryVoltage, "Battery voltage unavailable - drive output will not be compensated");
+        componentInitializer.addRequired(driveTrain);
+        componentInitializer.add(motorHealth, "Motor health unavailable - no stall protection");
+//        componentInitializer.add(imuSensor = new IMUSensor(), "IMU initialization failed - some features may be limited");
+        componentInitializer.add(goBildaPinpointComponent, "GoBildaPinpoint initialization failed - direction features will be limited");
+        componentInitializer.add(otosComponent, "SparkFun OTOS unavailable");
+        componentInitializer.add(driveEncoderLocalizer, "Drive encoder localizer unavailable");
+        componentInitializer.add(aprilTagLocalizer, "AprilTag localization unavailable - running on odometry only");
+        componentInitializer.add(colorLocator, "Color locator unavailable - game piece tracking disabled");
+        componentInitializer.add(limelight, "Limelight unavailable");
+        componentInitializer.add(cameraScheduler, "Camera scheduler unavailable - all cameras will stream");
+
+        // Components can look up their dependencies while initializing, so every component is
+        // visible up front and the ones that fail are removed afterwards
+        for (Component component : new Component[] { encoderHub, batteryVoltage, driveTrain, motorHealth, goBildaPinpointComponent,
+                otosComponent, driveEncoderLocalizer, aprilTagLocalizer, colorLocator, limelight, cameraScheduler }) {
+            components.register(component);
+        }
         try {
-            driveTrain = new DriveTrain();
-            registerComponent(driveTrain);
+            for (Component failed : componentInitializer.run()) {
+                components.remove(failed.getName());
+            }
         } catch (Exception e) {
-            telemetryManager.error("Failed to initialize drive train: " + e.getMessage());
+            telemetryManager.error("Component initialization failed: " + e.getMessage());
             throw e; // Re-throw as this is a critical component
         }
 
-//        // Initialize IMU
-//        try {
-//            imuSensor = new IMUSensor();
-//            registerComponent(imuSensor);
-//        } catch (Exception e) {
-//            telemetryManager.warning("IMU initialization failed - some features may be limited: " + e.getMessage());
-//        }
+        localizer = selectLocalizer();
+        telemetryManager.info("Localizing with " + (localizer != null ? localizer.getName() : "nothing"));
 
+        if (cameraScheduler.isOperational()) {
+            if (aprilTagLocalizer.isOperational()) {
+                cameraScheduler.addCamera(aprilTagLocalizer);
+            }
+            if (colorLocator.isOperational()) {
+                cameraScheduler.addCamera(colorLocator);
+            }
+        }
+    }
 
-        try {
-            goBildaPinpointComponent = new GoBildaPinpointComponent();
-            registerComponent(goBildaPinpointComponent);
+    // Every registered localizer keeps updating so they can be compared, navigation uses the best one
+    private Localizer selectLocalizer() {
+        // Cover Pinpoint outages with wheel odometry when both are available
+        if (goBildaPinpointComponent != null && goBildaPinpointComponent.isOperational()
+                && driveEncoderLocalizer != null && driveEncoderLocalizer.isOperational()) {
+            try {
+                FailoverLocalizer failover = new FailoverLocalizer(goBildaPinpointComponent, driveEncoderLocalizer);
+                registerComponent(failover);
+                return failover;
+            }
+            catch ( Exception e )
+            {
+                telemetryManager.warning("Localizer failover unavailable: " + e.getMessage() );
+            }
         }
-        catch ( Exception e )
-        {
-            telemetryManager.warning("GoBildaPinpoint initialization failed - direction features will be limited: " + e.getMessage() );
+
+        Localizer[] preferred = { goBildaPinpointComponent, otosComponent, driveEncoderLocalizer };
+        for (Localizer candidate : preferred) {
+            if (candidate != null && candidate.isOperational()) {
+                return candidate;
+            }
         }
+        return null;
     }
 
     private void initializeSystems() {
-
-        Map<String,Object> parameters = new HashMap<String,Object>();
-
-        parameters.put( SULUNavigationSystem.IMU_SYSTEM_PARAMETER, goBildaPinpointComponent);
-        parameters.put( SULUNavigationSystem.DRIVE_TRAIN_PARAMETER, driveTrain);
+        try {
+            // The distance field is computed here, during init, so planning at match time is only the search
+            RobotConfig config = configManager.getConfig();
+            pathPlanner = new PathPlanner(buildFieldGrid(config), config.plannerRobotRadiusMm);
+            pathPlanner.start();
+        }
+        catch( Exception e )
+        {
+            telemetryManager.warning("Path planner unavailable - navigation will drive straight: " + e.getMessage() );
+            pathPlanner = null;
+        }
 
         try {
-            suluNavigationSystem = new SULUNavigationSystem();
-            registerSystem( suluNavigationSystem, parameters );
+            suluNavigationSystem = registerSystem( robot -> new SULUNavigationSystem(
+                    robot.requireComponent(DriveTrain.class, DriveTrain.COMPONENT_NAME),
+                    robot.getLocalizer(),
+                    pathPlanner ) );
         }
         catch( Exception e )
         {
@@ -109,10 +243,52 @@ public class Afrobot {
         }
     }
 
+    // Field elements the planner routes around, in field coordinates with the origin at the centre
+    private OccupancyGrid buildFieldGrid(RobotConfig config) {
+        OccupancyGrid grid = OccupancyGrid.field(config.plannerCellMm);
+        // Add this season's fixed field elements here, for example
+        // grid.addRectangle(-300, -300, 300, 300);
+        return grid;
+    }
+
+    private void startTelemetryStreams() {
+        TelemetryChannels channels = telemetryManager.getChannels();
+        poseXChannel = channels.register("pose.x");
+        poseYChannel = channels.register("pose.y");
+        poseHeadingChannel = channels.register("pose.heading");
+        loopTimeChannel = channels.register("loop.ms");
+        suluDistanceChannel = channels.register("sulu.distanceError");
+        suluHeadingChannel = channels.register("sulu.headingError");
+        shedLevelChannel = channels.register("loop.shedLevel");
+
+        // The UDP stream is only configured at startup
+        RobotConfig config = configManager.getConfig();
+        if (!config.telemetryUdpHost.isEmpty()) {
+            telemetryManager.startUdpStream(config.telemetryUdpHost, config.telemetryUdpPort,
+                    config.telemetryUdpLoopsPerPacket);
+        }
+
+        try {
+            dashboard = new DashboardServer(channels);
+            if (suluNavigationSystem != null) {
+                dashboard.getTunables().register(RobotConfig.SULU_DRIVE_GAIN,
+                        suluNavigationSystem::getDriveGain, suluNavigationSystem::setDriveGain);
+                dashboard.getTunables().register(RobotConfig.SULU_ROTATION_GAIN,
+                        suluNavigationSystem::getRotationGain, suluNavigationSystem::setRotationGain);
+            }
+            dashboard.start();
+            telemetryManager.info("Dashboard on port " + dashboard.getPort());
+        } catch (Exception e) {
+            telemetryManager.warning("Dashboard unavailable: " + e.getMessage());
+            dashboard = null;
+        }
+    }
+
     public void registerComponent(Component component) {
         try {
             component.init(this);
-            components.put(component.getName(), component);
+            components.register(component);
+            scheduleDirty = true;
             telemetryManager.info("Registered component: " + component.getName());
         } catch (Exception e) {
             telemetryManager.error("Failed to register component " +
@@ -121,11 +297,23 @@ public class Afrobot {
         }
     }
 
-    public void registerSystem(SystemInterface system, Map <String, Object> parameters ) {
+    public <T extends SystemInterface> T registerSystem(SystemFactory<T> factory) {
+        T system;
         try {
-            system.init( parameters);
-            systems.put(system.getName(), system);
+            system = factory.create(this);
+        } catch (Exception e) {
+            telemetryManager.error("Failed to build system: " + e.getMessage());
+            throw new RuntimeException("System registration failed", e);
+        }
+        try {
+            system.init();
+            if (system instanceof Configurable) {
+                ((Configurable) system).applyConfig(configManager.getConfig());
+            }
+            systems.register(system);
+            scheduleDirty = true;
             telemetryManager.info("Registered system: " + system.getName());
+            return system;
         } catch (Exception e) {
             telemetryManager.error("Failed to register system " +
                     system.getName() + ": " + e.getMessage());
@@ -133,13 +321,47 @@ public class Afrobot {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    public <T extends Component> T getComponent(String name) {
-        return (T) components.get(name);
+    /**
+     * @return the component registered under name, or null if there is none or it is not a {@code type}
+     */
+    public <T extends Component> T getComponent(Class<T> type, String name) {
+        Handle<T> handle = components.find(type, name);
+        return handle == null ? null : components.get(handle);
     }
 
-    public <T extends SystemInterface> T getSystem(String name) {
-        return (T) systems.get(name);
+    /**
+     * Look up a component a system cannot work without.
+     * @throws IllegalStateException if it is missing, of another type or not operational
+     */
+    public <T extends Component> T requireComponent(Class<T> type, String name) {
+        T component = getComponent(type, name);
+        if (component == null) {
+            throw new IllegalStateException("Missing component " + name + " (" + type.getSimpleName() + ")");
+        }
+        if (!component.isOperational()) {
+            throw new IllegalStateException("Component " + name + " is not operational");
+        }
+        return component;
+    }
+
+    /**
+     * Resolve a handle once and keep it to reach a component without a name lookup.
+     */
+    public <T extends Component> Handle<T> getComponentHandle(Class<T> type, String name) {
+        return components.find(type, name);
+    }
+
+    public <T extends Component> T getComponent(Handle<T> handle) {
+        return components.get(handle);
+    }
+
+    public List<Component> getComponents(ComponentType type) {
+        return components.getByType(type);
+    }
+
+    public <T extends SystemInterface> T getSystem(Class<T> type, String name) {
+        Handle<T> handle = systems.find(type, name);
+        return handle == null ? null : systems.get(handle);
     }
 
     public void bindAction(String button, ActionInterface action) {
@@ -249,54 +471,239 @@ public class Afrobot {
         }
 
         try {
-            // Update all components
-            for (Component component : components.values()) {
+            trackLoopTime();
+
+            // Apply a reloaded config before anything reads it this loop
+            applyPendingConfig();
+            if (dashboard != null) {
+                dashboard.getTunables().applyPending();
+            }
+
+            if (scheduleDirty) {
+                rebuildSchedule();
+            }
+
+            // Skip building the batch on loops where it will not be sent
+            collectTelemetry = telemetryManager.isBatchDue();
+
+            // Swap in a playing macro's gamepads before anything reads them
+            macros.update();
+            String macroError = macros.takeLastError();
+            if (macroError != null) {
+                telemetryManager.warning(macroError);
+            }
+
+            updateScheduler.run();
+
+        } catch (Exception e) {
+            telemetryManager.error("Error in robot loop: " + e.getMessage());
+            emergencyStop();
+        }
+    }
+
+    // The period between loop() calls, which is what the drive control actually gets
+    private void trackLoopTime() {
+        long now = System.nanoTime();
+        if (lastLoopNanos != 0) {
+            loopMs = (now - lastLoopNanos) / 1.0e6;
+            if (watchdog.record(loopMs)) {
+                applyShedLevel();
+            }
+        }
+        lastLoopNanos = now;
+    }
+
+    // Components first in registration order, then systems, so within a priority an update
+    // always sees the results of the ones registered before it
+    private void rebuildSchedule() {
+        updateScheduler.clear();
+        for (int slot = 0; slot < components.size(); slot++) {
+            Component component = components.get(slot);
+            updateScheduler.add(component.getName(), component.getUpdatePriority(), () -> updateComponent(component));
+        }
+        for (int slot = 0; slot < systems.size(); slot++) {
+            SystemInterface system = systems.get(slot);
+            updateScheduler.add(system.getName(), system.getUpdatePriority(), () -> updateSystem(system));
+        }
+
+        // Process drive controls after navigation, as before
+        updateScheduler.add("GamepadDrive", UpdatePriority.CRITICAL, () -> {
+            if (gamepadDriveEnabled && driveTrain != null && driveTrain.isOperational()) {
+                driveTrain.driveWithGamepad(macros.getGamepad1());
+            }
+        });
+
+        // Button actions, from a playing macro's gamepads when there is one
+        updateScheduler.add("Actions", UpdatePriority.NORMAL, () -> {
+            if (!actionMap.isEmpty()) {
+                executeActions(macros.getGamepad1(), macros.getGamepad2());
+            }
+        });
+
+        // Tuning streams need every loop, most of all when the loop is overloaded, and only copy
+        // numbers. The Driver Station batch formats strings, so it only gets the time left over
+        updateScheduler.add("Channels", UpdatePriority.CRITICAL, this::publishChannels);
+        updateScheduler.add("Telemetry", UpdatePriority.LOW, this::writeTelemetry);
+        scheduleDirty = false;
+    }
+
+    private void updateComponent(Component component) {
+        try {
+            component.update();
+            if (collectTelemetry) {
+                telemetryManager.addMapToBatch(
+                        component.getName(),
+                        component.getTelemetry()
+                );
+            }
+        } catch (Exception e) {
+            telemetryManager.error("Component " + component.getName() +
+                    " update failed: " + e.getMessage());
+        }
+    }
+
+    private void updateSystem(SystemInterface system) {
+        try {
+            system.update();
+            if (collectTelemetry) {
+                telemetryManager.addMapToBatch(
+                        system.getName(),
+                        system.getTelemetry()
+                );
+            }
+        } catch (Exception e) {
+            telemetryManager.error("System " + system.getName() +
+                    " update failed: " + e.getMessage());
+        }
+    }
+
+    private void writeTelemetry() {
+        if (collectTelemetry) {
+            telemetryManager.addToBatch("Loop", String.format(Locale.US,
+                    "%.1f ms avg, %.1f ms max, updates %.1f ms, %d deferred, shedding %s",
+                    watchdog.getAverageLoopMs(), watchdog.getMaxLoopMs(), updateScheduler.getLastRunMs(),
+                    updateScheduler.getDeferredLastLoop(), watchdog.getLevel()));
+            if (macros.isRecording() || macros.isPlaying()) {
+                telemetryManager.addMapToBatch("Macros", macros.getTelemetry());
+            }
+        }
+
+        // Write telemetry to device
+        telemetryManager.writeBatch();
+    }
+
+    // Drive control and CRITICAL components are never shed
+    private void applyShedLevel() {
+        LoopWatchdog.ShedEvent event = watchdog.getLastEvent();
+        if (event.to.ordinal() > event.from.ordinal()) {
+            telemetryManager.warning("Loop over budget, shedding " + event);
+        } else {
+            telemetryManager.info("Loop recovered, shedding " + event);
+        }
+
+        telemetryManager.setBatchInterval(
+                watchdog.isShedding(LoopWatchdog.ShedLevel.TELEMETRY) ? TELEMETRY_SHED_INTERVAL : 1);
+        updateScheduler.setDeferLowPriority(watchdog.isShedding(LoopWatchdog.ShedLevel.LOW_PRIORITY));
+
+        boolean throttle = watchdog.isShedding(LoopWatchdog.ShedLevel.VISION);
+        if (throttle != visionThrottled) {
+            visionThrottled = throttle;
+            if (aprilTagLocalizer != null && aprilTagLocalizer.isOperational()) {
+                aprilTagLocalizer.setFrameThrottle(throttle);
+            }
+            if (colorLocator != null && colorLocator.isOperational()) {
+                colorLocator.setFrameThrottle(throttle);
+            }
+        }
+    }
+
+    // Runs after the CRITICAL updates, so NORMAL ones such as SULU are one loop behind in the streams
+    private void publishChannels() {
+        TelemetryChannels channels = telemetryManager.getChannels();
+        channels.set(loopTimeChannel, loopMs);
+        channels.set(shedLevelChannel, watchdog.getLevel().ordinal());
+
+        if (localizer != null) {
+            channels.set(poseXChannel, localizer.getX());
+            channels.set(poseYChannel, localizer.getY());
+            channels.set(poseHeadingChannel, localizer.getHeading());
+        }
+        if (suluNavigationSystem != null) {
+            channels.set(suluDistanceChannel, suluNavigationSystem.getDistanceError());
+            channels.set(suluHeadingChannel, suluNavigationSystem.getHeadingError());
+        }
+        telemetryManager.publishChannels();
+        if (dashboard != null) {
+            dashboard.publish();
+            String error = dashboard.takeLastError();
+            if (error != null) {
+                telemetryManager.warning(error);
+            }
+        }
+    }
+
+    private void applyPendingConfig() {
+        reportConfigError();
+
+        RobotConfig config = configManager.takePendingConfig();
+        if (config == null) {
+            return;
+        }
+        for (int slot = 0; slot < components.size(); slot++) {
+            Component component = components.get(slot);
+            if (component instanceof Configurable) {
                 try {
-                    component.update();
-                    telemetryManager.addMapToBatch(
-                            component.getName(),
-                            component.getTelemetry()
-                    );
+                    ((Configurable) component).applyConfig(config);
                 } catch (Exception e) {
                     telemetryManager.error("Component " + component.getName() +
-                            " update failed: " + e.getMessage());
+                            " rejected config: " + e.getMessage());
                 }
             }
-
-            for (SystemInterface system : systems.values()) {
+        }
+        for (int slot = 0; slot < systems.size(); slot++) {
+            SystemInterface system = systems.get(slot);
+            if (system instanceof Configurable) {
                 try {
-                    system.update();
-                    telemetryManager.addMapToBatch(
-                            system.getName(),
-                            system.getTelemetry()
-                    );
+                    ((Configurable) system).applyConfig(config);
                 } catch (Exception e) {
                     telemetryManager.error("System " + system.getName() +
-                            " update failed: " + e.getMessage());
+                            " rejected config: " + e.getMessage());
                 }
             }
+        }
+        watchdog.setBudgetMs(config.loopBudgetMs);
+        updateScheduler.setBudgetMs(config.loopUpdateBudgetMs);
+        reportConfig(config);
+    }
 
-            // Process drive controls
-            if (driveTrain != null && driveTrain.isOperational()) {
-                driveTrain.driveWithGamepad(gamepad1);
-            }
-
-            // Execute button actions
-            //executeActions(gamepad1, gamepad2);
-
-            // Write telemetry to device
-            //
-            telemetryManager.writeBatch();
+    private void reportConfigError() {
+        String error = configManager.takeLastError();
+        if (error != null) {
+            telemetryManager.warning(error);
+        }
+    }
 
-        } catch (Exception e) {
-            telemetryManager.error("Error in robot loop: " + e.getMessage());
-            emergencyStop();
+    private void reportConfig(RobotConfig config) {
+        for (String problem : config.getErrors()) {
+            telemetryManager.warning("Config: " + problem + ", using default");
         }
+        telemetryManager.info("Config loaded from " + configManager.getFile());
     }
 
     public void stop() {
         telemetryManager.info("Robot stopping...");
-        components.values().forEach(Component::stop);
+        macros.stopPlayback();
+        configManager.stop();
+        if (dashboard != null) {
+            dashboard.stop();
+        }
+        telemetryManager.stopUdpStream();
+        if (pathPlanner != null) {
+            pathPlanner.stop();
+        }
+        for (int slot = 0; slot < components.size(); slot++) {
+            components.get(slot).stop();
+        }
     }
 
     private void emergencyStop() {
@@ -310,10 +717,59 @@ public class Afrobot {
         return driveTrain;
     }
 
+    /**
+     * @return how long each component took to initialize, in ms
+     */
+    public Map<String, Double> getInitTimesMs() {
+        return componentInitializer.getInitTimesMs();
+    }
+
+    public Localizer getLocalizer() {
+        return localizer;
+    }
+
+    public CameraSchedulerComponent getCameraScheduler() {
+        return cameraScheduler;
+    }
+
+    public RobotConfig getConfig() {
+        return configManager.getConfig();
+    }
+
+    public ConfigManager getConfigManager() {
+        return configManager;
+    }
+
+    public void setGamepadDriveEnabled(boolean gamepadDriveEnabled) {
+        this.gamepadDriveEnabled = gamepadDriveEnabled;
+    }
+
     public HardwareMap getHardwareMap() {
         return hardwareMap;
     }
 
+    /**
+     * @return the shared path planner, or null if it could not be built
+     */
+    public PathPlanner getPathPlanner() {
+        return pathPlanner;
+    }
+
+    /**
+     * @return the gamepad macro recorder and player that drive and actions read from
+     */
+    public GamepadMacros getMacros() {
+        return macros;
+    }
+
+    public LoopWatchdog getLoopWatchdog() {
+        return watchdog;
+    }
+
+    public UpdateScheduler getUpdateScheduler() {
+        return updateScheduler;
+    }
+
     public TelemetryManager getTelemetryManager() {
         return telemetryManager;
     }
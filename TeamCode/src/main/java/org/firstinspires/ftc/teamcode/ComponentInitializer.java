@@ -0,0 +1,238 @@
+package org.firstinspires.ftc.teamcode;
+
+import org.firstinspires.ftc.teamcode.components.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Initializes a set of components concurrently, respecting the dependencies they declare.
+ *
+ * Each component's init() runs on its own executor thread as soon as every registered component
+ * named in getDependencies() has finished, so independent devices reset and calibrate at the same
+ * time and the total init time approaches that of the slowest chain instead of the sum of all of
+ * them. A component still starts if a dependency failed; it sees that dependency as not
+ * operational, exactly as it would have when initializing serially.
+ *
+ * A component that has not finished after INIT_TIMEOUT_MS is reported as failed, but its init()
+ * cannot be cancelled and may still start hardware or threads. Once it does return, the component
+ * is stopped so nothing is left running that the robot no longer knows about.
+ */
+public class ComponentInitializer {
+    private static final long INIT_TIMEOUT_MS = 10000;
+
+    private final Afrobot robot;
+    private final TelemetryManager telemetryManager;
+
+    // Components in the order they were added, with the warning to log if they fail
+    private final Map<Component, String> pending = new LinkedHashMap<>();
+    private final Set<Component> required = new HashSet<>();
+
+    private final Map<String, Double> initTimesMs = new ConcurrentHashMap<>();
+    private final Set<Component> failed = Collections.newSetFromMap(new ConcurrentHashMap<Component, Boolean>());
+
+    // Guards finished and timedOut, so a component is either counted as finished or stopped later
+    private final Object completionLock = new Object();
+    private final Set<Component> finished = new HashSet<>();
+    private final Set<Component> timedOut = new HashSet<>();
+    private double totalTimeMs = 0;
+
+    public ComponentInitializer(Afrobot robot, TelemetryManager telemetryManager) {
+        this.robot = robot;
+        this.telemetryManager = telemetryManager;
+    }
+
+    /**
+     * Add an optional component. If it fails the failure warning is logged and the robot carries on.
+     */
+    public void add(Component component, String failureWarning) {
+        pending.put(component, failureWarning);
+    }
+
+    /**
+     * Add a component the robot cannot run without. run() throws if it fails.
+     */
+    public void addRequired(Component component) {
+        pending.put(component, null);
+        required.add(component);
+    }
+
+    /**
+     * Initialize every added component and wait for them all to finish.
+     *
+     * @return the components that failed to initialize, in the order they were added
+     * @throws RuntimeException if a required component failed
+     */
+    public List<Component> run() {
+        Map<String, Component> byName = new HashMap<>();
+        for (Component component : pending.keySet()) {
+            byName.put(component.getName(), component);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, pending.size()), runnable -> {
+            Thread thread = new Thread(runnable, "ComponentInit");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        Map<Component, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        try {
+            // Schedule in dependency order, anything that never becomes schedulable is in a cycle
+            List<Component> unscheduled = new ArrayList<>(pending.keySet());
+            boolean progress = true;
+            while (!unscheduled.isEmpty() && progress) {
+                progress = false;
+                Iterator<Component> iterator = unscheduled.iterator();
+                while (iterator.hasNext()) {
+                    Component component = iterator.next();
+                    List<CompletableFuture<Void>> dependencies = dependencyFutures(component, byName, futures);
+                    if (dependencies == null) {
+                        continue;
+                    }
+                    futures.put(component, CompletableFuture
+                            .allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                            .thenRunAsync(() -> initialize(component), executor));
+                    iterator.remove();
+                    progress = true;
+                }
+            }
+            for (Component component : unscheduled) {
+                failed.add(component);
+                telemetryManager.error("Dependency cycle, not initializing " + component.getName());
+            }
+
+            try {
+                CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                        .get(INIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                synchronized (completionLock) {
+                    for (Component component : futures.keySet()) {
+                        if (!finished.contains(component)) {
+                            timedOut.add(component);
+                            failed.add(component);
+                            telemetryManager.error(component.getName() + " did not finish initializing in time");
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                telemetryManager.error("Component initialization interrupted: " + e.getMessage());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        totalTimeMs = (System.nanoTime() - start) / 1.0e6;
+
+        reportTimes();
+
+        List<Component> failures = new ArrayList<>();
+        for (Component component : pending.keySet()) {
+            if (failed.contains(component)) {
+                failures.add(component);
+                if (required.contains(component)) {
+                    throw new RuntimeException(component.getName() + " is required but failed to initialize");
+                }
+            }
+        }
+        return failures;
+    }
+
+    // Futures of the component's registered dependencies, or null if one has not been scheduled yet
+    private List<CompletableFuture<Void>> dependencyFutures(Component component, Map<String, Component> byName,
+                                                            Map<Component, CompletableFuture<Void>> futures) {
+        List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+        for (String name : component.getDependencies()) {
+            Component dependency = byName.get(name);
+            if (dependency == null || dependency == component) {
+                continue;
+            }
+            CompletableFuture<Void> future = futures.get(dependency);
+            if (future == null) {
+                return null;
+            }
+            dependencies.add(future);
+        }
+        return dependencies;
+    }
+
+    // Runs on an executor thread
+    private void initialize(Component component) {
+        long start = System.nanoTime();
+        try {
+            component.init(robot);
+            if (stopIfTimedOut(component)) {
+                return;
+            }
+            telemetryManager.info("Registered component: " + component.getName());
+        } catch (Exception e) {
+            if (stopIfTimedOut(component)) {
+                return;
+            }
+            failed.add(component);
+            String warning = pending.get(component);
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (warning != null) {
+                telemetryManager.warning(warning + ": " + cause.getMessage());
+            } else {
+                telemetryManager.error("Failed to initialize " + component.getName() + ": " + cause.getMessage());
+            }
+        }
+        initTimesMs.put(component.getName(), (System.nanoTime() - start) / 1.0e6);
+    }
+
+    // Marks the component finished, or stops it if run() already gave up on it
+    private boolean stopIfTimedOut(Component component) {
+        synchronized (completionLock) {
+            finished.add(component);
+            if (!timedOut.contains(component)) {
+                return false;
+            }
+        }
+        try {
+            component.stop();
+            telemetryManager.warning(component.getName() + " finished initializing after the timeout and was stopped");
+        } catch (Exception e) {
+            telemetryManager.error("Failed to stop " + component.getName() + " after its late init: " + e.getMessage());
+        }
+        return true;
+    }
+
+    private void reportTimes() {
+        double serialMs = 0;
+        for (Component component : pending.keySet()) {
+            Double ms = initTimesMs.get(component.getName());
+            if (ms != null) {
+                serialMs += ms;
+                telemetryManager.info(String.format(Locale.US, "Init %s: %.0f ms%s",
+                        component.getName(), ms, failed.contains(component) ? " (failed)" : ""));
+            }
+        }
+        telemetryManager.info(String.format(Locale.US, "Components ready in %.0f ms (%.0f ms if serial)",
+                totalTimeMs, serialMs));
+    }
+
+    /**
+     * @return init time of each component that finished, in ms
+     */
+    public Map<String, Double> getInitTimesMs() {
+        return Collections.unmodifiableMap(initTimesMs);
+    }
+
+    public double getTotalTimeMs() {
+        return totalTimeMs;
+    }
+}
@@ -0,0 +1,153 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Watches the loop period against a time budget and decides how much work to shed.
+ *
+ * Shedding escalates one level after OVERRUN_LOOPS consecutive loops over budget, so a single
+ * slow loop (a garbage collection, a config reload) does not trigger it. It steps back down one
+ * level once the smoothed loop time has stayed below RECOVERY_FRACTION of the budget for
+ * RECOVERY_LOOPS loops, so it does not flap at the edge of the budget. Each change is recorded as
+ * a ShedEvent. The watchdog only decides; Afrobot applies the levels.
+ */
+public class LoopWatchdog {
+    private static final double SMOOTHING = 0.1;
+    private static final int OVERRUN_LOOPS = 5;
+    private static final int RECOVERY_LOOPS = 50;
+    private static final double RECOVERY_FRACTION = 0.7;
+    private static final int MAX_EVENTS = 20;
+
+    /**
+     * Cumulative shedding levels, each one includes the levels before it.
+     */
+    public enum ShedLevel {
+        NONE,
+        // Write Driver Station telemetry less often
+        TELEMETRY,
+        // Defer LOW priority updates, they only run when starvation protection forces them
+        LOW_PRIORITY,
+        // Ask the cameras to process fewer frames
+        VISION
+    }
+
+    public static final class ShedEvent {
+        public final long timeMs;
+        public final ShedLevel from;
+        public final ShedLevel to;
+        public final double averageLoopMs;
+
+        ShedEvent(long timeMs, ShedLevel from, ShedLevel to, double averageLoopMs) {
+            this.timeMs = timeMs;
+            this.from = from;
+            this.to = to;
+            this.averageLoopMs = averageLoopMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s -> %s at %.1f ms/loop", from, to, averageLoopMs);
+        }
+    }
+
+    private double budgetMs;
+    private ShedLevel level = ShedLevel.NONE;
+    private double averageLoopMs = 0;
+    private double maxLoopMs = 0;
+    private int overrunStreak = 0;
+    private int recoveryStreak = 0;
+    private int overruns = 0;
+    private final ArrayDeque<ShedEvent> events = new ArrayDeque<>();
+
+    public LoopWatchdog(double budgetMs) {
+        this.budgetMs = budgetMs;
+    }
+
+    /**
+     * Record one loop period.
+     *
+     * @return true if the shed level changed
+     */
+    public boolean record(double loopMs) {
+        averageLoopMs = averageLoopMs == 0 ? loopMs : averageLoopMs + SMOOTHING * (loopMs - averageLoopMs);
+        maxLoopMs = Math.max(maxLoopMs, loopMs);
+
+        if (loopMs > budgetMs) {
+            overruns++;
+            overrunStreak++;
+            recoveryStreak = 0;
+            if (overrunStreak >= OVERRUN_LOOPS && level != ShedLevel.VISION) {
+                overrunStreak = 0;
+                changeLevel(ShedLevel.values()[level.ordinal() + 1]);
+                return true;
+            }
+            return false;
+        }
+
+        overrunStreak = 0;
+        if (averageLoopMs < budgetMs * RECOVERY_FRACTION) {
+            recoveryStreak++;
+            if (recoveryStreak >= RECOVERY_LOOPS && level != ShedLevel.NONE) {
+                recoveryStreak = 0;
+                changeLevel(ShedLevel.values()[level.ordinal() - 1]);
+                return true;
+            }
+        } else {
+            recoveryStreak = 0;
+        }
+        return false;
+    }
+
+    private void changeLevel(ShedLevel next) {
+        if (events.size() == MAX_EVENTS) {
+            events.removeFirst();
+        }
+        events.addLast(new ShedEvent(System.currentTimeMillis(), level, next, averageLoopMs));
+        level = next;
+    }
+
+    public void setBudgetMs(double budgetMs) {
+        this.budgetMs = budgetMs;
+    }
+
+    public double getBudgetMs() {
+        return budgetMs;
+    }
+
+    public ShedLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * @return true if shedding has reached at least the given level
+     */
+    public boolean isShedding(ShedLevel atLeast) {
+        return level.ordinal() >= atLeast.ordinal();
+    }
+
+    public double getAverageLoopMs() {
+        return averageLoopMs;
+    }
+
+    public double getMaxLoopMs() {
+        return maxLoopMs;
+    }
+
+    public int getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * @return the most recent level changes, oldest first
+     */
+    public List<ShedEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public ShedEvent getLastEvent() {
+        return events.peekLast();
+    }
+}
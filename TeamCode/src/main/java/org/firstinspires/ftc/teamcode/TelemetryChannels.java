@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Named numeric telemetry values, stored by index so writing one is a single array store.
+ *
+ * Components register a channel once, usually in init, and keep the returned id. Each loop they
+ * write the latest value with set(), which does not allocate or hash. Streaming outputs such as the
+ * dashboard copy every value out once per frame. Values belong to the main thread and only the
+ * name list may be read from other threads. Registration is synchronized because components
+ * register their channels from the parallel init threads.
+ */
+public class TelemetryChannels {
+    private static final int INITIAL_CAPACITY = 32;
+
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int count = 0;
+    private final Map<String, Integer> idsByName = new HashMap<>();
+
+    // Replaced on every registration so other threads always see a complete list
+    private volatile String[] names = new String[0];
+
+    /**
+     * Register a channel, or return the existing id if the name is already registered.
+     */
+    public synchronized int register(String name) {
+        Integer existing = idsByName.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+        }
+        int id = count++;
+        values[id] = Double.NaN;
+        idsByName.put(name, id);
+
+        String[] updated = Arrays.copyOf(names, count);
+        updated[id] = name;
+        names = updated;
+        return id;
+    }
+
+    public void set(int id, double value) {
+        values[id] = value;
+    }
+
+    public double get(int id) {
+        return values[id];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Copy every value into out, which must hold at least size() entries.
+     */
+    public void copyValues(double[] out) {
+        System.arraycopy(values, 0, out, 0, count);
+    }
+
+    /**
+     * @return channel names indexed by id, safe to read from any thread
+     */
+    public String[] getNames() {
+        return names;
+    }
+}
@@ -1,6 +1,8 @@
 package org.firstinspires.ftc.teamcode;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.telemetry.UdpTelemetryPublisher;
+
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
@@ -17,6 +19,10 @@ public class TelemetryManager {
     private boolean autoUpdate;
     private int maxLogSize;
     private final SimpleDateFormat timeFormat;
+    private final TelemetryChannels channels = new TelemetryChannels();
+    private UdpTelemetryPublisher udpPublisher;
+    private int batchInterval = 1;
+    private int batchCount = 0;
 
     public enum LogLevel {
         DEBUG, INFO, WARNING, ERROR
@@ -53,6 +59,35 @@ public class TelemetryManager {
         }
     }
 
+    /**
+     * Numeric channels for streaming outputs such as the dashboard
+     */
+    public TelemetryChannels getChannels() {
+        return channels;
+    }
+
+    /**
+     * Send the numeric channels to a laptop over UDP, every loopsPerPacket calls to publishChannels().
+     * Run UdpTelemetryReceiver on the laptop to record them.
+     */
+    public void startUdpStream(String host, int port, int loopsPerPacket) {
+        stopUdpStream();
+        try {
+            udpPublisher = new UdpTelemetryPublisher(host, port, loopsPerPacket);
+            info("Streaming telemetry to " + host + ":" + port);
+        } catch (Exception e) {
+            warning("UDP telemetry unavailable: " + e.getMessage());
+            udpPublisher = null;
+        }
+    }
+
+    public void stopUdpStream() {
+        if (udpPublisher != null) {
+            udpPublisher.close();
+            udpPublisher = null;
+        }
+    }
+
     // Batch operations
     public void addToBatch(String key, Object value) {
         batchData.put(key, value);
@@ -84,27 +119,60 @@ public class TelemetryManager {
         }
     }
 
+    /**
+     * Only send the batch to the Driver Station every interval calls to writeBatch(), to save
+     * loop time under load. The UDP stream is not affected.
+     */
+    public void setBatchInterval(int interval) {
+        this.batchInterval = Math.max(1, interval);
+    }
+
+    /**
+     * @return true if the next writeBatch() will reach the Driver Station, so batch data is worth collecting
+     */
+    public boolean isBatchDue() {
+        return batchCount + 1 >= batchInterval;
+    }
+
     public void clearBatch() {
         batchData.clear();
     }
 
     public void writeBatch() {
-        if (autoClear) {
-            telemetry.clear();
-        }
+        if (++batchCount >= batchInterval) {
+            batchCount = 0;
+            if (autoClear) {
+                telemetry.clear();
+            }
 
-        for (Map.Entry<String, Object> entry : batchData.entrySet()) {
-            telemetry.addData(entry.getKey(), entry.getValue());
-        }
+            for (Map.Entry<String, Object> entry : batchData.entrySet()) {
+                telemetry.addData(entry.getKey(), entry.getValue());
+            }
 
-        telemetry.update();
+            telemetry.update();
+        }
         clearBatch();
     }
 
+    /**
+     * Send the numeric channels to the UDP stream. Cheap enough to call every loop, unlike
+     * writeBatch() which formats for the Driver Station.
+     */
+    public void publishChannels() {
+        if (udpPublisher != null) {
+            udpPublisher.publish(channels);
+            String error = udpPublisher.takeLastError();
+            if (error != null) {
+                warning(error);
+            }
+        }
+    }
+
 
 
     // Logging operations
-    public void log(LogLevel level, String message) {
+    // Components may log from initialization threads, so log access is synchronized
+    public synchronized void log(LogLevel level, String message) {
         String timestamp = timeFormat.format(new Date());
         String logEntry = String.format("[%s] %s: %s", timestamp, level, message);
 
@@ -120,7 +188,7 @@ public class TelemetryManager {
         }
     }
 
-    public void displayLogs() {
+    public synchronized void displayLogs() {
         if (autoClear) {
             telemetry.clear();
         }
@@ -178,7 +246,7 @@ public class TelemetryManager {
         telemetry.update();
     }
 
-    public void clearLogs() {
+    public synchronized void clearLogs() {
         logMessages.clear();
         if (autoUpdate) {
             telemetry.update();
@@ -0,0 +1,162 @@
+package org.firstinspires.ftc.teamcode;
+
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the loop's updates highest priority first within a per-loop time budget.
+ *
+ * CRITICAL tasks always run. Any other task only starts if the time already spent this loop plus
+ * its own smoothed cost fits in the budget; otherwise it is deferred to a later loop. A task that
+ * has been deferred MAX_DEFERRED_LOOPS loops in a row runs regardless, so low priority work is
+ * slowed down under load but never starved. Tasks of the same priority keep the order they were
+ * added in, so an update that reads another's results must be added after it and must not have a
+ * higher priority.
+ */
+public class UpdateScheduler {
+    private static final int MAX_DEFERRED_LOOPS = 10;
+    private static final double COST_SMOOTHING = 0.2;
+
+    public static final class Task {
+        private final String name;
+        private final UpdatePriority priority;
+        private final Runnable update;
+
+        private double averageCostMs = 0;
+        private int deferredLoops = 0;
+        private long runs = 0;
+        private long deferrals = 0;
+
+        Task(String name, UpdatePriority priority, Runnable update) {
+            this.name = name;
+            this.priority = priority;
+            this.update = update;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public UpdatePriority getPriority() {
+            return priority;
+        }
+
+        public double getAverageCostMs() {
+            return averageCostMs;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        public long getDeferrals() {
+            return deferrals;
+        }
+    }
+
+    // Sorted by priority, in the order added within a priority
+    private final List<Task> tasks = new ArrayList<>();
+    private double budgetMs;
+    private boolean deferLowPriority = false;
+
+    private double lastRunMs = 0;
+    private int deferredLastLoop = 0;
+    private int forcedLastLoop = 0;
+
+    public UpdateScheduler(double budgetMs) {
+        this.budgetMs = budgetMs;
+    }
+
+    /**
+     * Add a task after every task of the same or higher priority. The update must handle its own
+     * exceptions.
+     */
+    public Task add(String name, UpdatePriority priority, Runnable update) {
+        Task task = new Task(name, priority, update);
+        int index = 0;
+        while (index < tasks.size() && tasks.get(index).priority.ordinal() <= priority.ordinal()) {
+            index++;
+        }
+        tasks.add(index, task);
+        return task;
+    }
+
+    public void clear() {
+        tasks.clear();
+    }
+
+    /**
+     * Run one loop's worth of tasks.
+     */
+    public void run() {
+        long start = System.nanoTime();
+        int deferred = 0;
+        int forced = 0;
+
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            long taskStart = System.nanoTime();
+
+            if (task.priority != UpdatePriority.CRITICAL) {
+                double elapsedMs = (taskStart - start) / 1.0e6;
+                boolean wait = elapsedMs + task.averageCostMs > budgetMs
+                        || (deferLowPriority && task.priority == UpdatePriority.LOW);
+                if (wait) {
+                    if (task.deferredLoops < MAX_DEFERRED_LOOPS) {
+                        task.deferredLoops++;
+                        task.deferrals++;
+                        deferred++;
+                        continue;
+                    }
+                    forced++;
+                }
+            }
+
+            task.update.run();
+            double costMs = (System.nanoTime() - taskStart) / 1.0e6;
+            task.averageCostMs = task.runs == 0 ? costMs : task.averageCostMs + COST_SMOOTHING * (costMs - task.averageCostMs);
+            task.runs++;
+            task.deferredLoops = 0;
+        }
+
+        lastRunMs = (System.nanoTime() - start) / 1.0e6;
+        deferredLastLoop = deferred;
+        forcedLastLoop = forced;
+    }
+
+    public void setBudgetMs(double budgetMs) {
+        this.budgetMs = budgetMs;
+    }
+
+    public double getBudgetMs() {
+        return budgetMs;
+    }
+
+    /**
+     * Defer every LOW task until starvation protection runs it, for when the loop is overloaded.
+     */
+    public void setDeferLowPriority(boolean deferLowPriority) {
+        this.deferLowPriority = deferLowPriority;
+    }
+
+    public double getLastRunMs() {
+        return lastRunMs;
+    }
+
+    public int getDeferredLastLoop() {
+        return deferredLastLoop;
+    }
+
+    /**
+     * @return tasks that ran last loop only because they had waited too long
+     */
+    public int getForcedLastLoop() {
+        return forcedLastLoop;
+    }
+
+    public List<Task> getTasks() {
+        return new ArrayList<>(tasks);
+    }
+}
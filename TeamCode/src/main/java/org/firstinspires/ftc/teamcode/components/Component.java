@@ -5,6 +5,8 @@ import org.firstinspires.ftc.teamcode.Afrobot;
 import java.util.Map;
 
 public interface Component {
+    String[] NO_DEPENDENCIES = new String[0];
+
     /**
      * Get the unique identifier for this component
      */
@@ -19,6 +21,22 @@ public interface Component {
      */
     void init(Afrobot robot);
 
+    /**
+     * Names of the components that must finish initializing before this one starts. Components
+     * without a dependency between them may be initialized at the same time on different threads.
+     * Names that are not registered are ignored, so optional hardware can be listed here.
+     */
+    default String[] getDependencies() {
+        return NO_DEPENDENCIES;
+    }
+
+    /**
+     * How important this component's update is when the loop is running over budget
+     */
+    default UpdatePriority getUpdatePriority() {
+        return UpdatePriority.NORMAL;
+    }
+
     /**
      * Update component state - called each loop iteration
      */
@@ -3,5 +3,6 @@ package org.firstinspires.ftc.teamcode.components;
 public enum ComponentType {
     SENSOR,
     DRIVE,
-    MANIPULATOR
+    MANIPULATOR,
+    VISION
 }
@@ -0,0 +1,13 @@
+package org.firstinspires.ftc.teamcode.components;
+
+/**
+ * How important it is that an update runs every loop. When the loop is overloaded the robot sheds
+ * LOW updates first and never sheds CRITICAL ones.
+ */
+public enum UpdatePriority {
+    // Drive control and the sensors it depends on
+    CRITICAL,
+    NORMAL,
+    // Diagnostics and anything that can run late without affecting control
+    LOW
+}
@@ -0,0 +1,176 @@
+package org.firstinspires.ftc.teamcode.components.encoders;
+
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+
+import org.firstinspires.ftc.teamcode.components.AbstractComponent;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+
+import java.util.Locale;
+
+/**
+ * Reads every encoder on an OctoQuad in a single I2C transaction per loop.
+ *
+ * update() pulls positions and velocities for all eight channels with readAllEncoderData() into a
+ * reused data block and copies them into primitive arrays. Consumers such as DriveTrain read from
+ * those arrays instead of issuing their own getCurrentPosition() calls, so the number of hub
+ * transactions no longer grows with the number of encoders. Velocities are measured by the
+ * OctoQuad over VELOCITY_SAMPLE_INTERVAL_MS and converted to counts per second.
+ *
+ * A failed read does not disable the hub. It keeps retrying every loop and reports itself unhealthy
+ * until a read succeeds, and consumers fall back to their own encoder reads in the meantime.
+ */
+public class OctoQuadEncoderHub extends AbstractComponent {
+    public static final String COMPONENT_NAME = "OctoQuad";
+    public static final int CHANNEL_COUNT = OctoQuad.NUM_ENCODERS;
+
+    private static final String DEVICE_NAME = "octoquad";
+    private static final int VELOCITY_SAMPLE_INTERVAL_MS = 20;
+    private static final double VELOCITY_SCALE = 1000.0 / VELOCITY_SAMPLE_INTERVAL_MS;
+
+    private OctoQuad octoquad;
+    private final OctoQuad.EncoderDataBlock dataBlock = new OctoQuad.EncoderDataBlock();
+
+    // Latest readings, indexed by channel
+    private final int[] positions = new int[CHANNEL_COUNT];
+    private final double[] velocities = new double[CHANNEL_COUNT];
+    private final int[] directions = new int[CHANNEL_COUNT];
+    private long readTimeNanos = 0;
+    private long readDurationNanos = 0;
+    private int consecutiveFailures = 0;
+
+    @Override
+    public String getName() {
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public ComponentType getType() {
+        return ComponentType.SENSOR;
+    }
+
+    @Override
+    public UpdatePriority getUpdatePriority() {
+        return UpdatePriority.CRITICAL;
+    }
+
+    @Override
+    protected void initializeComponent() throws Exception {
+        octoquad = robot.getHardwareMap().get(OctoQuad.class, DEVICE_NAME);
+
+        // Directions are applied here rather than on the device so nothing is written to flash
+        for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+            directions[channel] = 1;
+        }
+
+        octoquad.setAllVelocitySampleIntervals(VELOCITY_SAMPLE_INTERVAL_MS);
+        octoquad.resetAllPositions();
+
+        telemetryManager.info("OctoQuad firmware: " + octoquad.getFirmwareVersion());
+    }
+
+    @Override
+    public void update() {
+        if (!isOperational()) {
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            octoquad.readAllEncoderData(dataBlock);
+            readTimeNanos = System.nanoTime();
+            readDurationNanos = readTimeNanos - start;
+
+            for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+                positions[channel] = dataBlock.positions[channel] * directions[channel];
+                velocities[channel] = dataBlock.velocities[channel] * directions[channel] * VELOCITY_SCALE;
+            }
+
+            if (consecutiveFailures > 0) {
+                telemetryManager.info("OctoQuad responding again after " + consecutiveFailures + " failed reads");
+                consecutiveFailures = 0;
+            }
+
+            if (telemetryManager.isBatchDue()) {
+                telemetryData.put("Health", "OK");
+                telemetryData.put("Read Time", String.format(Locale.US, "%.2f ms", readDurationNanos / 1.0e6));
+            }
+        } catch (Exception e) {
+            // Stay operational and keep retrying, DriveTrain reads the motor encoders until reads recover
+            if (consecutiveFailures++ == 0) {
+                telemetryManager.error("OctoQuad read failed: " + e.getMessage());
+            }
+            telemetryData.put("Health", "FAULT (" + consecutiveFailures + " failed reads)");
+        }
+    }
+
+    @Override
+    public void stop() {
+        // Nothing to stop, the OctoQuad keeps counting on its own
+    }
+
+    /**
+     * Invert a channel so it counts up in the same direction as the mechanism it measures.
+     */
+    public void setChannelReversed(int channel, boolean reversed) {
+        directions[channel] = reversed ? -1 : 1;
+    }
+
+    public void resetPosition(int channel) {
+        if (!isOperational()) return;
+        try {
+            octoquad.resetSinglePosition(channel);
+        } catch (Exception e) {
+            telemetryManager.error("Failed to reset OctoQuad channel " + channel + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return position in counts from the last update()
+     */
+    public int getPosition(int channel) {
+        return positions[channel];
+    }
+
+    /**
+     * @return velocity in counts per second from the last update()
+     */
+    public double getVelocity(int channel) {
+        return velocities[channel];
+    }
+
+    /**
+     * Copy the positions for several channels at once.
+     *
+     * @param channels channels to copy, in the order they should appear in out
+     * @param out array of at least channels.length that receives the counts
+     */
+    public void getPositions(int[] channels, int[] out) {
+        for (int i = 0; i < channels.length; i++) {
+            out[i] = positions[channels[i]];
+        }
+    }
+
+    /**
+     * Copy the velocities, in counts per second, for several channels at once.
+     */
+    public void getVelocities(int[] channels, double[] out) {
+        for (int i = 0; i < channels.length; i++) {
+            out[i] = velocities[channels[i]];
+        }
+    }
+
+    /**
+     * @return true if the last read succeeded, so the positions and velocities are current
+     */
+    public boolean isHealthy() {
+        return isOperational() && consecutiveFailures == 0 && readTimeNanos != 0;
+    }
+
+    /**
+     * @return System.nanoTime() at which the last bulk read completed
+     */
+    public long getReadTimeNanos() {
+        return readTimeNanos;
+    }
+}
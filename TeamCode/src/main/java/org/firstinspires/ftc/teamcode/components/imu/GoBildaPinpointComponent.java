@@ -5,34 +5,56 @@ import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
 import org.firstinspires.ftc.teamcode.components.AbstractComponent;
 import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+import org.firstinspires.ftc.teamcode.components.localization.Localizer;
+import org.firstinspires.ftc.teamcode.components.localization.LocalizerHealth;
+import org.firstinspires.ftc.teamcode.components.localization.PoseHistory;
+import org.firstinspires.ftc.teamcode.config.Configurable;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
 import org.firstinspires.ftc.teamcode.drivers.GoBildaPinpointDriver;
 
 import java.util.Locale;
 
-public class GoBildaPinpointComponent extends AbstractComponent {
+public class GoBildaPinpointComponent extends AbstractComponent implements Localizer, Configurable {
+    public static final String COMPONENT_NAME = "GoBildaPinpoint";
+
     // Hardware reference
     private GoBildaPinpointDriver pinpoint;
 
 
 
-    // Configuration constants - these could be made configurable
-//    private static final double DEFAULT_X_OFFSET = -84.0;  // mm
-//    private static final double DEFAULT_Y_OFFSET = -168.0; // mm
+    // Offsets and pod resolution come from RobotConfig, the last applied values are kept so a
+    // reload only writes what changed to the device
+    private double xOffset, yOffset;
+    private GoBildaPinpointDriver.GoBildaOdometryPods podType;
+    private double ticksPerMM;
+    private double yawScalar;
 
-    // https://www.gobilda.com/content/user_manuals/3110-0002-0001%20User%20Guide.pdf
-    // the X/forward pod is -4 inches (-101.6mm) off center (to the right of center which makes it negative)
-    // the Y pod offset is -6 3/4 inches (-171.45)off the center point (below the center)
-    private static final double DEFAULT_X_OFFSET = -101.6;  // mm
-    private static final double DEFAULT_Y_OFFSET = -171.45; // mm
+    // The resolutions the driver writes for each pod type, in ticks per mm
+    private static final double SWINGARM_POD_TICKS_PER_MM = 13.26291192;
+    private static final double FOUR_BAR_POD_TICKS_PER_MM = 19.89436789;
 
+    // Roughly two and a half seconds of poses at a 100 Hz loop, well past any vision latency
+    private static final int POSE_HISTORY_CAPACITY = 256;
 
     // State tracking
     private long lastUpdateTime = 0;
     private double updateFrequency = 0;
 
+    // Pose from the last bulk read, in mm, degrees and per-second rates
+    private double x, y, heading;
+    private double velocityX, velocityY, headingVelocity;
+    private long poseTimeNanos = 0;
+    private LocalizerHealth health = LocalizerHealth.NOT_READY;
+    private int consecutiveFailures = 0;
+
+    // Timestamped poses used to apply latency-compensated vision corrections
+    private final PoseHistory poseHistory = new PoseHistory(POSE_HISTORY_CAPACITY);
+    private final double[] correctedPose = new double[3];
+
     @Override
     public String getName() {
-        return "GoBildaPinpoint";
+        return COMPONENT_NAME;
     }
 
     @Override
@@ -40,17 +62,27 @@ public class GoBildaPinpointComponent extends AbstractComponent {
         return ComponentType.SENSOR;
     }
 
+    @Override
+    public UpdatePriority getUpdatePriority() {
+        return UpdatePriority.CRITICAL;
+    }
+
     @Override
     protected void initializeComponent() throws Exception {
         try {
             // Get hardware reference
             pinpoint = robot.getHardwareMap().get(GoBildaPinpointDriver.class, "odo");
 
-            // Configure default settings
-            pinpoint.setOffsets(DEFAULT_X_OFFSET, DEFAULT_Y_OFFSET);
-
-            //TODO, this needs to be configurable
-            pinpoint.setEncoderResolution(GoBildaPinpointDriver.GoBildaOdometryPods.goBILDA_SWINGARM_POD);
+            // Configure offsets and pod resolution
+            RobotConfig config = robot.getConfig();
+            xOffset = config.pinpointXOffset;
+            yOffset = config.pinpointYOffset;
+            pinpoint.setOffsets(xOffset, yOffset);
+            podType = config.pinpointPodType;
+            ticksPerMM = config.pinpointTicksPerMm;
+            writeEncoderResolution();
+            yawScalar = config.pinpointYawScalar;
+            writeYawScalar();
 
             // x increases forward
             // y increases to the right
@@ -60,6 +92,7 @@ public class GoBildaPinpointComponent extends AbstractComponent {
             );
 
             // Reset position and calibrate
+            poseHistory.clear();
             resetPosAndIMU();
 
             // recalibrate for starting state
@@ -88,8 +121,26 @@ public class GoBildaPinpointComponent extends AbstractComponent {
         try {
             long currentTime = System.currentTimeMillis();
 
-            // Pull the data from the odometry computer
+            // Pull the data from the odometry computer, a single bulk read of every register
             pinpoint.update();
+            poseTimeNanos = System.nanoTime();
+            health = toHealth(pinpoint.getDeviceStatus());
+            if (consecutiveFailures > 0) {
+                telemetryManager.info("Pinpoint responding again after " + consecutiveFailures + " failed reads");
+                consecutiveFailures = 0;
+            }
+            if (health == LocalizerHealth.FAULT) {
+                telemetryData.put("Health", health + " (" + pinpoint.getDeviceStatus() + ")");
+                return;
+            }
+            poseHistory.record(poseTimeNanos, pinpoint.getPosX(), pinpoint.getPosY(), pinpoint.getHeading());
+
+            x = pinpoint.getPosX();
+            y = pinpoint.getPosY();
+            heading = Math.toDegrees(pinpoint.getHeading());
+            velocityX = pinpoint.getVelX();
+            velocityY = pinpoint.getVelY();
+            headingVelocity = Math.toDegrees(pinpoint.getHeadingVelocity());
 
             // Calculate update frequency
             if (lastUpdateTime != 0) {
@@ -98,29 +149,43 @@ public class GoBildaPinpointComponent extends AbstractComponent {
             }
             lastUpdateTime = currentTime;
 
-            // Get current position and velocity
-            Pose2D position = pinpoint.getPosition();
-            Pose2D velocity = pinpoint.getVelocity();
-
             // Update telemetry data
-            telemetryData.clear();
-//            telemetryData.put("Status", pinpoint.getDeviceStatus().toString());
-            telemetryData.put("Position", String.format(Locale.US,
-                    "X: %.2f, Y: %.2f, H: %.2f",
-                    position.getX(DistanceUnit.MM),
-                    position.getY(DistanceUnit.MM),
-                    position.getHeading(AngleUnit.DEGREES)));
-//            telemetryData.put("Velocity", String.format(Locale.US,
-//                    "X: %.2f, Y: %.2f, H: %.2f",
-//                    velocity.getX(DistanceUnit.MM),
-//                    velocity.getY(DistanceUnit.MM),
-//                    velocity.getHeading(AngleUnit.DEGREES)));
-            telemetryData.put("Update Frequency", String.format("%.1f Hz", updateFrequency));
-            telemetryData.put("Device Frequency", String.format("%.1f Hz", pinpoint.getFrequency()));
+            if (telemetryManager.isBatchDue()) {
+                telemetryData.clear();
+                telemetryData.put("Health", health);
+                telemetryData.put("Position", String.format(Locale.US,
+                        "X: %.2f, Y: %.2f, H: %.2f", x, y, heading));
+//                telemetryData.put("Velocity", String.format(Locale.US,
+//                        "X: %.2f, Y: %.2f, H: %.2f",
+//                        velocity.getX(DistanceUnit.MM),
+//                        velocity.getY(DistanceUnit.MM),
+//                        velocity.getHeading(AngleUnit.DEGREES)));
+                telemetryData.put("Update Frequency", String.format("%.1f Hz", updateFrequency));
+                telemetryData.put("Device Frequency", String.format("%.1f Hz", pinpoint.getFrequency()));
+            }
 
         } catch (Exception e) {
-            telemetryManager.error("Pinpoint update failed: " + e.getMessage());
-            emergencyStop("Pinpoint failure");
+            // Stay operational and keep retrying, a FailoverLocalizer covers for us until reads recover
+            health = LocalizerHealth.FAULT;
+            if (consecutiveFailures++ == 0) {
+                telemetryManager.error("Pinpoint update failed: " + e.getMessage());
+            }
+            telemetryData.put("Health", health + " (" + consecutiveFailures + " failed reads)");
+        }
+    }
+
+    private static LocalizerHealth toHealth(GoBildaPinpointDriver.DeviceStatus status) {
+        if (status == null) {
+            return LocalizerHealth.FAULT;
+        }
+        switch (status) {
+            case READY:
+                return LocalizerHealth.OK;
+            case NOT_READY:
+            case CALIBRATING:
+                return LocalizerHealth.NOT_READY;
+            default:
+                return LocalizerHealth.FAULT;
         }
     }
 
@@ -129,6 +194,51 @@ public class GoBildaPinpointComponent extends AbstractComponent {
         // Nothing special needed for stopping
     }
 
+    private void writeEncoderResolution() {
+        if (ticksPerMM > 0) {
+            pinpoint.setEncoderResolution(ticksPerMM);
+        } else {
+            pinpoint.setEncoderResolution(podType);
+        }
+    }
+
+    private void writeYawScalar() {
+        if (yawScalar > 0) {
+            pinpoint.setYawScalar(yawScalar);
+        }
+    }
+
+    @Override
+    public void applyConfig(RobotConfig config) {
+        if (!isOperational()) return;
+
+        if (config.pinpointXOffset != xOffset || config.pinpointYOffset != yOffset) {
+            setOffsets(config.pinpointXOffset, config.pinpointYOffset);
+            xOffset = config.pinpointXOffset;
+            yOffset = config.pinpointYOffset;
+        }
+        if (config.pinpointPodType != podType || config.pinpointTicksPerMm != ticksPerMM) {
+            podType = config.pinpointPodType;
+            ticksPerMM = config.pinpointTicksPerMm;
+            try {
+                writeEncoderResolution();
+                telemetryManager.info("Encoder resolution updated from config");
+            } catch (Exception e) {
+                telemetryManager.error("Failed to set encoder resolution: " + e.getMessage());
+            }
+        }
+        if (config.pinpointYawScalar != yawScalar) {
+            yawScalar = config.pinpointYawScalar;
+            try {
+                writeYawScalar();
+                telemetryManager.info(yawScalar > 0 ? "Yaw scalar updated from config"
+                        : "Yaw scalar left at its last value until restart");
+            } catch (Exception e) {
+                telemetryManager.error("Failed to set yaw scalar: " + e.getMessage());
+            }
+        }
+    }
+
     // Configuration methods
     public void setOffsets(double xOffset, double yOffset) {
         if (!isOperational()) return;
@@ -194,6 +304,36 @@ public class GoBildaPinpointComponent extends AbstractComponent {
         }
     }
 
+    /**
+     * Apply an absolute pose fix (for example from an AprilTag) that was measured at a past time.
+     * The fix is applied against the recorded pose at the capture time and the motion since then
+     * is replayed on top of it before the result is written to the odometry computer.
+     *
+     * @param captureTimeNanos System.nanoTime() at which the measurement was captured
+     * @param xMM measured x position in mm
+     * @param yMM measured y position in mm
+     * @param headingDegrees measured heading in degrees
+     * @return false if the capture time is older than the recorded history
+     */
+    public boolean applyVisionCorrection(long captureTimeNanos, double xMM, double yMM, double headingDegrees) {
+        if (!isOperational()) return false;
+        try {
+            if (!poseHistory.correct(captureTimeNanos, xMM, yMM, Math.toRadians(headingDegrees), correctedPose)) {
+                return false;
+            }
+            pinpoint.setPosition(new Pose2D(DistanceUnit.MM, correctedPose[0], correctedPose[1],
+                    AngleUnit.RADIANS, correctedPose[2]));
+            return true;
+        } catch (Exception e) {
+            telemetryManager.error("Failed to apply vision correction: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public PoseHistory getPoseHistory() {
+        return poseHistory;
+    }
+
     // Data access methods
     public Pose2D getPosition() {
         if (!isOperational()) {
@@ -219,9 +359,94 @@ public class GoBildaPinpointComponent extends AbstractComponent {
         }
     }
 
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    @Override
     public double getHeading() {
-        return isOperational() ?
-                pinpoint.getPosition().getHeading(AngleUnit.DEGREES) : 0.0;
+        return heading;
+    }
+
+    @Override
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    @Override
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    @Override
+    public double getHeadingVelocity() {
+        return headingVelocity;
+    }
+
+    @Override
+    public long getPoseTimeNanos() {
+        return poseTimeNanos;
+    }
+
+    @Override
+    public LocalizerHealth getHealth() {
+        return isOperational() ? health : LocalizerHealth.FAULT;
+    }
+
+    @Override
+    public void setPose(double xMM, double yMM, double headingDegrees) {
+        if (!isOperational()) return;
+        try {
+            pinpoint.setPosition(new Pose2D(DistanceUnit.MM, xMM, yMM, AngleUnit.DEGREES, headingDegrees));
+
+            // Poses from before the jump are in the old frame, so a vision fix captured then must
+            // not be replayed onto the new one. Starting the history over rejects those fixes
+            poseHistory.clear();
+            poseHistory.record(System.nanoTime(), xMM, yMM, Math.toRadians(headingDegrees));
+        } catch (Exception e) {
+            telemetryManager.error("Failed to set position: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the X and Y pod offsets last written to the device, in mm
+     */
+    public double getXOffset() {
+        return xOffset;
+    }
+
+    public double getYOffset() {
+        return yOffset;
+    }
+
+    /**
+     * @return the pod resolution in use, in ticks per mm
+     */
+    public double getTicksPerMm() {
+        if (ticksPerMM > 0) {
+            return ticksPerMM;
+        }
+        return podType == GoBildaPinpointDriver.GoBildaOdometryPods.goBILDA_4_BAR_POD
+                ? FOUR_BAR_POD_TICKS_PER_MM : SWINGARM_POD_TICKS_PER_MM;
+    }
+
+    /**
+     * @return the yaw scalar the device is using, read from the device
+     */
+    public double getYawScalar() {
+        if (!isOperational()) return 1.0;
+        try {
+            return pinpoint.getYawScalar();
+        } catch (Exception e) {
+            telemetryManager.error("Failed to read yaw scalar: " + e.getMessage());
+            return 1.0;
+        }
     }
 
     public double getUpdateFrequency() {
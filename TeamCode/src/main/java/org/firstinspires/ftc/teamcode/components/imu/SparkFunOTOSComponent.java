@@ -0,0 +1,257 @@
+package org.firstinspires.ftc.teamcode.components.imu;
+
+import com.qualcomm.hardware.sparkfun.SparkFunOTOS;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.teamcode.components.AbstractComponent;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+import org.firstinspires.ftc.teamcode.components.localization.Localizer;
+import org.firstinspires.ftc.teamcode.components.localization.LocalizerHealth;
+import org.firstinspires.ftc.teamcode.config.Configurable;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
+
+import java.util.Locale;
+
+/**
+ * Localizer backed by a SparkFun Optical Tracking Odometry Sensor.
+ *
+ * update() reads position, velocity and acceleration with a single getPosVelAcc() burst read into
+ * preallocated poses. The status register costs a separate transaction, so it is only polled every
+ * STATUS_CHECK_INTERVAL loops. The sensor only reports meters or inches, so it is run in meters
+ * and converted to mm here. The mounting offset and scalars come from RobotConfig.
+ *
+ * A failed read reports FAULT health and is retried every loop rather than disabling the sensor,
+ * so a FailoverLocalizer can switch back once reads recover.
+ */
+public class SparkFunOTOSComponent extends AbstractComponent implements Localizer, Configurable {
+    public static final String COMPONENT_NAME = "SparkFunOTOS";
+
+    private static final String DEVICE_NAME = "sensor_otos";
+    private static final double MM_PER_METER = 1000.0;
+    private static final int STATUS_CHECK_INTERVAL = 25;
+
+    private SparkFunOTOS otos;
+
+    // Mounting offset from the center of the robot in mm and degrees, and calibration scalars
+    private double offsetX, offsetY, offsetHeading;
+    private double linearScalar, angularScalar;
+
+    // Reused for every burst read
+    private final SparkFunOTOS.Pose2D position = new SparkFunOTOS.Pose2D();
+    private final SparkFunOTOS.Pose2D velocity = new SparkFunOTOS.Pose2D();
+    private final SparkFunOTOS.Pose2D acceleration = new SparkFunOTOS.Pose2D();
+
+    // Pose from the last read, in mm, degrees and per-second rates
+    private double x, y, heading;
+    private double velocityX, velocityY, headingVelocity;
+    private long poseTimeNanos = 0;
+    private LocalizerHealth health = LocalizerHealth.NOT_READY;
+    private int loopsSinceStatus = 0;
+    private int consecutiveFailures = 0;
+
+    // State tracking
+    private long lastUpdateTime = 0;
+    private double updateFrequency = 0;
+
+    @Override
+    public String getName() {
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public ComponentType getType() {
+        return ComponentType.SENSOR;
+    }
+
+    // Localization runs before anything that reads the pose this loop
+    @Override
+    public UpdatePriority getUpdatePriority() {
+        return UpdatePriority.CRITICAL;
+    }
+
+    @Override
+    protected void initializeComponent() throws Exception {
+        otos = robot.getHardwareMap().get(SparkFunOTOS.class, DEVICE_NAME);
+        if (!otos.begin()) {
+            throw new RuntimeException("OTOS not responding");
+        }
+
+        otos.setLinearUnit(DistanceUnit.METER);
+        otos.setAngularUnit(AngleUnit.DEGREES);
+        RobotConfig config = robot.getConfig();
+        offsetX = config.otosXOffset;
+        offsetY = config.otosYOffset;
+        offsetHeading = config.otosHeadingOffset;
+        linearScalar = config.otosLinearScalar;
+        angularScalar = config.otosAngularScalar;
+        writeOffset();
+        otos.setLinearScalar(linearScalar);
+        otos.setAngularScalar(angularScalar);
+
+        // The robot must be still while the IMU calibrates
+        otos.calibrateImu();
+        otos.resetTracking();
+        otos.setPosition(new SparkFunOTOS.Pose2D(0, 0, 0));
+
+        SparkFunOTOS.Version hardwareVersion = new SparkFunOTOS.Version();
+        SparkFunOTOS.Version firmwareVersion = new SparkFunOTOS.Version();
+        otos.getVersionInfo(hardwareVersion, firmwareVersion);
+        telemetryManager.info(String.format(Locale.US, "OTOS hardware v%d.%d, firmware v%d.%d",
+                hardwareVersion.major, hardwareVersion.minor, firmwareVersion.major, firmwareVersion.minor));
+    }
+
+    @Override
+    public void update() {
+        if (!isOperational()) {
+            return;
+        }
+
+        try {
+            long currentTime = System.currentTimeMillis();
+
+            otos.getPosVelAcc(position, velocity, acceleration);
+            poseTimeNanos = System.nanoTime();
+
+            x = position.x * MM_PER_METER;
+            y = position.y * MM_PER_METER;
+            heading = position.h;
+            velocityX = velocity.x * MM_PER_METER;
+            velocityY = velocity.y * MM_PER_METER;
+            headingVelocity = velocity.h;
+
+            if (consecutiveFailures > 0) {
+                telemetryManager.info("OTOS responding again after " + consecutiveFailures + " failed reads");
+                consecutiveFailures = 0;
+                // The FAULT from the failed reads only clears once the status is read again
+                health = LocalizerHealth.NOT_READY;
+            }
+
+            if (++loopsSinceStatus >= STATUS_CHECK_INTERVAL || health == LocalizerHealth.NOT_READY) {
+                loopsSinceStatus = 0;
+                health = toHealth(otos.getStatus());
+            }
+
+            if (lastUpdateTime != 0) {
+                double deltaTime = (currentTime - lastUpdateTime) / 1000.0;
+                updateFrequency = 1.0 / deltaTime;
+            }
+            lastUpdateTime = currentTime;
+
+            if (telemetryManager.isBatchDue()) {
+                telemetryData.clear();
+                telemetryData.put("Health", health);
+                telemetryData.put("Position", String.format(Locale.US,
+                        "X: %.2f, Y: %.2f, H: %.2f", x, y, heading));
+                telemetryData.put("Update Frequency", String.format(Locale.US, "%.1f Hz", updateFrequency));
+            }
+
+        } catch (Exception e) {
+            // Stay operational and keep retrying, a FailoverLocalizer covers for us until reads recover
+            health = LocalizerHealth.FAULT;
+            if (consecutiveFailures++ == 0) {
+                telemetryManager.error("OTOS update failed: " + e.getMessage());
+            }
+            telemetryData.put("Health", health + " (" + consecutiveFailures + " failed reads)");
+        }
+    }
+
+    private void writeOffset() {
+        otos.setOffset(new SparkFunOTOS.Pose2D(offsetX / MM_PER_METER, offsetY / MM_PER_METER, offsetHeading));
+    }
+
+    @Override
+    public void applyConfig(RobotConfig config) {
+        if (!isOperational()) return;
+
+        try {
+            if (config.otosXOffset != offsetX || config.otosYOffset != offsetY
+                    || config.otosHeadingOffset != offsetHeading) {
+                offsetX = config.otosXOffset;
+                offsetY = config.otosYOffset;
+                offsetHeading = config.otosHeadingOffset;
+                writeOffset();
+                telemetryManager.info("OTOS offset updated from config");
+            }
+            if (config.otosLinearScalar != linearScalar || config.otosAngularScalar != angularScalar) {
+                linearScalar = config.otosLinearScalar;
+                angularScalar = config.otosAngularScalar;
+                otos.setLinearScalar(linearScalar);
+                otos.setAngularScalar(angularScalar);
+                telemetryManager.info("OTOS scalars updated from config");
+            }
+        } catch (Exception e) {
+            telemetryManager.error("Failed to apply OTOS config: " + e.getMessage());
+        }
+    }
+
+    private static LocalizerHealth toHealth(SparkFunOTOS.Status status) {
+        if (status == null || status.errorLsm || status.errorPaa) {
+            return LocalizerHealth.FAULT;
+        }
+        if (status.warnTiltAngle || status.warnOpticalTracking) {
+            return LocalizerHealth.DEGRADED;
+        }
+        return LocalizerHealth.OK;
+    }
+
+    @Override
+    public void stop() {
+        // Nothing to stop, the sensor keeps tracking on its own
+    }
+
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public double getHeading() {
+        return heading;
+    }
+
+    @Override
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    @Override
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    @Override
+    public double getHeadingVelocity() {
+        return headingVelocity;
+    }
+
+    @Override
+    public long getPoseTimeNanos() {
+        return poseTimeNanos;
+    }
+
+    @Override
+    public LocalizerHealth getHealth() {
+        return isOperational() ? health : LocalizerHealth.FAULT;
+    }
+
+    @Override
+    public void setPose(double xMM, double yMM, double headingDegrees) {
+        if (!isOperational()) return;
+        try {
+            otos.setPosition(new SparkFunOTOS.Pose2D(xMM / MM_PER_METER, yMM / MM_PER_METER, headingDegrees));
+        } catch (Exception e) {
+            telemetryManager.error("Failed to set OTOS position: " + e.getMessage());
+        }
+    }
+
+    public double getUpdateFrequency() {
+        return updateFrequency;
+    }
+}
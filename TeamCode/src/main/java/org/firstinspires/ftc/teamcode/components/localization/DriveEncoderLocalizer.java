@@ -0,0 +1,204 @@
+package org.firstinspires.ftc.teamcode.components.localization;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+
+import org.firstinspires.ftc.teamcode.components.AbstractComponent;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+import org.firstinspires.ftc.teamcode.components.motion.DriveTrain;
+import org.firstinspires.ftc.teamcode.config.Configurable;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
+
+import java.util.Locale;
+
+/**
+ * Fallback localizer that dead-reckons from the four mecanum drive encoders.
+ *
+ * Wheel positions come from DriveTrain.getWheelPositions(), which is served from the OctoQuad when
+ * one is fitted. Otherwise the hubs are switched to AUTO bulk caching so the four encoder reads in
+ * a loop cost one bulk read per hub instead of one transaction per motor. Heading is integrated
+ * from the wheels as well, so it drifts with wheel slip and this localizer is only meant for when
+ * no dedicated odometry sensor is available. The wheel spacing comes from RobotConfig.
+ *
+ * A failed read reports FAULT health and is retried every loop. The next good read picks up the
+ * motion made in the meantime, since positions are absolute counts.
+ */
+public class DriveEncoderLocalizer extends AbstractComponent implements Localizer, Configurable {
+    public static final String COMPONENT_NAME = "DriveEncoderLocalizer";
+
+    // goBILDA 5203 312 rpm motors on 104 mm mecanum wheels
+    private static final double TICKS_PER_REV = 537.7;
+    private static final double WHEEL_DIAMETER_MM = 104.0;
+    private static final double MM_PER_TICK = Math.PI * WHEEL_DIAMETER_MM / TICKS_PER_REV;
+
+    private DriveTrain driveTrain;
+
+    // Half the sum of the track width and wheel base, the lever arm of a wheel when turning
+    private double turnRadiusMm;
+    private int consecutiveFailures = 0;
+
+    // Encoder readings, in DriveTrain wheel order
+    private final int[] wheelPositions = new int[4];
+    private final int[] lastWheelPositions = new int[4];
+    private final double[] wheelVelocities = new double[4];
+
+    // Pose, in mm and radians internally
+    private double x, y, headingRadians;
+    private double velocityX, velocityY, headingVelocity;
+    private long poseTimeNanos = 0;
+
+    @Override
+    public String getName() {
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public ComponentType getType() {
+        return ComponentType.SENSOR;
+    }
+
+    @Override
+    public UpdatePriority getUpdatePriority() {
+        return UpdatePriority.CRITICAL;
+    }
+
+    @Override
+    public String[] getDependencies() {
+        return new String[] { DriveTrain.COMPONENT_NAME };
+    }
+
+    @Override
+    protected void initializeComponent() throws Exception {
+        driveTrain = robot.getDriveTrain();
+        if (driveTrain == null || !driveTrain.isOperational()) {
+            throw new RuntimeException("Drive train must be registered before the encoder localizer");
+        }
+
+        // Only switch hubs that are not already caching, someone else may be managing them manually
+        for (LynxModule hub : robot.getHardwareMap().getAll(LynxModule.class)) {
+            if (hub.getBulkCachingMode() == LynxModule.BulkCachingMode.OFF) {
+                hub.setBulkCachingMode(LynxModule.BulkCachingMode.AUTO);
+            }
+        }
+
+        applyConfig(robot.getConfig());
+        driveTrain.getWheelPositions(lastWheelPositions);
+    }
+
+    @Override
+    public void applyConfig(RobotConfig config) {
+        turnRadiusMm = (config.encoderTrackWidthMm + config.encoderWheelBaseMm) / 2.0;
+    }
+
+    @Override
+    public void update() {
+        if (!isOperational()) {
+            return;
+        }
+
+        try {
+            driveTrain.getWheelPositions(wheelPositions);
+            driveTrain.getWheelVelocities(wheelVelocities);
+            poseTimeNanos = System.nanoTime();
+            if (consecutiveFailures > 0) {
+                telemetryManager.info("Encoder localizer reading again after " + consecutiveFailures + " failed reads");
+                consecutiveFailures = 0;
+            }
+
+            double frontLeft = (wheelPositions[DriveTrain.FRONT_LEFT] - lastWheelPositions[DriveTrain.FRONT_LEFT]) * MM_PER_TICK;
+            double backLeft = (wheelPositions[DriveTrain.BACK_LEFT] - lastWheelPositions[DriveTrain.BACK_LEFT]) * MM_PER_TICK;
+            double frontRight = (wheelPositions[DriveTrain.FRONT_RIGHT] - lastWheelPositions[DriveTrain.FRONT_RIGHT]) * MM_PER_TICK;
+            double backRight = (wheelPositions[DriveTrain.BACK_RIGHT] - lastWheelPositions[DriveTrain.BACK_RIGHT]) * MM_PER_TICK;
+            System.arraycopy(wheelPositions, 0, lastWheelPositions, 0, wheelPositions.length);
+
+            // Inverse of DriveTrain.calculateWheelPowers(), giving robot-relative motion
+            double forward = (frontLeft + backLeft + frontRight + backRight) / 4.0;
+            double left = (frontLeft - backLeft - frontRight + backRight) / 4.0;
+            double turn = (frontRight + backRight - frontLeft - backLeft) / (4.0 * turnRadiusMm);
+
+            // Integrate along the mid-step heading
+            double midHeading = headingRadians + turn / 2.0;
+            double cos = Math.cos(midHeading);
+            double sin = Math.sin(midHeading);
+            x += forward * cos - left * sin;
+            y += forward * sin + left * cos;
+            headingRadians = PoseHistory.normalizeRadians(headingRadians + turn);
+
+            double forwardRate = (wheelVelocities[DriveTrain.FRONT_LEFT] + wheelVelocities[DriveTrain.BACK_LEFT]
+                    + wheelVelocities[DriveTrain.FRONT_RIGHT] + wheelVelocities[DriveTrain.BACK_RIGHT]) / 4.0 * MM_PER_TICK;
+            double leftRate = (wheelVelocities[DriveTrain.FRONT_LEFT] - wheelVelocities[DriveTrain.BACK_LEFT]
+                    - wheelVelocities[DriveTrain.FRONT_RIGHT] + wheelVelocities[DriveTrain.BACK_RIGHT]) / 4.0 * MM_PER_TICK;
+            double turnRate = (wheelVelocities[DriveTrain.FRONT_RIGHT] + wheelVelocities[DriveTrain.BACK_RIGHT]
+                    - wheelVelocities[DriveTrain.FRONT_LEFT] - wheelVelocities[DriveTrain.BACK_LEFT]) * MM_PER_TICK / (4.0 * turnRadiusMm);
+            velocityX = forwardRate * cos - leftRate * sin;
+            velocityY = forwardRate * sin + leftRate * cos;
+            headingVelocity = Math.toDegrees(turnRate);
+
+            if (telemetryManager.isBatchDue()) {
+                telemetryData.clear();
+                telemetryData.put("Position", String.format(Locale.US,
+                        "X: %.2f, Y: %.2f, H: %.2f", x, y, Math.toDegrees(headingRadians)));
+            }
+
+        } catch (Exception e) {
+            // Stay operational and keep retrying, the pose catches up on the next good read
+            if (consecutiveFailures++ == 0) {
+                telemetryManager.error("Encoder localizer update failed: " + e.getMessage());
+            }
+            telemetryData.put("Health", LocalizerHealth.FAULT + " (" + consecutiveFailures + " failed reads)");
+        }
+    }
+
+    @Override
+    public void stop() {
+        // Nothing to stop
+    }
+
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public double getHeading() {
+        return Math.toDegrees(headingRadians);
+    }
+
+    @Override
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    @Override
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    @Override
+    public double getHeadingVelocity() {
+        return headingVelocity;
+    }
+
+    @Override
+    public long getPoseTimeNanos() {
+        return poseTimeNanos;
+    }
+
+    @Override
+    public LocalizerHealth getHealth() {
+        return isOperational() && driveTrain.isOperational() && consecutiveFailures == 0
+                ? LocalizerHealth.OK : LocalizerHealth.FAULT;
+    }
+
+    @Override
+    public void setPose(double xMM, double yMM, double headingDegrees) {
+        x = xMM;
+        y = yMM;
+        headingRadians = PoseHistory.normalizeRadians(Math.toRadians(headingDegrees));
+    }
+}
@@ -0,0 +1,209 @@
+package org.firstinspires.ftc.teamcode.components.localization;
+
+import org.firstinspires.ftc.teamcode.components.AbstractComponent;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+
+import java.util.Locale;
+
+/**
+ * Reports the pose of a primary localizer and falls back to a secondary one when it faults.
+ *
+ * While the primary is healthy the fallback is re-seeded with its pose every loop, so the fallback
+ * only ever integrates one loop of its own motion and can take over on the first loop the primary
+ * reports FAULT. Once the primary has been healthy again for RECOVERY_LOOPS loops it is re-seeded
+ * with the fallback's pose through setPose(), and reporting switches back on the following loop
+ * after the primary has picked that pose up.
+ *
+ * Both localizers must be registered, and therefore updated, before this component.
+ */
+public class FailoverLocalizer extends AbstractComponent implements Localizer {
+    public static final String COMPONENT_NAME = "FailoverLocalizer";
+
+    private static final int RECOVERY_LOOPS = 10;
+
+    private enum Source {
+        PRIMARY,
+        FALLBACK,
+        RESEEDING
+    }
+
+    private final Localizer primary;
+    private final Localizer fallback;
+
+    private Source source = Source.PRIMARY;
+    private Localizer active;
+    private int healthyLoops = 0;
+    private int failovers = 0;
+    private long faultStartNanos = 0;
+    private double lastOutageMs = 0;
+
+    public FailoverLocalizer(Localizer primary, Localizer fallback) {
+        this.primary = primary;
+        this.fallback = fallback;
+        this.active = primary;
+    }
+
+    @Override
+    public String getName() {
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public ComponentType getType() {
+        return ComponentType.SENSOR;
+    }
+
+    @Override
+    public UpdatePriority getUpdatePriority() {
+        return UpdatePriority.CRITICAL;
+    }
+
+    @Override
+    public String[] getDependencies() {
+        return new String[] { primary.getName(), fallback.getName() };
+    }
+
+    @Override
+    protected void initializeComponent() throws Exception {
+        if (primary == null || fallback == null) {
+            throw new IllegalArgumentException("Failover needs both a primary and a fallback localizer");
+        }
+        if (!fallback.isOperational()) {
+            throw new RuntimeException(fallback.getName() + " is not operational");
+        }
+        fallback.setPose(primary.getX(), primary.getY(), primary.getHeading());
+    }
+
+    @Override
+    public void update() {
+        if (!isOperational()) {
+            return;
+        }
+
+        LocalizerHealth primaryHealth = primary.getHealth();
+        boolean primaryHealthy = isUsable(primaryHealth);
+
+        switch (source) {
+            case PRIMARY:
+                if (primaryHealthy) {
+                    fallback.setPose(primary.getX(), primary.getY(), primary.getHeading());
+                } else if (primaryHealth == LocalizerHealth.FAULT) {
+                    source = Source.FALLBACK;
+                    active = fallback;
+                    healthyLoops = 0;
+                    failovers++;
+                    faultStartNanos = System.nanoTime();
+                    telemetryManager.warning(primary.getName() + " faulted - localizing with " + fallback.getName());
+                }
+                break;
+
+            case FALLBACK:
+                healthyLoops = primaryHealthy ? healthyLoops + 1 : 0;
+                if (healthyLoops >= RECOVERY_LOOPS) {
+                    primary.setPose(fallback.getX(), fallback.getY(), fallback.getHeading());
+                    source = Source.RESEEDING;
+                }
+                break;
+
+            case RESEEDING:
+                // The primary read the re-seeded pose this loop, hand control back to it
+                if (primaryHealthy) {
+                    source = Source.PRIMARY;
+                    active = primary;
+                    lastOutageMs = (System.nanoTime() - faultStartNanos) / 1.0e6;
+                    telemetryManager.info(String.format(Locale.US, "%s recovered after %.0f ms",
+                            primary.getName(), lastOutageMs));
+                } else {
+                    source = Source.FALLBACK;
+                    healthyLoops = 0;
+                }
+                break;
+        }
+
+        if (!telemetryManager.isBatchDue()) {
+            return;
+        }
+        telemetryData.clear();
+        telemetryData.put("Source", active.getName());
+        telemetryData.put("Failovers", failovers);
+        if (failovers > 0 && source == Source.PRIMARY) {
+            telemetryData.put("Last Outage", String.format(Locale.US, "%.0f ms", lastOutageMs));
+        }
+    }
+
+    private static boolean isUsable(LocalizerHealth health) {
+        return health == LocalizerHealth.OK || health == LocalizerHealth.DEGRADED;
+    }
+
+    @Override
+    public void stop() {
+        // The wrapped localizers are stopped by the robot
+    }
+
+    /**
+     * @return the localizer whose pose is currently being reported
+     */
+    public Localizer getActive() {
+        return active;
+    }
+
+    public boolean isFailedOver() {
+        return active != primary;
+    }
+
+    public int getFailoverCount() {
+        return failovers;
+    }
+
+    @Override
+    public double getX() {
+        return active.getX();
+    }
+
+    @Override
+    public double getY() {
+        return active.getY();
+    }
+
+    @Override
+    public double getHeading() {
+        return active.getHeading();
+    }
+
+    @Override
+    public double getVelocityX() {
+        return active.getVelocityX();
+    }
+
+    @Override
+    public double getVelocityY() {
+        return active.getVelocityY();
+    }
+
+    @Override
+    public double getHeadingVelocity() {
+        return active.getHeadingVelocity();
+    }
+
+    @Override
+    public long getPoseTimeNanos() {
+        return active.getPoseTimeNanos();
+    }
+
+    @Override
+    public LocalizerHealth getHealth() {
+        if (!isOperational()) {
+            return LocalizerHealth.FAULT;
+        }
+        // Running on the fallback is usable but less accurate than the primary
+        LocalizerHealth health = active.getHealth();
+        return active == fallback && health == LocalizerHealth.OK ? LocalizerHealth.DEGRADED : health;
+    }
+
+    @Override
+    public void setPose(double xMM, double yMM, double headingDegrees) {
+        primary.setPose(xMM, yMM, headingDegrees);
+        fallback.setPose(xMM, yMM, headingDegrees);
+    }
+}
@@ -0,0 +1,56 @@
+package org.firstinspires.ftc.teamcode.components.localization;
+
+import org.firstinspires.ftc.teamcode.components.Component;
+
+/**
+ * A component that tracks the robot's field pose.
+ *
+ * Implementations read their sensor once per update() using the cheapest bulk read the device
+ * offers and cache the result, so the getters below never touch hardware and can be called any
+ * number of times per loop. All localizers use the same frame: x forward and y to the left of the
+ * starting pose in mm, heading counter-clockwise in degrees.
+ */
+public interface Localizer extends Component {
+
+    /**
+     * @return x position in mm
+     */
+    double getX();
+
+    /**
+     * @return y position in mm
+     */
+    double getY();
+
+    /**
+     * @return heading in degrees
+     */
+    double getHeading();
+
+    /**
+     * @return field-relative x velocity in mm per second
+     */
+    double getVelocityX();
+
+    /**
+     * @return field-relative y velocity in mm per second
+     */
+    double getVelocityY();
+
+    /**
+     * @return heading rate in degrees per second
+     */
+    double getHeadingVelocity();
+
+    /**
+     * @return System.nanoTime() at which the cached pose was read
+     */
+    long getPoseTimeNanos();
+
+    LocalizerHealth getHealth();
+
+    /**
+     * Overwrite the tracked pose, for example at the start of autonomous or after a vision fix.
+     */
+    void setPose(double xMM, double yMM, double headingDegrees);
+}
@@ -0,0 +1,15 @@
+package org.firstinspires.ftc.teamcode.components.localization;
+
+/**
+ * How far a Localizer's pose can be trusted right now.
+ */
+public enum LocalizerHealth {
+    // The sensor is still starting up or calibrating, the pose is not meaningful yet
+    NOT_READY,
+    // Tracking normally
+    OK,
+    // Tracking, but the sensor is reporting a warning and the pose may drift faster than usual
+    DEGRADED,
+    // The sensor has failed or stopped responding, the pose should not be used
+    FAULT
+}
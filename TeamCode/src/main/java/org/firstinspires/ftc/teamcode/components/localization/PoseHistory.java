@@ -0,0 +1,208 @@
+package org.firstinspires.ftc.teamcode.components.localization;
+
+/**
+ * Fixed-capacity ring buffer of timestamped robot poses.
+ *
+ * Poses are stored in parallel primitive arrays so recording once per loop does not allocate.
+ * Timestamps are System.nanoTime() values and must be recorded in increasing order. Positions are
+ * in mm and headings in radians, matching what the odometry computer reports.
+ *
+ * The main use is latency compensation: a vision fix describes where the robot was when the frame
+ * was captured, so the correction is computed against the pose at that time and then replayed
+ * forward onto every newer pose.
+ */
+public class PoseHistory {
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int HEADING = 2;
+
+    private final long[] timestamps;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headings;
+    private final int capacity;
+
+    // Index of the oldest entry and number of valid entries
+    private int head = 0;
+    private int size = 0;
+
+    // Scratch storage for the interpolated pose used by correct()
+    private final double[] scratch = new double[3];
+
+    public PoseHistory(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Pose history capacity must be at least 2");
+        }
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.headings = new double[capacity];
+    }
+
+    /**
+     * Record a pose. Samples that are older than the newest recorded sample are ignored, and a
+     * sample with the same timestamp as the newest one replaces it.
+     */
+    public void record(long timestampNanos, double x, double y, double heading) {
+        int slot;
+        if (size > 0) {
+            long newest = timestamps[physical(size - 1)];
+            if (timestampNanos < newest) {
+                return;
+            }
+            if (timestampNanos == newest) {
+                slot = physical(size - 1);
+                xs[slot] = x;
+                ys[slot] = y;
+                headings[slot] = heading;
+                return;
+            }
+        }
+
+        if (size < capacity) {
+            slot = physical(size);
+            size++;
+        } else {
+            // Overwrite the oldest entry
+            slot = head;
+            head = (head + 1) % capacity;
+        }
+
+        timestamps[slot] = timestampNanos;
+        xs[slot] = x;
+        ys[slot] = y;
+        headings[slot] = heading;
+    }
+
+    /**
+     * Look up the pose at an arbitrary timestamp, linearly interpolating between the two samples
+     * that bracket it. Heading is interpolated along the shortest arc.
+     *
+     * @param timestampNanos the time to look up
+     * @param out array of at least length 3 that receives x, y and heading
+     * @return false if the timestamp is outside the recorded window
+     */
+    public boolean getPoseAt(long timestampNanos, double[] out) {
+        if (size == 0) {
+            return false;
+        }
+
+        int lower = floorIndex(timestampNanos);
+        if (lower < 0) {
+            return false;
+        }
+
+        int a = physical(lower);
+        if (lower == size - 1) {
+            // Only an exact match on the newest sample is inside the window
+            if (timestamps[a] != timestampNanos) {
+                return false;
+            }
+            out[X] = xs[a];
+            out[Y] = ys[a];
+            out[HEADING] = headings[a];
+            return true;
+        }
+
+        int b = physical(lower + 1);
+        double fraction = (double) (timestampNanos - timestamps[a]) / (double) (timestamps[b] - timestamps[a]);
+
+        out[X] = xs[a] + (xs[b] - xs[a]) * fraction;
+        out[Y] = ys[a] + (ys[b] - ys[a]) * fraction;
+        out[HEADING] = headings[a] + normalizeRadians(headings[b] - headings[a]) * fraction;
+        return true;
+    }
+
+    /**
+     * Apply an absolute pose measurement taken at a past time. The rigid transform that moves the
+     * recorded pose at that time onto the measurement is applied to every newer sample, so the
+     * motion since the capture is preserved and history stays consistent for later lookups.
+     *
+     * @param timestampNanos capture time of the measurement
+     * @param x measured x in mm
+     * @param y measured y in mm
+     * @param heading measured heading in radians
+     * @param out array of at least length 3 that receives the corrected newest pose
+     * @return false if the capture time is outside the recorded window, in which case nothing changes
+     */
+    public boolean correct(long timestampNanos, double x, double y, double heading, double[] out) {
+        if (!getPoseAt(timestampNanos, scratch)) {
+            return false;
+        }
+
+        double deltaHeading = normalizeRadians(heading - scratch[HEADING]);
+        double cos = Math.cos(deltaHeading);
+        double sin = Math.sin(deltaHeading);
+
+        // Replay the correction forward from the first sample at or after the capture time
+        int first = floorIndex(timestampNanos);
+        if (timestamps[physical(first)] < timestampNanos) {
+            first++;
+        }
+
+        for (int i = first; i < size; i++) {
+            int slot = physical(i);
+            double dx = xs[slot] - scratch[X];
+            double dy = ys[slot] - scratch[Y];
+            xs[slot] = x + dx * cos - dy * sin;
+            ys[slot] = y + dx * sin + dy * cos;
+            headings[slot] = normalizeRadians(headings[slot] + deltaHeading);
+        }
+
+        int newest = physical(size - 1);
+        out[X] = xs[newest];
+        out[Y] = ys[newest];
+        out[HEADING] = headings[newest];
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long getOldestTimestamp() {
+        return size == 0 ? 0 : timestamps[head];
+    }
+
+    public long getNewestTimestamp() {
+        return size == 0 ? 0 : timestamps[physical(size - 1)];
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    // Binary search for the newest logical index whose timestamp is <= the given time, or -1
+    private int floorIndex(long timestampNanos) {
+        int low = 0;
+        int high = size - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[physical(mid)] <= timestampNanos) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private int physical(int logicalIndex) {
+        return (head + logicalIndex) % capacity;
+    }
+
+    // Normalize angle to range [-pi, pi]
+    public static double normalizeRadians(double angle) {
+        while (angle > Math.PI) angle -= 2.0 * Math.PI;
+        while (angle < -Math.PI) angle += 2.0 * Math.PI;
+        return angle;
+    }
+}
@@ -1,34 +1,87 @@
 package org.firstinspires.ftc.teamcode.components.motion;
 
 import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.hardware.Gamepad;
 
+import org.firstinspires.ftc.teamcode.TelemetryChannels;
 import org.firstinspires.ftc.teamcode.components.AbstractComponent;
 import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+import org.firstinspires.ftc.teamcode.components.encoders.OctoQuadEncoderHub;
+import org.firstinspires.ftc.teamcode.components.power.BatteryVoltageComponent;
+import org.firstinspires.ftc.teamcode.config.Configurable;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.HashMap;
-import java.util.Map;
 
-public class DriveTrain extends AbstractComponent {
+public class DriveTrain extends AbstractComponent implements Configurable {
+    public static final String COMPONENT_NAME = "DriveTrain";
+
     // Constants for safety limits
     private static final double MAX_POWER = 1.0;
-    private static final double MIN_POWER = -1.0;
-    private static final double POWER_CHANGE_LIMIT = 0.5; // Max power change per cycle
-    private static final double MINIMUM_MOVEMENT_THRESHOLD = 0.05; // Dead zone for inputs
 
-    // Hardware components
-    private DcMotor motorFrontLeft, motorFrontRight, motorBackLeft, motorBackRight;
+    // Wheel order used for powers and encoder readings
+    public static final int FRONT_LEFT = 0;
+    public static final int BACK_LEFT = 1;
+    public static final int FRONT_RIGHT = 2;
+    public static final int BACK_RIGHT = 3;
+
+    // OctoQuad channels the drive encoders are plugged into, in wheel order
+    private static final int[] ENCODER_HUB_CHANNELS = {0, 1, 2, 3};
+
+    private static final double[] STOPPED = new double[4];
 
-    // State tracking
-    private Map<String, Double> lastMotorPowers;
-    private long lastUpdateTime = 0;
+    // Output limits while MotorHealthMonitor reports a stalled or overloaded wheel
+    private static final double STALLED_POWER_LIMIT = 0.3;
+    private static final double OVERCURRENT_POWER_LIMIT = 0.6;
+
+    // Hardware components
+    private DcMotorEx motorFrontLeft, motorFrontRight, motorBackLeft, motorBackRight;
+    private OctoQuadEncoderHub encoderHub;
+    // Added to the current source's counts so positions stay continuous when the source changes
+    private final int[] positionOffsets = new int[4];
+    private final int[] lastPositions = new int[4];
+    private boolean positionsFromHub = false;
+    private boolean hasPositions = false;
+    private BatteryVoltageComponent batteryVoltage;
+
+    // Gamepad input gets the deadband and expo curve, commands from navigation are already shaped
+    private final InputShaper gamepadShaper = new InputShaper();
+    private final InputShaper powerShaper = new InputShaper();
+    private final double[] wheelPowers = new double[4];
+    private final int[] commandChannels = new int[3];
+
+    // Per axis, in InputShaper axis order
+    private final Feedforward[] feedforward = new Feedforward[3];
+    private double nominalVoltage = 12.0;
+    private final double[] axisVolts = new double[3];
+    private final double[] wheelVelocities = new double[4];
+
+    // Telemetry channel ids for the applied wheel powers, in wheel order
+    private final int[] powerChannels = new int[4];
+    private final double[] appliedPowers = new double[4];
+    private final double[] limitedPowers = new double[4];
+    private final double[] compensatedPowers = new double[4];
+    // Run mode of each wheel, kept here so the loop does not read it back from the hub
+    private final DcMotor.RunMode[] runModes = new DcMotor.RunMode[4];
+    // Modes to go back to after voltage output
+    private final DcMotor.RunMode[] closedLoopModes = new DcMotor.RunMode[4];
+    private boolean openLoop = false;
+    private boolean warnedNominalVoltage = false;
+    private boolean warnedUncharacterized = false;
+    private MotorHealthMonitor motorHealth;
 
     @Override
     public String getName() {
-        return "DriveTrain";
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public String[] getDependencies() {
+        return new String[] { OctoQuadEncoderHub.COMPONENT_NAME, BatteryVoltageComponent.COMPONENT_NAME };
     }
 
     public ComponentType getType()
@@ -36,16 +89,22 @@ public class DriveTrain extends AbstractComponent {
         return ComponentType.DRIVE;
     }
 
+    @Override
+    public UpdatePriority getUpdatePriority() {
+        return UpdatePriority.CRITICAL;
+    }
+
     @Override
     protected void initializeComponent() throws Exception {
-        this.lastMotorPowers = new HashMap<>();
         HardwareMap hardwareMap = robot.getHardwareMap();
+        RobotConfig config = robot.getConfig();
 
         try {
-            motorFrontLeft = hardwareMap.get(DcMotor.class, "motor_front_left");
-            motorFrontRight = hardwareMap.get(DcMotor.class, "motor_front_right");
-            motorBackLeft = hardwareMap.get(DcMotor.class, "motor_back_left");
-            motorBackRight = hardwareMap.get(DcMotor.class, "motor_back_right");
+            // Motor names are only read at init, renaming a motor needs a restart
+            motorFrontLeft = hardwareMap.get(DcMotorEx.class, config.frontLeftMotor);
+            motorFrontRight = hardwareMap.get(DcMotorEx.class, config.frontRightMotor);
+            motorBackLeft = hardwareMap.get(DcMotorEx.class, config.backLeftMotor);
+            motorBackRight = hardwareMap.get(DcMotorEx.class, config.backRightMotor);
 
             // Verify all motors were found
             if (motorFrontLeft == null || motorFrontRight == null ||
@@ -65,11 +124,37 @@ public class DriveTrain extends AbstractComponent {
             motorFrontRight.setDirection(DcMotor.Direction.FORWARD);
             motorBackRight.setDirection(DcMotor.Direction.FORWARD);
 
-            // Initialize last power values
-            lastMotorPowers.put("frontLeft", 0.0);
-            lastMotorPowers.put("frontRight", 0.0);
-            lastMotorPowers.put("backLeft", 0.0);
-            lastMotorPowers.put("backRight", 0.0);
+            for (int wheel = 0; wheel < runModes.length; wheel++) {
+                runModes[wheel] = getMotor(wheel).getMode();
+            }
+
+            applyConfig(config);
+
+            TelemetryChannels channels = telemetryManager.getChannels();
+            powerChannels[FRONT_LEFT] = channels.register("drive.fl");
+            powerChannels[BACK_LEFT] = channels.register("drive.bl");
+            powerChannels[FRONT_RIGHT] = channels.register("drive.fr");
+            powerChannels[BACK_RIGHT] = channels.register("drive.br");
+            commandChannels[InputShaper.DRIVE] = channels.register("drive.cmd.drive");
+            commandChannels[InputShaper.STRAFE] = channels.register("drive.cmd.strafe");
+            commandChannels[InputShaper.ROTATE] = channels.register("drive.cmd.rotate");
+
+            // Optional, without it powers are sent uncompensated
+            batteryVoltage = robot.getComponent(BatteryVoltageComponent.class, BatteryVoltageComponent.COMPONENT_NAME);
+            if (batteryVoltage != null && !batteryVoltage.isOperational()) {
+                batteryVoltage = null;
+            }
+
+            // Prefer the OctoQuad for encoder reads when one is registered
+            encoderHub = robot.getComponent(OctoQuadEncoderHub.class, OctoQuadEncoderHub.COMPONENT_NAME);
+            if (encoderHub != null && encoderHub.isOperational()) {
+                // The left motors run reversed, so invert their raw counts to match power direction
+                encoderHub.setChannelReversed(ENCODER_HUB_CHANNELS[FRONT_LEFT], true);
+                encoderHub.setChannelReversed(ENCODER_HUB_CHANNELS[BACK_LEFT], true);
+                telemetryManager.info("Drive encoders reading from OctoQuad");
+            } else {
+                encoderHub = null;
+            }
 
         } catch (Exception e) {
             StringWriter sw = new StringWriter();
@@ -79,6 +164,21 @@ public class DriveTrain extends AbstractComponent {
         }
     }
 
+    @Override
+    public void applyConfig(RobotConfig config) {
+        gamepadShaper.configure(config.driveDeadband, config.driveExpo, config.driveSlewRate);
+        powerShaper.configure(0, 0, config.driveSlewRate);
+        gamepadShaper.setWheelScales(config.driveScaleFrontLeft, config.driveScaleBackLeft,
+                config.driveScaleFrontRight, config.driveScaleBackRight);
+        powerShaper.setWheelScales(config.driveScaleFrontLeft, config.driveScaleBackLeft,
+                config.driveScaleFrontRight, config.driveScaleBackRight);
+
+        feedforward[InputShaper.DRIVE] = new Feedforward(config.driveForwardKs, config.driveForwardKv, config.driveForwardKa);
+        feedforward[InputShaper.STRAFE] = new Feedforward(config.driveStrafeKs, config.driveStrafeKv, config.driveStrafeKa);
+        feedforward[InputShaper.ROTATE] = new Feedforward(config.driveRotateKs, config.driveRotateKv, config.driveRotateKa);
+        nominalVoltage = config.driveNominalVoltage;
+    }
+
     private void initializeMotor(DcMotor motor, String name) {
         if (motor == null) {
             throw new RuntimeException(name + " motor not found in hardware map");
@@ -124,33 +224,7 @@ public class DriveTrain extends AbstractComponent {
         }
 
         try {
-            // Apply dead zone
-//            if (Math.abs(power) < MINIMUM_MOVEMENT_THRESHOLD) {
-//                power = 0.0;
-//            }
-
-            // Bound the power
-            //power = Math.max(MIN_POWER, Math.min(MAX_POWER, power));
-
-            // Get the last power value and time
-//            double lastPower = lastMotorPowers.getOrDefault(motorName, 0.0);
-//            long currentTime = System.currentTimeMillis();
-//            double timeElapsed = (currentTime - lastUpdateTime) / 1000.0;
-//
-////            // Limit acceleration if enough time has passed
-//            if (lastUpdateTime != 0 && timeElapsed > 0) {
-//                double maxChange = POWER_CHANGE_LIMIT * timeElapsed;
-//                double powerChange = power - lastPower;
-//                if (Math.abs(powerChange) > maxChange) {
-//                    power = lastPower + Math.signum(powerChange) * maxChange;
-//                }
-//            }
-
-            // Set the power and update tracking
             motor.setPower(power);
-//            lastMotorPowers.put(motorName, power);
-//            lastUpdateTime = currentTime;
-
         } catch (Exception e) {
             telemetryManager.error(String.format("Failed to set %s motor power: %s",
                     motorName, e.getMessage()));
@@ -184,6 +258,7 @@ public class DriveTrain extends AbstractComponent {
             motor.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
             motor.setTargetPosition(position);
             motor.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+            recordRunMode(motor, DcMotor.RunMode.RUN_TO_POSITION);
             motor.setPower(Math.abs(power));
 
             telemetryManager.addToBatch(motorName + " Target", position);
@@ -237,82 +312,327 @@ public class DriveTrain extends AbstractComponent {
         }
 
         try {
-            double drive = -boundInput(gamepad.left_stick_y);
-            double strafe = -boundInput(gamepad.left_stick_x);
-            double rotate = boundInput(gamepad.right_stick_x);
-
-            double[] powers = calculateWheelPowers(drive, strafe, rotate);
-
-            setMotorPower(motorFrontLeft, powers[0], "frontLeft");
-            setMotorPower(motorBackLeft, powers[1], "backLeft");
-            setMotorPower(motorFrontRight, powers[2], "frontRight");
-            setMotorPower(motorBackRight, powers[3], "backRight");
-
-            telemetryData.put("Drive Input", drive);
-            telemetryData.put("Strafe Input", strafe);
-            telemetryData.put("Rotate Input", rotate);
-
-            //reportMotorPowers("gamepad");
-
+            exitOpenLoop();
+            gamepadShaper.shape(-gamepad.left_stick_y, -gamepad.left_stick_x, gamepad.right_stick_x, wheelPowers);
+            applyWheelPowers(wheelPowers);
+            reportCommands(gamepadShaper);
         } catch (Exception e) {
             telemetryManager.error("Drive control error: " + e.getMessage());
             emergencyStop("Gamepad control failure");
         }
     }
 
-    private double boundInput(double input) {
-        if (Math.abs(input) < MINIMUM_MOVEMENT_THRESHOLD) {
-            return 0.0;
+    // Powers in FRONT_LEFT, BACK_LEFT, FRONT_RIGHT, BACK_RIGHT order
+    private void applyWheelPowers(double[] powers) {
+        applyWheelPowers(powers, true);
+    }
+
+    private void applyWheelPowers(double[] powers, boolean compensate) {
+        powers = limitForMotorHealth(powers);
+        if (compensate) {
+            powers = compensateForVoltage(powers);
+        }
+        setMotorPower(motorFrontLeft, powers[FRONT_LEFT], "frontLeft");
+        setMotorPower(motorBackLeft, powers[BACK_LEFT], "backLeft");
+        setMotorPower(motorFrontRight, powers[FRONT_RIGHT], "frontRight");
+        setMotorPower(motorBackRight, powers[BACK_RIGHT], "backRight");
+
+        TelemetryChannels channels = telemetryManager.getChannels();
+        for (int wheel = 0; wheel < powers.length; wheel++) {
+            channels.set(powerChannels[wheel], powers[wheel]);
+            appliedPowers[wheel] = powers[wheel];
         }
-        return Math.max(MIN_POWER, Math.min(MAX_POWER, input));
     }
 
-    private double[] calculateWheelPowers(double drive, double strafe, double rotate) {
-        double[] powers = new double[4];
-        powers[0] = drive + strafe + rotate;
-        powers[1] = drive - strafe + rotate;
-        powers[2] = drive - strafe - rotate;
-        powers[3] = drive + strafe - rotate;
+    // Scale up for a sagging battery, keeping the ratio between wheels if that would exceed full power.
+    // Only wheels in RUN_WITHOUT_ENCODER are scaled: in RUN_USING_ENCODER power is a fraction of
+    // max velocity and the hub's velocity PID already makes up for the battery, so scaling would
+    // raise the velocity setpoint and drive faster than commanded
+    private double[] compensateForVoltage(double[] powers) {
+        double compensation = batteryVoltage == null ? 1.0 : batteryVoltage.getCompensation();
+        if (compensation == 1.0) {
+            return powers;
+        }
+        double maxMagnitude = 0;
+        for (int wheel = 0; wheel < powers.length; wheel++) {
+            boolean openLoop = runModes[wheel] == DcMotor.RunMode.RUN_WITHOUT_ENCODER;
+            compensatedPowers[wheel] = openLoop ? powers[wheel] * compensation : powers[wheel];
+            maxMagnitude = Math.max(maxMagnitude, Math.abs(compensatedPowers[wheel]));
+        }
+        if (maxMagnitude > MAX_POWER) {
+            for (int wheel = 0; wheel < powers.length; wheel++) {
+                compensatedPowers[wheel] /= maxMagnitude;
+            }
+        }
+        return compensatedPowers;
+    }
 
+    // Scale all four wheels together so a limited robot still drives in the commanded direction
+    private double[] limitForMotorHealth(double[] powers) {
+        if (motorHealth == null || !motorHealth.isOperational() || !motorHealth.hasFault()) {
+            return powers;
+        }
+        double limit = motorHealth.anyStalled() ? STALLED_POWER_LIMIT : OVERCURRENT_POWER_LIMIT;
         double maxMagnitude = 0;
         for (double power : powers) {
             maxMagnitude = Math.max(maxMagnitude, Math.abs(power));
         }
+        if (maxMagnitude <= limit) {
+            return powers;
+        }
+        for (int wheel = 0; wheel < powers.length; wheel++) {
+            limitedPowers[wheel] = powers[wheel] * limit / maxMagnitude;
+        }
+        return limitedPowers;
+    }
+
+    public void driveWithPower(double drive, double strafe, double rotate) {
+        if (!isOperational()) {
+            telemetryManager.error("Drive system not initialized!");
+            return;
+        }
+
+        try {
+            exitOpenLoop();
+            powerShaper.shape(drive, strafe, rotate, wheelPowers);
+            applyWheelPowers(wheelPowers);
+            reportCommands(powerShaper);
+        } catch (Exception e) {
+            telemetryManager.error("Drive control error: " + e.getMessage());
+            emergencyStop("Drive control failure");
+        }
+    }
 
-        if (maxMagnitude > 1.0) {
-            for (int i = 0; i < powers.length; i++) {
-                powers[i] /= maxMagnitude;
+    /**
+     * Drive each axis at a velocity using the characterized feedforward, in wheel encoder counts
+     * per second. The output is in volts, so it is the same whatever the battery voltage. With a
+     * command on an axis that has not been characterized the drive stops instead, since the
+     * default constants would turn every velocity into 0 V.
+     */
+    public void driveWithVelocity(double drive, double strafe, double rotate,
+                                  double driveAccel, double strafeAccel, double rotateAccel) {
+        if (!canDrive(InputShaper.DRIVE, drive, driveAccel)
+                || !canDrive(InputShaper.STRAFE, strafe, strafeAccel)
+                || !canDrive(InputShaper.ROTATE, rotate, rotateAccel)) {
+            if (!warnedUncharacterized) {
+                telemetryManager.warning("Drive feedforward not characterized, run FeedforwardCharacterization");
+                warnedUncharacterized = true;
             }
+            stop();
+            return;
         }
+        driveWithVoltage(feedforward[InputShaper.DRIVE].volts(drive, driveAccel),
+                feedforward[InputShaper.STRAFE].volts(strafe, strafeAccel),
+                feedforward[InputShaper.ROTATE].volts(rotate, rotateAccel));
+    }
 
-        return powers;
+    public void driveWithVelocity(double drive, double strafe, double rotate) {
+        driveWithVelocity(drive, strafe, rotate, 0, 0, 0);
     }
-    public void driveWithPower(double drive, double strafe, double rotate) {
+
+    private boolean canDrive(int axis, double velocity, double acceleration) {
+        return (velocity == 0 && acceleration == 0) || feedforward[axis].isCharacterized();
+    }
+
+    /**
+     * Drive with an axis command in volts, converted with the measured battery voltage. Skips the
+     * input shaping and voltage compensation, so the motors get exactly the voltage asked for
+     * unless it is more than the battery has. The motors run in RUN_WITHOUT_ENCODER until the next
+     * driveWithPower(), driveWithGamepad() or stop(), which put back the previous run modes.
+     */
+    public void driveWithVoltage(double drive, double strafe, double rotate) {
         if (!isOperational()) {
             telemetryManager.error("Drive system not initialized!");
             return;
         }
 
         try {
-            // Calculate motor powers for mecanum drive
-            double[] powers = calculateWheelPowers(drive, strafe, rotate);
-
-            // Apply motor powers
-            setMotorPower(motorFrontLeft, powers[0], "frontLeft");
-            setMotorPower(motorBackLeft, powers[1], "backLeft");
-            setMotorPower(motorFrontRight, powers[2], "frontRight");
-            setMotorPower(motorBackRight, powers[3], "backRight");
-
-            // Optional telemetry
-            telemetryData.put("Drive Input", drive);
-            telemetryData.put("Strafe Input", strafe);
-            telemetryData.put("Rotate Input", rotate);
+            if (!hasBatteryVoltage() && !warnedNominalVoltage) {
+                telemetryManager.warning("No battery voltage reading, voltage output assumes "
+                        + nominalVoltage + " V");
+                warnedNominalVoltage = true;
+            }
+            enterOpenLoop();
+            double volts = getBatteryVoltage();
+            axisVolts[InputShaper.DRIVE] = drive;
+            axisVolts[InputShaper.STRAFE] = strafe;
+            axisVolts[InputShaper.ROTATE] = rotate;
+            InputShaper.mix(drive / volts, strafe / volts, rotate / volts, wheelPowers);
+            applyWheelPowers(wheelPowers, false);
+
+            TelemetryChannels channels = telemetryManager.getChannels();
+            for (int axis = 0; axis < commandChannels.length; axis++) {
+                channels.set(commandChannels[axis], axisVolts[axis] / volts);
+            }
         } catch (Exception e) {
             telemetryManager.error("Drive control error: " + e.getMessage());
-            emergencyStop("Drive control failure");
+            emergencyStop("Voltage control failure");
         }
     }
 
+    /**
+     * @return the measured battery voltage, or the nominal voltage without a voltage sensor
+     */
+    public double getBatteryVoltage() {
+        return hasBatteryVoltage() ? batteryVoltage.getVoltage() : nominalVoltage;
+    }
+
+    /**
+     * @return true if getBatteryVoltage() is a measurement rather than the nominal voltage
+     */
+    public boolean hasBatteryVoltage() {
+        return batteryVoltage != null && batteryVoltage.getVoltage() > 0;
+    }
+
+    /**
+     * Read the robot's velocity along each axis from the wheel velocities, in wheel encoder counts
+     * per second, in InputShaper axis order. The inverse of the mecanum mix.
+     */
+    public void getAxisVelocities(double[] out) {
+        getWheelVelocities(wheelVelocities);
+        double fl = wheelVelocities[FRONT_LEFT];
+        double bl = wheelVelocities[BACK_LEFT];
+        double fr = wheelVelocities[FRONT_RIGHT];
+        double br = wheelVelocities[BACK_RIGHT];
+        out[InputShaper.DRIVE] = (fl + bl + fr + br) / 4;
+        out[InputShaper.STRAFE] = (fl - bl - fr + br) / 4;
+        out[InputShaper.ROTATE] = (fl + bl - fr - br) / 4;
+    }
+
+    /**
+     * @return the feedforward for an axis, in InputShaper axis order
+     */
+    public Feedforward getFeedforward(int axis) {
+        return feedforward[axis];
+    }
+
+    // Channels instead of telemetryData, so the shaped commands are recorded without boxing
+    private void reportCommands(InputShaper shaper) {
+        TelemetryChannels channels = telemetryManager.getChannels();
+        for (int axis = 0; axis < commandChannels.length; axis++) {
+            channels.set(commandChannels[axis], shaper.getAxis(axis));
+        }
+    }
+
+    private void recordRunMode(DcMotor motor, DcMotor.RunMode mode) {
+        for (int wheel = 0; wheel < runModes.length; wheel++) {
+            if (getMotor(wheel) == motor) {
+                runModes[wheel] = mode;
+            }
+        }
+    }
+
+    // Voltage output has to reach the motors as a duty cycle, so the hub's velocity PID is
+    // switched off until the next power or gamepad command
+    private void enterOpenLoop() {
+        if (openLoop) {
+            return;
+        }
+        for (int wheel = 0; wheel < runModes.length; wheel++) {
+            closedLoopModes[wheel] = runModes[wheel];
+            if (runModes[wheel] != DcMotor.RunMode.RUN_WITHOUT_ENCODER) {
+                getMotor(wheel).setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+                runModes[wheel] = DcMotor.RunMode.RUN_WITHOUT_ENCODER;
+            }
+        }
+        openLoop = true;
+    }
+
+    // Switching between the two encoder modes keeps the encoder counts
+    private void exitOpenLoop() {
+        if (!openLoop) {
+            return;
+        }
+        openLoop = false;
+        for (int wheel = 0; wheel < runModes.length; wheel++) {
+            if (runModes[wheel] != closedLoopModes[wheel]) {
+                getMotor(wheel).setMode(closedLoopModes[wheel]);
+                runModes[wheel] = closedLoopModes[wheel];
+            }
+        }
+    }
+
+    /**
+     * @return the motor for a wheel, in FRONT_LEFT, BACK_LEFT, FRONT_RIGHT, BACK_RIGHT order
+     */
+    public DcMotorEx getMotor(int wheel) {
+        switch (wheel) {
+            case FRONT_LEFT:
+                return motorFrontLeft;
+            case BACK_LEFT:
+                return motorBackLeft;
+            case FRONT_RIGHT:
+                return motorFrontRight;
+            case BACK_RIGHT:
+                return motorBackRight;
+            default:
+                throw new IllegalArgumentException("No wheel " + wheel);
+        }
+    }
+
+    /**
+     * @return the power last sent to a wheel, after any motor health limit
+     */
+    public double getAppliedPower(int wheel) {
+        return appliedPowers[wheel];
+    }
+
+    /**
+     * Limit output whenever the monitor reports a stalled or overloaded wheel.
+     */
+    public void setMotorHealth(MotorHealthMonitor motorHealth) {
+        this.motorHealth = motorHealth;
+    }
+
+    /**
+     * Read all four wheel encoder positions, in counts, in FRONT_LEFT, BACK_LEFT, FRONT_RIGHT,
+     * BACK_RIGHT order. Uses the OctoQuad's bulk read from this loop when it is healthy and the
+     * motor encoders otherwise. The two count from different zeros, so switching between them
+     * re-bases the counts to carry on from the last reading instead of jumping.
+     */
+    public void getWheelPositions(int[] out) {
+        boolean fromHub = encoderHub != null && encoderHub.isHealthy();
+        if (fromHub) {
+            encoderHub.getPositions(ENCODER_HUB_CHANNELS, out);
+        } else {
+            out[FRONT_LEFT] = motorFrontLeft.getCurrentPosition();
+            out[BACK_LEFT] = motorBackLeft.getCurrentPosition();
+            out[FRONT_RIGHT] = motorFrontRight.getCurrentPosition();
+            out[BACK_RIGHT] = motorBackRight.getCurrentPosition();
+        }
+
+        if (hasPositions && fromHub != positionsFromHub) {
+            for (int wheel = 0; wheel < out.length; wheel++) {
+                positionOffsets[wheel] = lastPositions[wheel] - out[wheel];
+            }
+            if (!fromHub) {
+                telemetryManager.warning("Drive encoders falling back to motor reads");
+            }
+        }
+        positionsFromHub = fromHub;
+        hasPositions = true;
+
+        for (int wheel = 0; wheel < out.length; wheel++) {
+            out[wheel] += positionOffsets[wheel];
+            lastPositions[wheel] = out[wheel];
+        }
+    }
+
+    /**
+     * Read all four wheel velocities, in counts per second, in the same order as
+     * getWheelPositions().
+     */
+    public void getWheelVelocities(double[] out) {
+        if (encoderHub != null && encoderHub.isHealthy()) {
+            encoderHub.getVelocities(ENCODER_HUB_CHANNELS, out);
+            return;
+        }
+        out[FRONT_LEFT] = motorFrontLeft.getVelocity();
+        out[BACK_LEFT] = motorBackLeft.getVelocity();
+        out[FRONT_RIGHT] = motorFrontRight.getVelocity();
+        out[BACK_RIGHT] = motorBackRight.getVelocity();
+    }
+
     private void reportMotorPowers(String context) {
         telemetryData.put("Front Left Power", String.format("%.2f", motorFrontLeft.getPower()));
         telemetryData.put("Back Left Power", String.format("%.2f", motorBackLeft.getPower()));
@@ -332,10 +652,14 @@ public class DriveTrain extends AbstractComponent {
 
         telemetryManager.addToBatch("Drive Status", "Stopping Motors");
 
-        setMotorPower(motorFrontLeft, 0, "frontLeft");
-        setMotorPower(motorBackLeft, 0, "backLeft");
-        setMotorPower(motorFrontRight, 0, "frontRight");
-        setMotorPower(motorBackRight, 0, "backRight");
+        applyWheelPowers(STOPPED);
+        try {
+            exitOpenLoop();
+        } catch (Exception e) {
+            telemetryManager.error("Failed to restore drive run modes: " + e.getMessage());
+        }
+        gamepadShaper.reset();
+        powerShaper.reset();
 
         reportMotorPowers("stop");
     }
@@ -0,0 +1,38 @@
+package org.firstinspires.ftc.teamcode.components.motion;
+
+/**
+ * Motor feedforward for one drive axis: volts = kS sign(v) + kV v + kA a.
+ *
+ * Velocities are in wheel encoder counts per second and accelerations in counts per second
+ * squared, the units DriveTrain reports, so the constants from DriveCharacterizationSystem can be
+ * used without knowing the wheel size.
+ */
+public final class Feedforward {
+    public final double kS;
+    public final double kV;
+    public final double kA;
+
+    public Feedforward(double kS, double kV, double kA) {
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+    }
+
+    /**
+     * @return the voltage that holds the velocity and acceleration
+     */
+    public double volts(double velocity, double acceleration) {
+        if (velocity == 0 && acceleration == 0) {
+            return 0;
+        }
+        double direction = velocity != 0 ? Math.signum(velocity) : Math.signum(acceleration);
+        return kS * direction + kV * velocity + kA * acceleration;
+    }
+
+    /**
+     * @return false until the axis has been characterized
+     */
+    public boolean isCharacterized() {
+        return kV > 0;
+    }
+}
@@ -0,0 +1,142 @@
+package org.firstinspires.ftc.teamcode.components.motion;
+
+/**
+ * Shapes drive, strafe and rotate commands into mecanum wheel powers without allocating.
+ *
+ * The stages run in a fixed order: deadband, expo curve and slew-rate limit on each axis, then the
+ * mecanum mix, then a per-wheel scale. Every stage works on preallocated primitive arrays and the
+ * slew limit is timed with System.nanoTime(), so a loop produces no garbage and is not affected by
+ * wall clock changes. A stage with its setting at zero (or a scale of one) passes values through.
+ *
+ * The axis slew limit keeps the ratio between drive, strafe and rotate while ramping, so the robot
+ * accelerates along the commanded direction instead of curving.
+ */
+public final class InputShaper {
+    public static final int DRIVE = 0;
+    public static final int STRAFE = 1;
+    public static final int ROTATE = 2;
+
+    // A longer gap between calls is treated as one loop so a stale command does not jump
+    private static final long MAX_STEP_NANOS = 100_000_000L;
+
+    private double deadband = 0;
+    private double expo = 0;
+    private double slewRate = 0; // full scale per second, 0 for no limit
+    private final double[] wheelScales = { 1.0, 1.0, 1.0, 1.0 };
+
+    private final double[] axes = new double[3];
+    private final double[] lastAxes = new double[3];
+    private long lastNanos = 0;
+
+    /**
+     * @param deadband inputs smaller than this are zero, the rest are rescaled to start from zero
+     * @param expo 0 for a linear response up to 1 for a cubic one
+     * @param slewRate largest change of an axis per second, 0 for no limit
+     */
+    public void configure(double deadband, double expo, double slewRate) {
+        this.deadband = clamp(deadband, 0, 0.5);
+        this.expo = clamp(expo, 0, 1);
+        this.slewRate = Math.max(0, slewRate);
+    }
+
+    /**
+     * Scale factors applied to each wheel after mixing, in DriveTrain wheel order.
+     */
+    public void setWheelScales(double frontLeft, double backLeft, double frontRight, double backRight) {
+        wheelScales[DriveTrain.FRONT_LEFT] = clamp(frontLeft, 0, 1);
+        wheelScales[DriveTrain.BACK_LEFT] = clamp(backLeft, 0, 1);
+        wheelScales[DriveTrain.FRONT_RIGHT] = clamp(frontRight, 0, 1);
+        wheelScales[DriveTrain.BACK_RIGHT] = clamp(backRight, 0, 1);
+    }
+
+    /**
+     * Run the whole chain and write the wheel powers into out, in DriveTrain wheel order.
+     */
+    public void shape(double drive, double strafe, double rotate, double[] out) {
+        axes[DRIVE] = curve(drive);
+        axes[STRAFE] = curve(strafe);
+        axes[ROTATE] = curve(rotate);
+        limitSlew();
+        mix(axes[DRIVE], axes[STRAFE], axes[ROTATE], out);
+
+        for (int wheel = 0; wheel < out.length; wheel++) {
+            out[wheel] *= wheelScales[wheel];
+        }
+    }
+
+    /**
+     * Forget the slew state, so the next command starts from a standstill.
+     */
+    public void reset() {
+        lastAxes[DRIVE] = 0;
+        lastAxes[STRAFE] = 0;
+        lastAxes[ROTATE] = 0;
+        lastNanos = 0;
+    }
+
+    /**
+     * @return an axis command after the slew limit from the last call
+     */
+    public double getAxis(int axis) {
+        return axes[axis];
+    }
+
+    private double curve(double input) {
+        double magnitude = Math.min(1.0, Math.abs(input));
+        if (magnitude <= deadband) {
+            return 0.0;
+        }
+        double scaled = (magnitude - deadband) / (1.0 - deadband);
+        scaled = (1.0 - expo) * scaled + expo * scaled * scaled * scaled;
+        return Math.copySign(scaled, input);
+    }
+
+    // Limit all axes by the same fraction so the commanded direction is kept
+    private void limitSlew() {
+        long now = System.nanoTime();
+        long step = lastNanos == 0 ? MAX_STEP_NANOS : Math.min(MAX_STEP_NANOS, now - lastNanos);
+        lastNanos = now;
+
+        if (slewRate > 0) {
+            double maxChange = slewRate * step / 1.0e9;
+            double largestChange = 0;
+            for (int axis = 0; axis < axes.length; axis++) {
+                largestChange = Math.max(largestChange, Math.abs(axes[axis] - lastAxes[axis]));
+            }
+            if (largestChange > maxChange) {
+                double fraction = maxChange / largestChange;
+                for (int axis = 0; axis < axes.length; axis++) {
+                    axes[axis] = lastAxes[axis] + (axes[axis] - lastAxes[axis]) * fraction;
+                }
+            }
+        }
+
+        lastAxes[DRIVE] = axes[DRIVE];
+        lastAxes[STRAFE] = axes[STRAFE];
+        lastAxes[ROTATE] = axes[ROTATE];
+    }
+
+    /**
+     * Mecanum mix into out, scaled down together if any wheel would exceed full power.
+     */
+    static void mix(double drive, double strafe, double rotate, double[] out) {
+        out[DriveTrain.FRONT_LEFT] = drive + strafe + rotate;
+        out[DriveTrain.BACK_LEFT] = drive - strafe + rotate;
+        out[DriveTrain.FRONT_RIGHT] = drive - strafe - rotate;
+        out[DriveTrain.BACK_RIGHT] = drive + strafe - rotate;
+
+        double maxMagnitude = 0;
+        for (int wheel = 0; wheel < out.length; wheel++) {
+            maxMagnitude = Math.max(maxMagnitude, Math.abs(out[wheel]));
+        }
+        if (maxMagnitude > 1.0) {
+            for (int wheel = 0; wheel < out.length; wheel++) {
+                out[wheel] /= maxMagnitude;
+            }
+        }
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,244 @@
+package org.firstinspires.ftc.teamcode.components.motion;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+import org.firstinspires.ftc.teamcode.TelemetryChannels;
+import org.firstinspires.ftc.teamcode.components.AbstractComponent;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.config.Configurable;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
+
+import java.util.Locale;
+
+/**
+ * Samples drive motor current and flags stalled or overloaded motors.
+ *
+ * getCurrent() is not part of the hub's bulk read, so each call is its own hub transaction. Only
+ * one motor is sampled per loop, round robin, which keeps the cost to a single read per loop and
+ * gives each motor a fresh sample every fourth loop. Per motor it keeps a smoothed current, the
+ * peak and the sample count.
+ *
+ * A motor is STALLED when STALL_SAMPLES consecutive samples show high current while it is being
+ * driven hard but barely turning, and OVERCURRENT when its smoothed current stays above the
+ * overcurrent limit. The thresholds come from RobotConfig. DriveTrain reads the flags and limits
+ * its output while either is set, and a stall is held for STALL_HOLD_NANOS so the limit does not
+ * release the moment it takes effect.
+ *
+ * A failed current read keeps the previous statistics, and the monitor only shuts down after
+ * MAX_CONSECUTIVE_FAILURES failures in a row.
+ *
+ * Currents are streamed on telemetry channels every sample, and the per-wheel text summary is only
+ * formatted on loops when the Driver Station batch will be sent.
+ */
+public class MotorHealthMonitor extends AbstractComponent implements Configurable {
+    public static final String COMPONENT_NAME = "MotorHealth";
+
+    private static final int STALL_SAMPLES = 3;
+    // DriveTrain cuts power on a stall, so the stall is held this long before it is rechecked
+    private static final long STALL_HOLD_NANOS = 1_000_000_000L;
+    private static final double CURRENT_SMOOTHING = 0.3;
+    // A single hub transaction can fail under I2C or USB load, only give up on a sensor that stays down
+    private static final int MAX_CONSECUTIVE_FAILURES = 10;
+
+    public enum Status {
+        OK,
+        OVERCURRENT,
+        STALLED
+    }
+
+    private DriveTrain driveTrain;
+    private final DcMotorEx[] motors = new DcMotorEx[4];
+    private final double[] wheelVelocities = new double[4];
+
+    // Rolling statistics, in DriveTrain wheel order
+    private final double[] averageAmps = new double[4];
+    private final double[] lastAmps = new double[4];
+    private final double[] peakAmps = new double[4];
+    private final long[] samples = new long[4];
+    private final int[] stallStreak = new int[4];
+    private final long[] stallNanos = new long[4];
+    private final Status[] status = { Status.OK, Status.OK, Status.OK, Status.OK };
+    private final int[] currentChannels = new int[4];
+
+    private double stallAmps;
+    private double stallMaxVelocity;
+    private double stallMinPower;
+    private double overcurrentAmps;
+
+    private int nextWheel = 0;
+    private int faultCount = 0;
+    private int consecutiveFailures = 0;
+
+    @Override
+    public String getName() {
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public ComponentType getType() {
+        return ComponentType.SENSOR;
+    }
+
+    @Override
+    public String[] getDependencies() {
+        return new String[] { DriveTrain.COMPONENT_NAME };
+    }
+
+    @Override
+    protected void initializeComponent() throws Exception {
+        driveTrain = robot.getComponent(DriveTrain.class, DriveTrain.COMPONENT_NAME);
+        if (driveTrain == null || !driveTrain.isOperational()) {
+            throw new RuntimeException("Drive train must be registered before motor health");
+        }
+        for (int wheel = 0; wheel < motors.length; wheel++) {
+            motors[wheel] = driveTrain.getMotor(wheel);
+        }
+
+        TelemetryChannels channels = telemetryManager.getChannels();
+        currentChannels[DriveTrain.FRONT_LEFT] = channels.register("drive.fl.amps");
+        currentChannels[DriveTrain.BACK_LEFT] = channels.register("drive.bl.amps");
+        currentChannels[DriveTrain.FRONT_RIGHT] = channels.register("drive.fr.amps");
+        currentChannels[DriveTrain.BACK_RIGHT] = channels.register("drive.br.amps");
+
+        applyConfig(robot.getConfig());
+        driveTrain.setMotorHealth(this);
+    }
+
+    @Override
+    public void applyConfig(RobotConfig config) {
+        stallAmps = config.motorStallAmps;
+        stallMaxVelocity = config.motorStallMaxVelocity;
+        stallMinPower = config.motorStallMinPower;
+        overcurrentAmps = config.motorOvercurrentAmps;
+    }
+
+    @Override
+    public void update() {
+        if (!isOperational()) {
+            return;
+        }
+
+        int wheel = nextWheel;
+        nextWheel = (nextWheel + 1) % motors.length;
+
+        try {
+            double amps = motors[wheel].getCurrent(CurrentUnit.AMPS);
+            // Velocities come from the bulk cache or the OctoQuad, so reading all four is free
+            driveTrain.getWheelVelocities(wheelVelocities);
+            record(wheel, amps, wheelVelocities[wheel], driveTrain.getAppliedPower(wheel));
+            if (consecutiveFailures > 0) {
+                telemetryManager.info("Motor current reading again after " + consecutiveFailures + " failed reads");
+                consecutiveFailures = 0;
+            }
+        } catch (Exception e) {
+            // Keep the last statistics and flags, the next loop reads the next wheel
+            if (consecutiveFailures++ == 0) {
+                telemetryManager.warning("Motor current read failed: " + e.getMessage());
+            }
+            if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                telemetryManager.error("Motor current read failed " + consecutiveFailures + " times in a row");
+                emergencyStop("Motor health failure");
+            }
+            return;
+        }
+
+        if (!telemetryManager.isBatchDue()) {
+            return;
+        }
+        telemetryData.clear();
+        for (int i = 0; i < motors.length; i++) {
+            telemetryData.put("Wheel " + i, String.format(Locale.US, "%.2f A (avg %.2f, peak %.2f) %s",
+                    lastAmps[i], averageAmps[i], peakAmps[i], status[i]));
+        }
+    }
+
+    private void record(int wheel, double amps, double velocity, double power) {
+        lastAmps[wheel] = amps;
+        averageAmps[wheel] = samples[wheel] == 0 ? amps
+                : averageAmps[wheel] + CURRENT_SMOOTHING * (amps - averageAmps[wheel]);
+        peakAmps[wheel] = Math.max(peakAmps[wheel], amps);
+        samples[wheel]++;
+        telemetryManager.getChannels().set(currentChannels[wheel], amps);
+
+        boolean stalling = amps > stallAmps
+                && Math.abs(power) > stallMinPower
+                && Math.abs(velocity) < stallMaxVelocity;
+        stallStreak[wheel] = stalling ? stallStreak[wheel] + 1 : 0;
+
+        long now = System.nanoTime();
+        if (stallStreak[wheel] >= STALL_SAMPLES) {
+            stallNanos[wheel] = now;
+        }
+
+        Status next;
+        if (stallNanos[wheel] != 0 && now - stallNanos[wheel] < STALL_HOLD_NANOS) {
+            next = Status.STALLED;
+        } else if (averageAmps[wheel] > overcurrentAmps) {
+            next = Status.OVERCURRENT;
+        } else {
+            next = Status.OK;
+        }
+
+        if (next != status[wheel]) {
+            if (next == Status.OK) {
+                faultCount--;
+                telemetryManager.info(String.format(Locale.US, "Wheel %d recovered", wheel));
+            } else {
+                if (status[wheel] == Status.OK) {
+                    faultCount++;
+                }
+                telemetryManager.warning(String.format(Locale.US, "Wheel %d %s at %.1f A", wheel, next, amps));
+            }
+            status[wheel] = next;
+        }
+    }
+
+    @Override
+    public void stop() {
+        // Nothing to stop
+    }
+
+    /**
+     * @return the health of a wheel, in DriveTrain wheel order
+     */
+    public Status getStatus(int wheel) {
+        return status[wheel];
+    }
+
+    public boolean isStalled(int wheel) {
+        return status[wheel] == Status.STALLED;
+    }
+
+    public boolean isOvercurrent(int wheel) {
+        return status[wheel] == Status.OVERCURRENT;
+    }
+
+    /**
+     * @return true if any wheel is stalled or over current
+     */
+    public boolean hasFault() {
+        return faultCount > 0;
+    }
+
+    public boolean anyStalled() {
+        for (Status wheelStatus : status) {
+            if (wheelStatus == Status.STALLED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public double getAverageAmps(int wheel) {
+        return averageAmps[wheel];
+    }
+
+    public double getPeakAmps(int wheel) {
+        return peakAmps[wheel];
+    }
+
+    public long getSampleCount(int wheel) {
+        return samples[wheel];
+    }
+}
@@ -0,0 +1,160 @@
+package org.firstinspires.ftc.teamcode.components.power;
+
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.firstinspires.ftc.teamcode.components.AbstractComponent;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.config.Configurable;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filtered battery voltage, read at a low rate and cached for the rest of the robot.
+ *
+ * Reading a hub's voltage is a separate hub transaction outside the bulk read, so the sensors are
+ * only read every SAMPLE_INTERVAL_NANOS. Every other loop getVoltage() and getCompensation() just
+ * return cached fields. The lowest voltage across the hubs is used and smoothed, so a momentary
+ * dip while accelerating does not make the drive output jump.
+ *
+ * A failed read keeps the last good sample, and the component only shuts down after
+ * MAX_CONSECUTIVE_FAILURES failures in a row.
+ *
+ * getCompensation() is the factor that scales a power command tuned at the nominal voltage to give
+ * the same motor effort at the current voltage.
+ */
+public class BatteryVoltageComponent extends AbstractComponent implements Configurable {
+    public static final String COMPONENT_NAME = "BatteryVoltage";
+
+    private static final long SAMPLE_INTERVAL_NANOS = 100_000_000L;
+    private static final double SMOOTHING = 0.2;
+    // Limit the compensation so a bad reading cannot drive the motors far from the command
+    private static final double MIN_VOLTAGE = 8.0;
+    private static final double MAX_COMPENSATION = 1.5;
+    // At one sample per SAMPLE_INTERVAL_NANOS this is a second without a reading
+    private static final int MAX_CONSECUTIVE_FAILURES = 10;
+
+    private final List<VoltageSensor> sensors = new ArrayList<>();
+    private double voltage = 0;
+    private double compensation = 1.0;
+    private long lastSampleNanos = 0;
+    private int voltageChannel;
+    private int consecutiveFailures = 0;
+
+    private boolean compensationEnabled;
+    private double nominalVoltage;
+
+    @Override
+    public String getName() {
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public ComponentType getType() {
+        return ComponentType.SENSOR;
+    }
+
+    @Override
+    protected void initializeComponent() throws Exception {
+        for (VoltageSensor sensor : robot.getHardwareMap().voltageSensor) {
+            sensors.add(sensor);
+        }
+        if (sensors.isEmpty()) {
+            throw new RuntimeException("No voltage sensors found");
+        }
+        applyConfig(robot.getConfig());
+        voltageChannel = telemetryManager.getChannels().register("battery.volts");
+
+        // Seed the filter so the first loops are compensated correctly
+        voltage = readLowestVoltage();
+        lastSampleNanos = System.nanoTime();
+        updateCompensation();
+    }
+
+    @Override
+    public void applyConfig(RobotConfig config) {
+        compensationEnabled = config.driveVoltageCompensation;
+        nominalVoltage = config.driveNominalVoltage;
+        updateCompensation();
+    }
+
+    @Override
+    public void update() {
+        if (!isOperational()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now - lastSampleNanos < SAMPLE_INTERVAL_NANOS) {
+            return;
+        }
+        lastSampleNanos = now;
+
+        try {
+            double sample = readLowestVoltage();
+            // Hubs report 0 while they are browning out or disconnected, keep the last good value
+            if (sample >= MIN_VOLTAGE) {
+                voltage = voltage < MIN_VOLTAGE ? sample : voltage + SMOOTHING * (sample - voltage);
+                updateCompensation();
+            }
+            if (consecutiveFailures > 0) {
+                telemetryManager.info("Voltage sensor responding again after " + consecutiveFailures + " failed reads");
+                consecutiveFailures = 0;
+            }
+        } catch (Exception e) {
+            // Keep the last good voltage and compensation until the sensor has been down a while
+            if (consecutiveFailures++ == 0) {
+                telemetryManager.warning("Voltage read failed: " + e.getMessage());
+            }
+            if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                telemetryManager.error("Voltage read failed " + consecutiveFailures + " times in a row");
+                emergencyStop("Voltage sensor failure");
+                return;
+            }
+        }
+        telemetryManager.getChannels().set(voltageChannel, voltage);
+
+        telemetryData.clear();
+        telemetryData.put("Battery", String.format(Locale.US, "%.2f V (compensation %.2f)", voltage, compensation));
+    }
+
+    private double readLowestVoltage() {
+        double lowest = Double.MAX_VALUE;
+        for (int i = 0; i < sensors.size(); i++) {
+            double reading = sensors.get(i).getVoltage();
+            if (reading > 0) {
+                lowest = Math.min(lowest, reading);
+            }
+        }
+        return lowest == Double.MAX_VALUE ? 0 : lowest;
+    }
+
+    private void updateCompensation() {
+        if (!compensationEnabled || voltage < MIN_VOLTAGE) {
+            compensation = 1.0;
+            return;
+        }
+        compensation = Math.min(MAX_COMPENSATION, nominalVoltage / voltage);
+    }
+
+    @Override
+    public void stop() {
+        // Nothing to stop
+    }
+
+    /**
+     * @return the filtered battery voltage, in volts
+     */
+    public double getVoltage() {
+        return voltage;
+    }
+
+    /**
+     * @return nominal voltage over battery voltage, or 1 when compensation is off
+     */
+    public double getCompensation() {
+        return isOperational() ? compensation : 1.0;
+    }
+}
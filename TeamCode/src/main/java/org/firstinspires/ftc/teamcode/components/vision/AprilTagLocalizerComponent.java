@@ -0,0 +1,441 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose3D;
+import org.firstinspires.ftc.robotcore.external.navigation.Position;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.components.AbstractComponent;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.imu.GoBildaPinpointComponent;
+import org.firstinspires.ftc.vision.VisionPortal;
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
+import org.opencv.core.Point;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns a VisionPortal and AprilTagProcessor and solves for the robot pose on a dedicated thread.
+ *
+ * The vision thread waits for fresh detections and publishes the best one as an immutable
+ * VisionPoseEstimate through an AtomicReference. update() only reads that reference, so the main
+ * loop never blocks on the camera. Estimates older than STALE_AGE_NANOS are reported as stale and
+ * are not used for corrections.
+ *
+ * The vision thread also tunes the pipeline as it goes. While tracking, decimation follows the
+ * range to the closest tag (coarse when close for frame rate, full resolution when far for range)
+ * and everything outside the tags' neighbourhood is masked by a RoiMaskProcessor. After a few
+ * empty frames the pipeline falls back to searching the full frame.
+ *
+ * Corrections to the Pinpoint are off by default. A correction moves the Pinpoint from its
+ * start-relative frame, where the robot starts at (0, 0, 0), into the field frame of the tag
+ * library, which would break targets given relative to the start. OpModes that work in field
+ * coordinates turn them on with setApplyCorrections(true).
+ */
+public class AprilTagLocalizerComponent extends AbstractComponent implements CameraSource {
+    public static final String COMPONENT_NAME = "AprilTagLocalizer";
+
+    private static final String WEBCAM_NAME = "Webcam 1";
+
+    // Camera position and orientation on the robot, see ConceptAprilTagLocalization for the axes
+    private static final Position CAMERA_POSITION = new Position(DistanceUnit.MM, 0, 0, 0, 0);
+    private static final YawPitchRollAngles CAMERA_ORIENTATION =
+            new YawPitchRollAngles(AngleUnit.DEGREES, 0, -90, 0, 0);
+
+    // The SDK reports yaw with the robot's +Y axis as forward, Pinpoint uses +X as forward
+    private static final double YAW_TO_HEADING_OFFSET = 90.0; // degrees
+
+    private static final long STALE_AGE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final double MIN_DECISION_MARGIN = 25.0;
+    private static final long IDLE_SLEEP_MS = 5;
+    // Repeated failures back off by doubling up to this, so a dead portal does not spin a core
+    private static final long MAX_ERROR_SLEEP_MS = 500;
+
+    // Decimation by closest tag range. Higher decimation decodes faster but loses small tags
+    private static final double CLOSE_RANGE_MM = 900.0;
+    private static final double FAR_RANGE_MM = 1800.0;
+    private static final float DECIMATION_CLOSE = 3.0f;
+    private static final float DECIMATION_MID = 2.0f;
+    private static final float DECIMATION_FAR = 1.0f;
+    private static final float DECIMATION_SEARCH = 2.0f;
+    private static final int DECIMATION_HOLD_FRAMES = 5;  // frames a new setting must persist
+    private static final int SEARCH_AFTER_FRAMES = 10;    // empty frames before leaving tracking
+
+    // ROI padding around the detected tags, relative to the tag size plus a fixed pixel margin
+    private static final double ROI_TAG_PADDING = 1.5;
+    private static final int ROI_MIN_PADDING_PX = 40;
+
+    private static final double METRIC_SMOOTHING = 0.2;
+
+    // Hardware references
+    private VisionPortal visionPortal;
+    private AprilTagProcessor aprilTag;
+    private RoiMaskProcessor roiMask;
+    private final FrameCostProbe costProbe = new FrameCostProbe();
+    private GoBildaPinpointComponent pinpoint;
+
+    // Handoff between the vision thread and the main loop
+    private final AtomicReference<VisionPoseEstimate> latestEstimate = new AtomicReference<>();
+    private Thread visionThread;
+    private volatile boolean running = false;
+    private volatile String lastVisionError;
+
+    // Pipeline tuning, owned by the vision thread and published for telemetry
+    private volatile boolean tracking = false;
+    private volatile float decimation = DECIMATION_SEARCH;
+    private volatile double decodeLatencyMs = 0;
+    private float pendingDecimation = DECIMATION_SEARCH;
+    private int pendingDecimationFrames = 0;
+    private int framesWithoutTags = 0;
+    // Set by the main loop while the robot is shedding vision load
+    private volatile boolean throttled = false;
+
+    // Main loop state
+    private boolean applyCorrections = false;
+    private long lastAppliedCaptureTime = 0;
+    private int correctionsApplied = 0;
+
+    @Override
+    public String getName() {
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public ComponentType getType() {
+        return ComponentType.VISION;
+    }
+
+    @Override
+    public String[] getDependencies() {
+        return new String[] { GoBildaPinpointComponent.COMPONENT_NAME };
+    }
+
+    @Override
+    protected void initializeComponent() throws Exception {
+        aprilTag = new AprilTagProcessor.Builder()
+                .setCameraPose(CAMERA_POSITION, CAMERA_ORIENTATION)
+                .setOutputUnits(DistanceUnit.MM, AngleUnit.DEGREES)
+                .build();
+        aprilTag.setDecimation(DECIMATION_SEARCH);
+
+        // The mask must run before the detector so it sees the blanked frame, and the probe
+        // brackets both to measure the per-frame cost
+        roiMask = new RoiMaskProcessor();
+
+        visionPortal = new VisionPortal.Builder()
+                .setCamera(robot.getHardwareMap().get(WebcamName.class, WEBCAM_NAME))
+                .addProcessor(costProbe.start())
+                .addProcessor(roiMask)
+                .addProcessor(aprilTag)
+                .addProcessor(costProbe.end())
+                .build();
+
+        // Corrections are optional, localization still works without Pinpoint
+        pinpoint = robot.getComponent(GoBildaPinpointComponent.class, GoBildaPinpointComponent.COMPONENT_NAME);
+        if (pinpoint == null) {
+            telemetryManager.warning("AprilTag corrections disabled - no Pinpoint component registered");
+        }
+
+        running = true;
+        visionThread = new Thread(this::runVisionLoop, "AprilTagLocalizer");
+        visionThread.setDaemon(true);
+        visionThread.start();
+    }
+
+    private void runVisionLoop() {
+        long errorSleepMs = IDLE_SLEEP_MS;
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                List<AprilTagDetection> detections = aprilTag.getFreshDetections();
+                if (detections == null) {
+                    Thread.sleep(IDLE_SLEEP_MS);
+                    continue;
+                }
+                measureLatency(detections);
+                adaptPipeline(detections);
+                publish(detections);
+                errorSleepMs = IDLE_SLEEP_MS;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Keep the thread alive, a single bad frame should not end localization.
+                // TelemetryManager is not thread safe so the error is reported from update()
+                lastVisionError = e.getMessage();
+                if (!backOff(errorSleepMs)) {
+                    return;
+                }
+                errorSleepMs = Math.min(MAX_ERROR_SLEEP_MS, errorSleepMs * 2);
+            }
+        }
+    }
+
+    // Runs on the vision thread, returns false if interrupted while waiting
+    private static boolean backOff(long sleepMs) {
+        try {
+            Thread.sleep(sleepMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Runs on the vision thread. Only frames with detections carry an acquisition time
+    private void measureLatency(List<AprilTagDetection> detections) {
+        if (detections.isEmpty()) {
+            return;
+        }
+        double latencyMs = (System.nanoTime() - detections.get(0).frameAcquisitionNanoTime) / 1.0e6;
+        decodeLatencyMs += METRIC_SMOOTHING * (latencyMs - decodeLatencyMs);
+    }
+
+    // Runs on the vision thread
+    private void adaptPipeline(List<AprilTagDetection> detections) {
+        if (detections.isEmpty()) {
+            // Tags may have left the ROI, so look at the whole frame straight away
+            roiMask.clearRegion();
+            framesWithoutTags++;
+            if (framesWithoutTags >= SEARCH_AFTER_FRAMES) {
+                tracking = false;
+            }
+        } else {
+            framesWithoutTags = 0;
+            tracking = true;
+            updateRegionOfInterest(detections);
+        }
+
+        float desired;
+        if (throttled) {
+            // Cheapest decode while the control loop needs the CPU, far tags may be missed
+            desired = DECIMATION_CLOSE;
+        } else if (!tracking) {
+            desired = DECIMATION_SEARCH;
+        } else if (detections.isEmpty()) {
+            // Briefly lost the tags, hold the current setting until we decide to search
+            desired = decimation;
+        } else {
+            desired = decimationForRange(closestRange(detections));
+        }
+
+        // Require the new setting to hold for a few frames so band edges do not thrash
+        if (desired == decimation) {
+            pendingDecimationFrames = 0;
+        } else if (desired == pendingDecimation) {
+            pendingDecimationFrames++;
+            if (pendingDecimationFrames >= DECIMATION_HOLD_FRAMES) {
+                aprilTag.setDecimation(desired);
+                decimation = desired;
+                pendingDecimationFrames = 0;
+            }
+        } else {
+            pendingDecimation = desired;
+            pendingDecimationFrames = 1;
+        }
+    }
+
+    private double closestRange(List<AprilTagDetection> detections) {
+        double closest = Double.MAX_VALUE;
+        for (AprilTagDetection detection : detections) {
+            if (detection.ftcPose != null) {
+                closest = Math.min(closest, detection.ftcPose.range);
+            }
+        }
+        return closest;
+    }
+
+    private static float decimationForRange(double rangeMM) {
+        if (rangeMM < CLOSE_RANGE_MM) {
+            return DECIMATION_CLOSE;
+        }
+        if (rangeMM < FAR_RANGE_MM) {
+            return DECIMATION_MID;
+        }
+        return DECIMATION_FAR;
+    }
+
+    private void updateRegionOfInterest(List<AprilTagDetection> detections) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        double largestTag = 0;
+
+        for (AprilTagDetection detection : detections) {
+            if (detection.corners == null) {
+                continue;
+            }
+            double tagMinX = Double.MAX_VALUE, tagMaxX = -Double.MAX_VALUE;
+            for (Point corner : detection.corners) {
+                minX = Math.min(minX, corner.x);
+                minY = Math.min(minY, corner.y);
+                maxX = Math.max(maxX, corner.x);
+                maxY = Math.max(maxY, corner.y);
+                tagMinX = Math.min(tagMinX, corner.x);
+                tagMaxX = Math.max(tagMaxX, corner.x);
+            }
+            largestTag = Math.max(largestTag, tagMaxX - tagMinX);
+        }
+
+        if (largestTag <= 0) {
+            roiMask.clearRegion();
+            return;
+        }
+
+        int padding = (int) Math.max(ROI_MIN_PADDING_PX, largestTag * ROI_TAG_PADDING);
+        roiMask.setRegion((int) minX - padding, (int) minY - padding,
+                (int) maxX + padding, (int) maxY + padding);
+    }
+
+    // Runs on the vision thread
+    private void publish(List<AprilTagDetection> detections) {
+        AprilTagDetection best = null;
+        int usable = 0;
+        for (AprilTagDetection detection : detections) {
+            // Only tags in the library have a known field position
+            if (detection.metadata == null || detection.robotPose == null) {
+                continue;
+            }
+            usable++;
+            if (best == null || detection.decisionMargin > best.decisionMargin) {
+                best = detection;
+            }
+        }
+
+        if (best == null) {
+            return;
+        }
+
+        Pose3D pose = best.robotPose;
+        latestEstimate.set(new VisionPoseEstimate(
+                pose.getPosition().x,
+                pose.getPosition().y,
+                pose.getOrientation().getYaw(AngleUnit.DEGREES) + YAW_TO_HEADING_OFFSET,
+                best.frameAcquisitionNanoTime,
+                best.decisionMargin,
+                best.id,
+                usable));
+    }
+
+    @Override
+    public void update() {
+        if (!isOperational()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        VisionPoseEstimate estimate = latestEstimate.get();
+        boolean stale = estimate == null || estimate.isStale(now, STALE_AGE_NANOS);
+
+        if (!stale && applyCorrections && pinpoint != null
+                && estimate.getCaptureTimeNanos() != lastAppliedCaptureTime
+                && estimate.getDecisionMargin() >= MIN_DECISION_MARGIN) {
+            if (pinpoint.applyVisionCorrection(estimate.getCaptureTimeNanos(),
+                    estimate.getX(), estimate.getY(), estimate.getHeading())) {
+                correctionsApplied++;
+            }
+            lastAppliedCaptureTime = estimate.getCaptureTimeNanos();
+        }
+
+        if (!telemetryManager.isBatchDue()) {
+            return;
+        }
+        telemetryData.clear();
+        telemetryData.put("Stale", stale);
+        if (estimate != null) {
+            telemetryData.put("Pose", String.format(Locale.US, "X: %.1f, Y: %.1f, H: %.1f",
+                    estimate.getX(), estimate.getY(), estimate.getHeading()));
+            telemetryData.put("Tag", String.format(Locale.US, "%d (%d visible, margin %.1f)",
+                    estimate.getTagId(), estimate.getTagCount(), estimate.getDecisionMargin()));
+            telemetryData.put("Age", String.format(Locale.US, "%.0f ms", estimate.getAgeNanos(now) / 1.0e6));
+        }
+        telemetryData.put("Corrections", correctionsApplied);
+        telemetryData.put("Mode", tracking ? "Tracking" : "Searching");
+        telemetryData.put("Decimation", decimation);
+        telemetryData.put("ROI", roiMask.hasRegion() ? "On" : "Full Frame");
+        telemetryData.put("FPS", String.format(Locale.US, "%.1f", visionPortal.getFps()));
+        telemetryData.put("Decode Latency", String.format(Locale.US, "%.1f ms", decodeLatencyMs));
+        if (lastVisionError != null) {
+            telemetryData.put("Last Error", lastVisionError);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (visionThread != null) {
+            visionThread.interrupt();
+            visionThread = null;
+        }
+        if (visionPortal != null) {
+            visionPortal.close();
+            visionPortal = null;
+        }
+    }
+
+    /**
+     * @return the newest estimate regardless of age, or null if no tag has been seen
+     */
+    public VisionPoseEstimate getLatestEstimate() {
+        return latestEstimate.get();
+    }
+
+    /**
+     * @return the newest estimate if it is recent enough to act on, otherwise null
+     */
+    public VisionPoseEstimate getFreshEstimate() {
+        VisionPoseEstimate estimate = latestEstimate.get();
+        if (estimate == null || estimate.isStale(System.nanoTime(), STALE_AGE_NANOS)) {
+            return null;
+        }
+        return estimate;
+    }
+
+    public boolean hasFreshEstimate() {
+        return getFreshEstimate() != null;
+    }
+
+    public void setApplyCorrections(boolean applyCorrections) {
+        this.applyCorrections = applyCorrections;
+    }
+
+    public boolean isApplyingCorrections() {
+        return applyCorrections;
+    }
+
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    public float getDecimation() {
+        return decimation;
+    }
+
+    /**
+     * @return smoothed time from frame acquisition to detections being available, in ms
+     */
+    public double getDecodeLatencyMs() {
+        return decodeLatencyMs;
+    }
+
+    public float getFrameRate() {
+        return visionPortal != null ? visionPortal.getFps() : 0;
+    }
+
+    @Override
+    public void setFrameThrottle(boolean throttled) {
+        this.throttled = throttled;
+    }
+
+    @Override
+    public double getAverageProcessMs() {
+        return costProbe.getAverageProcessMs();
+    }
+
+    @Override
+    public VisionPortal getVisionPortal() {
+        return visionPortal;
+    }
+}
@@ -0,0 +1,255 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+import org.firstinspires.ftc.teamcode.components.AbstractComponent;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.vision.VisionPortal;
+
+import java.util.Locale;
+
+/**
+ * Decides which cameras are streaming so vision does not starve the control loop.
+ *
+ * Three policies are supported:
+ *   ALL        every registered camera streams (the default, same as having no scheduler)
+ *   EXCLUSIVE  only the cameras named in activate() stream
+ *   TIME_SLICE the named cameras take turns streaming for a fixed slice each
+ *
+ * Stopping and resuming a stream is asynchronous, so update() only issues the request and then
+ * polls the camera state on later loops. A camera that has not reached STREAMING within
+ * SWITCH_TIMEOUT_NANOS is marked as failed and skipped by time slicing, so a switch always
+ * completes in bounded time. Per-camera frame rate, processing cost, duty cycle and switch
+ * latency are published in telemetry.
+ */
+public class CameraSchedulerComponent extends AbstractComponent {
+    public static final String COMPONENT_NAME = "CameraScheduler";
+
+    private static final int MAX_CAMERAS = 4;
+    private static final long SWITCH_TIMEOUT_NANOS = 1_500_000_000L;
+    private static final long DEFAULT_SLICE_NANOS = 2_000_000_000L;
+
+    public enum Policy {
+        ALL,
+        EXCLUSIVE,
+        TIME_SLICE
+    }
+
+    // Registered cameras, indexed by slot
+    private final CameraSource[] cameras = new CameraSource[MAX_CAMERAS];
+    private int cameraCount = 0;
+
+    // Scheduling state per slot
+    private final boolean[] wanted = new boolean[MAX_CAMERAS];
+    private final boolean[] requested = new boolean[MAX_CAMERAS];
+    private final boolean[] failed = new boolean[MAX_CAMERAS];
+    private final long[] switchStartNanos = new long[MAX_CAMERAS];
+    private final double[] switchLatencyMs = new double[MAX_CAMERAS];
+    private final long[] streamingNanos = new long[MAX_CAMERAS];
+
+    private Policy policy = Policy.ALL;
+    private long sliceNanos = DEFAULT_SLICE_NANOS;
+    private int sliceSlot = -1;
+    private long sliceStartNanos = 0;
+    private long lastUpdateNanos = 0;
+    private long scheduledNanos = 0;
+
+    @Override
+    public String getName() {
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public ComponentType getType() {
+        return ComponentType.VISION;
+    }
+
+    @Override
+    protected void initializeComponent() throws Exception {
+        // Cameras are added by the robot once their components are registered
+    }
+
+    /**
+     * Put a camera under the scheduler's control. Cameras start out wanted, matching the
+     * ALL policy.
+     */
+    public void addCamera(CameraSource camera) {
+        if (camera == null || camera.getVisionPortal() == null) {
+            return;
+        }
+        if (cameraCount == MAX_CAMERAS) {
+            telemetryManager.warning("Camera scheduler full, ignoring " + camera.getName());
+            return;
+        }
+        int slot = cameraCount++;
+        cameras[slot] = camera;
+        wanted[slot] = true;
+        requested[slot] = true;
+        telemetryManager.info("Camera scheduler managing " + camera.getName());
+    }
+
+    /**
+     * Stream every registered camera.
+     */
+    public void streamAll() {
+        policy = Policy.ALL;
+        for (int i = 0; i < cameraCount; i++) {
+            wanted[i] = true;
+        }
+    }
+
+    /**
+     * Stream only the given cameras and stop the rest.
+     */
+    public void activate(CameraSource... active) {
+        policy = Policy.EXCLUSIVE;
+        for (int i = 0; i < cameraCount; i++) {
+            wanted[i] = contains(active, cameras[i]);
+        }
+    }
+
+    /**
+     * Take turns streaming the given cameras, one at a time, for sliceMs each.
+     */
+    public void timeSlice(long sliceMs, CameraSource... rotation) {
+        policy = Policy.TIME_SLICE;
+        sliceNanos = sliceMs * 1_000_000L;
+        for (int i = 0; i < cameraCount; i++) {
+            // Under TIME_SLICE, wanted marks membership of the rotation
+            wanted[i] = contains(rotation, cameras[i]);
+            failed[i] = false;
+        }
+        sliceSlot = -1;
+        nextSlice(System.nanoTime());
+    }
+
+    @Override
+    public void update() {
+        if (!isOperational()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long elapsed = lastUpdateNanos == 0 ? 0 : now - lastUpdateNanos;
+        lastUpdateNanos = now;
+        scheduledNanos += elapsed;
+
+        if (policy == Policy.TIME_SLICE && sliceSlot >= 0 && now - sliceStartNanos >= sliceNanos) {
+            nextSlice(now);
+        }
+
+        boolean report = telemetryManager.isBatchDue();
+        if (report) {
+            telemetryData.clear();
+            telemetryData.put("Policy", policy);
+        }
+
+        for (int i = 0; i < cameraCount; i++) {
+            boolean shouldStream = policy == Policy.TIME_SLICE ? i == sliceSlot : wanted[i];
+            VisionPortal portal = cameras[i].getVisionPortal();
+            if (portal == null) {
+                continue;
+            }
+
+            VisionPortal.CameraState state = portal.getCameraState();
+            boolean streaming = state == VisionPortal.CameraState.STREAMING;
+
+            if (shouldStream != requested[i]) {
+                requested[i] = shouldStream;
+                switchStartNanos[i] = now;
+                if (shouldStream) {
+                    portal.resumeStreaming();
+                } else {
+                    portal.stopStreaming();
+                }
+            } else if (switchStartNanos[i] != 0) {
+                boolean settled = shouldStream ? streaming
+                        : state != VisionPortal.CameraState.STREAMING
+                          && state != VisionPortal.CameraState.STARTING_STREAM;
+                if (settled) {
+                    switchLatencyMs[i] = (now - switchStartNanos[i]) / 1.0e6;
+                    switchStartNanos[i] = 0;
+                } else if (now - switchStartNanos[i] > SWITCH_TIMEOUT_NANOS) {
+                    failed[i] = true;
+                    switchStartNanos[i] = 0;
+                    telemetryManager.warning("Camera " + cameras[i].getName() + " did not switch in time");
+                    if (policy == Policy.TIME_SLICE && i == sliceSlot) {
+                        nextSlice(now);
+                    }
+                }
+            }
+
+            if (streaming) {
+                streamingNanos[i] += elapsed;
+            }
+
+            if (report) {
+                float fps = streaming ? portal.getFps() : 0;
+                double processMs = cameras[i].getAverageProcessMs();
+                telemetryData.put(cameras[i].getName(), String.format(Locale.US,
+                        "%s %.1f fps, %.1f ms/frame, cpu %.0f%%, duty %.0f%%, switch %.0f ms%s",
+                        state, fps, processMs, getCpuLoad(i) * 100.0, getDutyCycle(i) * 100.0,
+                        switchLatencyMs[i], failed[i] ? " FAILED" : ""));
+            }
+        }
+    }
+
+    // Advance the time slice to the next wanted camera that has not failed
+    private void nextSlice(long now) {
+        for (int step = 1; step <= cameraCount; step++) {
+            int candidate = (sliceSlot + step + cameraCount) % cameraCount;
+            if (wanted[candidate] && !failed[candidate]) {
+                sliceSlot = candidate;
+                sliceStartNanos = now;
+                return;
+            }
+        }
+        sliceSlot = -1;
+    }
+
+    @Override
+    public void stop() {
+        // The owning components close their portals
+    }
+
+    /**
+     * @return fraction of one CPU core the camera's processors are using
+     */
+    public double getCpuLoad(int slot) {
+        VisionPortal portal = cameras[slot].getVisionPortal();
+        if (portal == null || portal.getCameraState() != VisionPortal.CameraState.STREAMING) {
+            return 0;
+        }
+        return portal.getFps() * cameras[slot].getAverageProcessMs() / 1000.0;
+    }
+
+    /**
+     * @return fraction of the time since scheduling began that the camera was streaming
+     */
+    public double getDutyCycle(int slot) {
+        return scheduledNanos == 0 ? 0 : (double) streamingNanos[slot] / scheduledNanos;
+    }
+
+    public double getSwitchLatencyMs(int slot) {
+        return switchLatencyMs[slot];
+    }
+
+    public int getCameraCount() {
+        return cameraCount;
+    }
+
+    public CameraSource getCamera(int slot) {
+        return cameras[slot];
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    private static boolean contains(CameraSource[] sources, CameraSource camera) {
+        for (CameraSource source : sources) {
+            if (source == camera) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
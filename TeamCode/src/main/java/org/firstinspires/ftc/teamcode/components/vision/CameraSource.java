@@ -0,0 +1,31 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+import org.firstinspires.ftc.vision.VisionPortal;
+
+/**
+ * A component that owns a camera through a VisionPortal, so a scheduler can start and stop its
+ * stream and account for what it costs.
+ */
+public interface CameraSource {
+    /**
+     * Get the unique identifier for this camera, normally the owning component's name
+     */
+    String getName();
+
+    /**
+     * @return the portal streaming this camera, or null if it is not open
+     */
+    VisionPortal getVisionPortal();
+
+    /**
+     * @return smoothed processing time spent on each frame, in ms
+     */
+    double getAverageProcessMs();
+
+    /**
+     * Process fewer or cheaper frames while the control loop is overloaded. Cameras that cannot
+     * throttle ignore this.
+     */
+    default void setFrameThrottle(boolean throttled) {
+    }
+}
@@ -0,0 +1,21 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+/**
+ * Largest color blob found in a frame, in full-resolution image pixels.
+ *
+ * This is a mutable holder that callers allocate once and refill with
+ * ColorBlobProcessor.readLatestBlob(), so reading the latest result every loop does not allocate.
+ */
+public class ColorBlob {
+    public boolean found;
+    public double centerX;
+    public double centerY;
+    public int width;
+    public int height;
+    public int area;
+    public long captureTimeNanos;
+
+    public long getAgeNanos(long nowNanos) {
+        return nowNanos - captureTimeNanos;
+    }
+}
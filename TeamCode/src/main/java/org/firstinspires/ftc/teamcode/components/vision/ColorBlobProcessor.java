@@ -0,0 +1,245 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+import android.graphics.Canvas;
+
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Color blob detector that runs on preallocated buffers.
+ *
+ * Every Mat is allocated once in init(). Each frame the region of interest is cropped and
+ * downscaled in a single warpAffine into a small buffer, thresholded in YCrCb, and labelled with
+ * connectedComponentsWithStats so no contour lists are created. Label statistics are copied into
+ * primitive arrays with bulk get() calls.
+ *
+ * The newest blob is published with a sequence lock: the camera thread bumps the sequence to an
+ * odd value, writes the fields and bumps it back to even. Readers retry if the sequence changed
+ * while they were copying, so neither side blocks and nothing is allocated.
+ */
+public class ColorBlobProcessor implements VisionProcessor {
+    private static final int STATS_COLUMNS = 5; // left, top, width, height, area
+    private static final int INITIAL_LABEL_CAPACITY = 64;
+
+    // Region of interest as fractions of the frame and the downscale applied to it
+    private final double roiLeft, roiTop, roiRight, roiBottom;
+    private final double scale;
+    private final int minArea;
+
+    private volatile Scalar lowerBound;
+    private volatile Scalar upperBound;
+
+    // Preallocated image buffers
+    private Mat transform;
+    private Mat small;
+    private Mat yCrCb;
+    private Mat mask;
+    private Mat labels;
+    private Mat stats;
+    private Mat centroids;
+    private Size smallSize;
+    private int roiX, roiY;
+
+    private int[] statsBuffer = new int[INITIAL_LABEL_CAPACITY * STATS_COLUMNS];
+    private double[] centroidBuffer = new double[INITIAL_LABEL_CAPACITY * 2];
+
+    // Frame skipping, written by the main loop
+    private volatile int framesToSkip = 0;
+    private int skipCounter = 0;
+
+    // Processing cost, written by the camera thread
+    private volatile double averageProcessMs = 0;
+    private volatile long processedFrames = 0;
+    private volatile long skippedFrames = 0;
+
+    // Sequence-locked latest result
+    private volatile int sequence = 0;
+    private volatile boolean blobFound;
+    private volatile double blobCenterX, blobCenterY;
+    private volatile int blobWidth, blobHeight, blobArea;
+    private volatile long blobCaptureTime;
+
+    /**
+     * @param roiLeft left edge of the search region as a fraction of the frame width
+     * @param roiTop top edge as a fraction of the frame height
+     * @param roiRight right edge as a fraction of the frame width
+     * @param roiBottom bottom edge as a fraction of the frame height
+     * @param scale downscale applied to the region, 0.5 halves each dimension
+     * @param minArea smallest blob, in downscaled pixels, that is reported
+     */
+    public ColorBlobProcessor(double roiLeft, double roiTop, double roiRight, double roiBottom,
+                              double scale, int minArea, Scalar lowerBound, Scalar upperBound) {
+        if (roiRight <= roiLeft || roiBottom <= roiTop) {
+            throw new IllegalArgumentException("Color locator ROI is empty");
+        }
+        if (scale <= 0 || scale > 1) {
+            throw new IllegalArgumentException("Color locator scale must be in (0, 1]");
+        }
+        this.roiLeft = roiLeft;
+        this.roiTop = roiTop;
+        this.roiRight = roiRight;
+        this.roiBottom = roiBottom;
+        this.scale = scale;
+        this.minArea = minArea;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    @Override
+    public void init(int width, int height, CameraCalibration calibration) {
+        roiX = (int) (width * roiLeft);
+        roiY = (int) (height * roiTop);
+        int roiWidth = (int) (width * roiRight) - roiX;
+        int roiHeight = (int) (height * roiBottom) - roiY;
+
+        int smallWidth = Math.max(1, (int) (roiWidth * scale));
+        int smallHeight = Math.max(1, (int) (roiHeight * scale));
+        smallSize = new Size(smallWidth, smallHeight);
+
+        // Crop and scale in one step: small(x, y) = frame(roiX + x / scale, roiY + y / scale)
+        transform = new Mat(2, 3, CvType.CV_64F);
+        transform.put(0, 0, scale, 0, -scale * roiX, 0, scale, -scale * roiY);
+
+        small = new Mat(smallHeight, smallWidth, CvType.CV_8UC3);
+        yCrCb = new Mat(smallHeight, smallWidth, CvType.CV_8UC3);
+        mask = new Mat(smallHeight, smallWidth, CvType.CV_8UC1);
+        labels = new Mat(smallHeight, smallWidth, CvType.CV_32S);
+        stats = new Mat();
+        centroids = new Mat();
+    }
+
+    @Override
+    public Object processFrame(Mat frame, long captureTimeNanos) {
+        int skip = framesToSkip;
+        if (skip > 0 && skipCounter++ < skip) {
+            skippedFrames++;
+            return null;
+        }
+        skipCounter = 0;
+
+        long start = System.nanoTime();
+
+        Imgproc.warpAffine(frame, small, transform, smallSize, Imgproc.INTER_NEAREST);
+        Imgproc.cvtColor(small, yCrCb, Imgproc.COLOR_RGB2YCrCb);
+        Core.inRange(yCrCb, lowerBound, upperBound, mask);
+
+        int labelCount = Imgproc.connectedComponentsWithStats(mask, labels, stats, centroids, 8, CvType.CV_32S);
+        findLargestBlob(labelCount, captureTimeNanos);
+
+        double elapsedMs = (System.nanoTime() - start) / 1.0e6;
+        averageProcessMs += 0.1 * (elapsedMs - averageProcessMs);
+        processedFrames++;
+        return null;
+    }
+
+    private void findLargestBlob(int labelCount, long captureTimeNanos) {
+        if (labelCount * STATS_COLUMNS > statsBuffer.length) {
+            // Only grows, so a noisy scene costs one allocation rather than one per frame
+            statsBuffer = new int[labelCount * STATS_COLUMNS];
+            centroidBuffer = new double[labelCount * 2];
+        }
+
+        int best = -1;
+        int bestArea = minArea - 1;
+        if (labelCount > 1) {
+            stats.get(0, 0, statsBuffer);
+            // Label 0 is the background
+            for (int label = 1; label < labelCount; label++) {
+                int area = statsBuffer[label * STATS_COLUMNS + Imgproc.CC_STAT_AREA];
+                if (area > bestArea) {
+                    bestArea = area;
+                    best = label;
+                }
+            }
+        }
+
+        sequence++;
+        if (best < 0) {
+            blobFound = false;
+        } else {
+            centroids.get(0, 0, centroidBuffer);
+            blobFound = true;
+            blobCenterX = roiX + centroidBuffer[best * 2] / scale;
+            blobCenterY = roiY + centroidBuffer[best * 2 + 1] / scale;
+            blobWidth = (int) (statsBuffer[best * STATS_COLUMNS + Imgproc.CC_STAT_WIDTH] / scale);
+            blobHeight = (int) (statsBuffer[best * STATS_COLUMNS + Imgproc.CC_STAT_HEIGHT] / scale);
+            blobArea = (int) (bestArea / (scale * scale));
+        }
+        blobCaptureTime = captureTimeNanos;
+        sequence++;
+    }
+
+    @Override
+    public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight,
+                            float scaleBmpPxToCanvasPx, float scaleCanvasDensity, Object userContext) {
+        // Drawing would allocate paint and path objects every frame, so the overlay is skipped
+    }
+
+    /**
+     * Copy the newest result into the given holder without locking.
+     *
+     * @return false if no frame has been processed yet
+     */
+    public boolean readLatestBlob(ColorBlob out) {
+        while (true) {
+            int before = sequence;
+            if ((before & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+            if (before == 0) {
+                out.found = false;
+                return false;
+            }
+
+            out.found = blobFound;
+            out.centerX = blobCenterX;
+            out.centerY = blobCenterY;
+            out.width = blobWidth;
+            out.height = blobHeight;
+            out.area = blobArea;
+            out.captureTimeNanos = blobCaptureTime;
+
+            if (sequence == before) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Process only one frame out of every (framesToSkip + 1).
+     */
+    public void setFramesToSkip(int framesToSkip) {
+        this.framesToSkip = Math.max(0, framesToSkip);
+    }
+
+    public int getFramesToSkip() {
+        return framesToSkip;
+    }
+
+    /**
+     * Change the YCrCb range to match. Takes effect on the next processed frame.
+     */
+    public void setColorRange(Scalar lowerBound, Scalar upperBound) {
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    public double getAverageProcessMs() {
+        return averageProcessMs;
+    }
+
+    public long getProcessedFrames() {
+        return processedFrames;
+    }
+
+    public long getSkippedFrames() {
+        return skippedFrames;
+    }
+}
@@ -0,0 +1,165 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+import android.util.Size;
+
+import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
+import org.firstinspires.ftc.teamcode.LoopWatchdog;
+import org.firstinspires.ftc.teamcode.components.AbstractComponent;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+import org.firstinspires.ftc.vision.VisionPortal;
+import org.opencv.core.Scalar;
+
+import java.util.Locale;
+
+/**
+ * Finds the largest blob of a target color so the robot can drive to game pieces.
+ *
+ * Detection runs in a ColorBlobProcessor on the camera thread using preallocated buffers. The main
+ * loop copies the newest blob into a reused ColorBlob each update, so reading it costs no
+ * allocation. When the main loop falls behind, the processor is told to skip frames to give CPU
+ * back to the control loop, and it resumes full rate once the loop recovers.
+ */
+public class ColorLocatorComponent extends AbstractComponent implements CameraSource {
+    public static final String COMPONENT_NAME = "ColorLocator";
+
+    private static final String WEBCAM_NAME = "Webcam 2";
+    private static final int CAMERA_WIDTH = 640;
+    private static final int CAMERA_HEIGHT = 480;
+
+    // Search the lower two thirds of the view at half resolution
+    private static final double ROI_LEFT = 0.0;
+    private static final double ROI_TOP = 0.33;
+    private static final double ROI_RIGHT = 1.0;
+    private static final double ROI_BOTTOM = 1.0;
+    private static final double ROI_SCALE = 0.5;
+    private static final int MIN_BLOB_AREA = 50;
+
+    // Same YCrCb range as the SDK's ColorRange.BLUE
+    private static final Scalar DEFAULT_LOWER = new Scalar(16, 0, 155);
+    private static final Scalar DEFAULT_UPPER = new Scalar(255, 127, 255);
+
+    // Loop period above which the main loop is considered saturated, with hysteresis
+    private static final double SATURATED_LOOP_MS = 25.0;
+    private static final double RECOVERED_LOOP_MS = 18.0;
+    private static final int SATURATED_FRAME_SKIP = 1;
+    // Frames skipped while the robot is shedding vision load
+    private static final int THROTTLED_FRAME_SKIP = 3;
+
+    private VisionPortal visionPortal;
+    private ColorBlobProcessor processor;
+    private LoopWatchdog watchdog;
+
+    // Main loop state
+    private final ColorBlob latestBlob = new ColorBlob();
+    private boolean saturated = false;
+    private boolean throttled = false;
+
+    @Override
+    public String getName() {
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public ComponentType getType() {
+        return ComponentType.VISION;
+    }
+
+    @Override
+    public UpdatePriority getUpdatePriority() {
+        return UpdatePriority.LOW;
+    }
+
+    @Override
+    protected void initializeComponent() throws Exception {
+        processor = new ColorBlobProcessor(ROI_LEFT, ROI_TOP, ROI_RIGHT, ROI_BOTTOM,
+                ROI_SCALE, MIN_BLOB_AREA, DEFAULT_LOWER, DEFAULT_UPPER);
+
+        visionPortal = new VisionPortal.Builder()
+                .setCamera(robot.getHardwareMap().get(WebcamName.class, WEBCAM_NAME))
+                .setCameraResolution(new Size(CAMERA_WIDTH, CAMERA_HEIGHT))
+                .addProcessor(processor)
+                .build();
+
+        watchdog = robot.getLoopWatchdog();
+    }
+
+    @Override
+    public void update() {
+        if (!isOperational()) {
+            return;
+        }
+
+        trackLoopLoad();
+        processor.readLatestBlob(latestBlob);
+
+        if (!telemetryManager.isBatchDue()) {
+            return;
+        }
+        telemetryData.clear();
+        if (latestBlob.found) {
+            telemetryData.put("Blob", String.format(Locale.US, "(%.0f, %.0f) %dx%d area %d",
+                    latestBlob.centerX, latestBlob.centerY,
+                    latestBlob.width, latestBlob.height, latestBlob.area));
+        } else {
+            telemetryData.put("Blob", "None");
+        }
+        telemetryData.put("FPS", String.format(Locale.US, "%.1f", visionPortal.getFps()));
+        telemetryData.put("Process Time", String.format(Locale.US, "%.1f ms", processor.getAverageProcessMs()));
+        telemetryData.put("Frame Skip", processor.getFramesToSkip());
+    }
+
+    // At LOW priority update() can be deferred or shed, so the interval between calls is not the
+    // loop period. The watchdog measures the real one
+    private void trackLoopLoad() {
+        double averageLoopMs = watchdog.getAverageLoopMs();
+        if (!saturated && averageLoopMs > SATURATED_LOOP_MS) {
+            saturated = true;
+            applyFrameSkip();
+        } else if (saturated && averageLoopMs < RECOVERED_LOOP_MS) {
+            saturated = false;
+            applyFrameSkip();
+        }
+    }
+
+    private void applyFrameSkip() {
+        processor.setFramesToSkip(throttled ? THROTTLED_FRAME_SKIP : saturated ? SATURATED_FRAME_SKIP : 0);
+    }
+
+    @Override
+    public void setFrameThrottle(boolean throttled) {
+        this.throttled = throttled;
+        if (processor != null) {
+            applyFrameSkip();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (visionPortal != null) {
+            visionPortal.close();
+            visionPortal = null;
+        }
+    }
+
+    /**
+     * @return the blob read during the last update(). The instance is reused, copy it to keep it
+     */
+    public ColorBlob getLatestBlob() {
+        return latestBlob;
+    }
+
+    public void setColorRange(Scalar lowerYCrCb, Scalar upperYCrCb) {
+        processor.setColorRange(lowerYCrCb, upperYCrCb);
+    }
+
+    @Override
+    public double getAverageProcessMs() {
+        return processor.getAverageProcessMs();
+    }
+
+    @Override
+    public VisionPortal getVisionPortal() {
+        return visionPortal;
+    }
+}
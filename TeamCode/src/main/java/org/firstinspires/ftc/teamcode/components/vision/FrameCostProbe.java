@@ -0,0 +1,64 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+import android.graphics.Canvas;
+
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.opencv.core.Mat;
+
+/**
+ * Measures the processing time of the processors in a VisionPortal.
+ *
+ * The portal runs processors in the order they were added, so adding start() first and end() last
+ * brackets everything in between. Both run on the camera thread; the result is read from the main
+ * loop through a volatile.
+ */
+public class FrameCostProbe {
+    private static final double SMOOTHING = 0.1;
+
+    private final VisionProcessor start = new Marker(true);
+    private final VisionProcessor end = new Marker(false);
+
+    private long frameStartNanos = 0;
+    private volatile double averageProcessMs = 0;
+
+    public VisionProcessor start() {
+        return start;
+    }
+
+    public VisionProcessor end() {
+        return end;
+    }
+
+    public double getAverageProcessMs() {
+        return averageProcessMs;
+    }
+
+    private class Marker implements VisionProcessor {
+        private final boolean isStart;
+
+        Marker(boolean isStart) {
+            this.isStart = isStart;
+        }
+
+        @Override
+        public void init(int width, int height, CameraCalibration calibration) {
+        }
+
+        @Override
+        public Object processFrame(Mat frame, long captureTimeNanos) {
+            if (isStart) {
+                frameStartNanos = System.nanoTime();
+            } else if (frameStartNanos != 0) {
+                double elapsedMs = (System.nanoTime() - frameStartNanos) / 1.0e6;
+                averageProcessMs += SMOOTHING * (elapsedMs - averageProcessMs);
+            }
+            return null;
+        }
+
+        @Override
+        public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight,
+                                float scaleBmpPxToCanvasPx, float scaleCanvasDensity, Object userContext) {
+        }
+    }
+}
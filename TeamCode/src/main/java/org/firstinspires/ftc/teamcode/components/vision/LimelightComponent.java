@@ -0,0 +1,247 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+import com.qualcomm.hardware.limelightvision.LLResult;
+import com.qualcomm.hardware.limelightvision.Limelight3A;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose3D;
+import org.firstinspires.ftc.robotcore.external.navigation.Position;
+import org.firstinspires.ftc.teamcode.components.AbstractComponent;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.imu.GoBildaPinpointComponent;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Wraps a Limelight3A and keeps its round trips off the main loop.
+ *
+ * A background thread polls getLatestResult() at the camera's frame rate, converts each new
+ * result into an immutable LimelightSnapshot and publishes it through an AtomicReference. The
+ * main loop only reads that reference. Snapshots carry the camera-reported latency and an
+ * estimated capture time, and results older than STALE_AGE_NANOS are flagged as stale and never
+ * used for pose corrections.
+ *
+ * Corrections to the Pinpoint are off by default, since they move it from its start-relative frame
+ * into the field frame. OpModes that work in field coordinates turn them on with
+ * setApplyCorrections(true).
+ */
+public class LimelightComponent extends AbstractComponent {
+    public static final String COMPONENT_NAME = "Limelight";
+
+    private static final String DEVICE_NAME = "limelight";
+    private static final int PIPELINE = 0;
+    private static final int POLL_RATE_HZ = 90;
+    // Repeated failures back off by doubling up to this, so a disconnected camera does not spin a core
+    private static final long MAX_ERROR_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private static final long STALE_AGE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final int MIN_CORRECTION_TAGS = 1;
+
+    private Limelight3A limelight;
+    private GoBildaPinpointComponent pinpoint;
+
+    // Handoff between the polling thread and the main loop
+    private final AtomicReference<LimelightSnapshot> latestSnapshot = new AtomicReference<>();
+    private Thread pollThread;
+    private volatile boolean running = false;
+    private volatile String lastPollError;
+    private double lastResultTimestamp = Double.NaN;
+
+    // Main loop state
+    private boolean applyCorrections = false;
+    private long lastAppliedCaptureTime = 0;
+    private int correctionsApplied = 0;
+
+    @Override
+    public String getName() {
+        return COMPONENT_NAME;
+    }
+
+    @Override
+    public ComponentType getType() {
+        return ComponentType.VISION;
+    }
+
+    @Override
+    public String[] getDependencies() {
+        return new String[] { GoBildaPinpointComponent.COMPONENT_NAME };
+    }
+
+    @Override
+    protected void initializeComponent() throws Exception {
+        limelight = robot.getHardwareMap().get(Limelight3A.class, DEVICE_NAME);
+        limelight.setPollRateHz(POLL_RATE_HZ);
+        limelight.pipelineSwitch(PIPELINE);
+        limelight.start();
+
+        pinpoint = robot.getComponent(GoBildaPinpointComponent.class, GoBildaPinpointComponent.COMPONENT_NAME);
+        if (pinpoint == null) {
+            telemetryManager.warning("Limelight corrections disabled - no Pinpoint component registered");
+        }
+
+        running = true;
+        pollThread = new Thread(this::runPollLoop, "LimelightPoller");
+        pollThread.setDaemon(true);
+        pollThread.start();
+    }
+
+    private void runPollLoop() {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / POLL_RATE_HZ;
+        long nextPoll = System.nanoTime();
+        long errorSleepNanos = periodNanos;
+
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                poll();
+                errorSleepNanos = periodNanos;
+
+                nextPoll += periodNanos;
+                long sleepNanos = nextPoll - System.nanoTime();
+                if (sleepNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } else {
+                    // Fell behind, do not try to catch up with a burst of polls
+                    nextPoll = System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // TelemetryManager is not thread safe so the error is reported from update()
+                lastPollError = e.getMessage();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(errorSleepNanos);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                errorSleepNanos = Math.min(MAX_ERROR_SLEEP_NANOS, errorSleepNanos * 2);
+                nextPoll = System.nanoTime();
+            }
+        }
+    }
+
+    // Runs on the polling thread
+    private void poll() {
+        LLResult result = limelight.getLatestResult();
+        long now = System.nanoTime();
+        if (result == null || result.getTimestamp() == lastResultTimestamp) {
+            return;
+        }
+        lastResultTimestamp = result.getTimestamp();
+
+        double latencyMs = result.getCaptureLatency() + result.getTargetingLatency();
+        long captureTime = now - TimeUnit.MILLISECONDS.toNanos(result.getStaleness())
+                - (long) (latencyMs * 1.0e6);
+
+        boolean valid = result.isValid();
+        Pose3D botpose = valid ? result.getBotpose() : null;
+        int tagCount = valid ? result.getBotposeTagCount() : 0;
+        boolean hasBotpose = botpose != null && tagCount > 0;
+
+        double x = 0, y = 0, heading = 0;
+        if (hasBotpose) {
+            // Limelight reports meters in field coordinates with +X forward, like Pinpoint
+            Position position = botpose.getPosition();
+            x = position.unit.toMm(position.x);
+            y = position.unit.toMm(position.y);
+            heading = botpose.getOrientation().getYaw(AngleUnit.DEGREES);
+        }
+
+        latestSnapshot.set(new LimelightSnapshot(valid,
+                valid ? result.getTx() : 0, valid ? result.getTy() : 0, valid ? result.getTa() : 0,
+                hasBotpose, x, y, heading, tagCount, latencyMs, captureTime, now));
+    }
+
+    @Override
+    public void update() {
+        if (!isOperational()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        LimelightSnapshot snapshot = latestSnapshot.get();
+        boolean stale = snapshot == null || snapshot.isStale(now, STALE_AGE_NANOS);
+
+        if (!stale && applyCorrections && pinpoint != null && snapshot.hasBotpose()
+                && snapshot.getTagCount() >= MIN_CORRECTION_TAGS
+                && snapshot.getCaptureTimeNanos() != lastAppliedCaptureTime) {
+            if (pinpoint.applyVisionCorrection(snapshot.getCaptureTimeNanos(),
+                    snapshot.getBotposeX(), snapshot.getBotposeY(), snapshot.getBotposeHeading())) {
+                correctionsApplied++;
+            }
+            lastAppliedCaptureTime = snapshot.getCaptureTimeNanos();
+        }
+
+        if (!telemetryManager.isBatchDue()) {
+            return;
+        }
+        telemetryData.clear();
+        telemetryData.put("Stale", stale);
+        if (snapshot != null) {
+            if (snapshot.isValid()) {
+                telemetryData.put("Target", String.format(Locale.US, "tx %.1f, ty %.1f, ta %.2f",
+                        snapshot.getTx(), snapshot.getTy(), snapshot.getTa()));
+            }
+            if (snapshot.hasBotpose()) {
+                telemetryData.put("Botpose", String.format(Locale.US, "X: %.1f, Y: %.1f, H: %.1f (%d tags)",
+                        snapshot.getBotposeX(), snapshot.getBotposeY(), snapshot.getBotposeHeading(),
+                        snapshot.getTagCount()));
+            }
+            telemetryData.put("Latency", String.format(Locale.US, "%.1f ms", snapshot.getLatencyMs()));
+            telemetryData.put("Staleness", String.format(Locale.US, "%.0f ms", snapshot.getStalenessMs(now)));
+        }
+        telemetryData.put("Corrections", correctionsApplied);
+        if (lastPollError != null) {
+            telemetryData.put("Last Error", lastPollError);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (pollThread != null) {
+            pollThread.interrupt();
+            pollThread = null;
+        }
+        if (limelight != null) {
+            limelight.stop();
+        }
+    }
+
+    /**
+     * @return the newest snapshot regardless of age, or null if nothing has been received
+     */
+    public LimelightSnapshot getLatestSnapshot() {
+        return latestSnapshot.get();
+    }
+
+    /**
+     * @return the newest snapshot if it is recent enough to act on, otherwise null
+     */
+    public LimelightSnapshot getFreshSnapshot() {
+        LimelightSnapshot snapshot = latestSnapshot.get();
+        if (snapshot == null || snapshot.isStale(System.nanoTime(), STALE_AGE_NANOS)) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    public void setApplyCorrections(boolean applyCorrections) {
+        this.applyCorrections = applyCorrections;
+    }
+
+    public boolean isApplyingCorrections() {
+        return applyCorrections;
+    }
+
+    public void switchPipeline(int index) {
+        if (!isOperational()) return;
+        try {
+            limelight.pipelineSwitch(index);
+            telemetryManager.info("Limelight pipeline switched to " + index);
+        } catch (Exception e) {
+            telemetryManager.error("Failed to switch Limelight pipeline: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+/**
+ * Immutable copy of one Limelight result, converted to the units the rest of the robot uses.
+ *
+ * Built on the Limelight polling thread and handed to the main loop through an AtomicReference.
+ * Positions are in mm and angles in degrees. Targeting angles (tx, ty) are relative to the
+ * crosshair of the active pipeline.
+ */
+public final class LimelightSnapshot {
+    private final boolean valid;
+    private final double tx;
+    private final double ty;
+    private final double ta;
+    private final boolean hasBotpose;
+    private final double botposeX;
+    private final double botposeY;
+    private final double botposeHeading;
+    private final int tagCount;
+    private final double latencyMs;
+    private final long captureTimeNanos;
+    private final long receivedTimeNanos;
+
+    public LimelightSnapshot(boolean valid, double tx, double ty, double ta,
+                             boolean hasBotpose, double botposeX, double botposeY, double botposeHeading,
+                             int tagCount, double latencyMs, long captureTimeNanos, long receivedTimeNanos) {
+        this.valid = valid;
+        this.tx = tx;
+        this.ty = ty;
+        this.ta = ta;
+        this.hasBotpose = hasBotpose;
+        this.botposeX = botposeX;
+        this.botposeY = botposeY;
+        this.botposeHeading = botposeHeading;
+        this.tagCount = tagCount;
+        this.latencyMs = latencyMs;
+        this.captureTimeNanos = captureTimeNanos;
+        this.receivedTimeNanos = receivedTimeNanos;
+    }
+
+    /**
+     * @return true if the pipeline found a target in this result
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    public double getTx() {
+        return tx;
+    }
+
+    public double getTy() {
+        return ty;
+    }
+
+    public double getTa() {
+        return ta;
+    }
+
+    /**
+     * @return true if the result contains a field-relative robot pose
+     */
+    public boolean hasBotpose() {
+        return hasBotpose;
+    }
+
+    public double getBotposeX() {
+        return botposeX;
+    }
+
+    public double getBotposeY() {
+        return botposeY;
+    }
+
+    public double getBotposeHeading() {
+        return botposeHeading;
+    }
+
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    /**
+     * @return capture plus targeting latency reported by the camera, in ms
+     */
+    public double getLatencyMs() {
+        return latencyMs;
+    }
+
+    /**
+     * @return estimated System.nanoTime() at which the frame was captured
+     */
+    public long getCaptureTimeNanos() {
+        return captureTimeNanos;
+    }
+
+    /**
+     * @return System.nanoTime() at which the result was polled
+     */
+    public long getReceivedTimeNanos() {
+        return receivedTimeNanos;
+    }
+
+    /**
+     * @return time since the frame was captured, in ms
+     */
+    public double getStalenessMs(long nowNanos) {
+        return (nowNanos - captureTimeNanos) / 1.0e6;
+    }
+
+    public boolean isStale(long nowNanos, long maxAgeNanos) {
+        return nowNanos - captureTimeNanos > maxAgeNanos;
+    }
+}
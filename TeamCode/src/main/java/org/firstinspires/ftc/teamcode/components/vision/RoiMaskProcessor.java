@@ -0,0 +1,136 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+import android.graphics.Canvas;
+
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+
+/**
+ * Blanks everything outside a region of interest before later processors see the frame.
+ *
+ * The AprilTagProcessor has no cropping hook, but the portal hands the same Mat to each processor
+ * in the order they were added. Adding this processor first and filling the area outside the ROI
+ * with a flat color leaves the detector nothing to segment there, which is where most of its time
+ * goes. The ROI is written by the vision thread and read on the camera thread, so it is kept in
+ * volatile primitives rather than an OpenCV Rect.
+ *
+ * The four strips around the ROI are submat headers into the frame. They are kept between frames
+ * and only recreated when their bounds change or the portal hands over a different frame buffer,
+ * so a steady ROI costs no native allocations per frame.
+ */
+public class RoiMaskProcessor implements VisionProcessor {
+    private static final Scalar FILL = new Scalar(0, 0, 0, 0);
+
+    private volatile boolean enabled = false;
+    private volatile int left, top, right, bottom;
+
+    private int frameWidth;
+    private int frameHeight;
+
+    // Camera thread only: above, below, left and right of the ROI
+    private static final int STRIPS = 4;
+    private final Mat[] strips = new Mat[STRIPS];
+    private final int[][] stripBounds = new int[STRIPS][4];
+    private long stripFrameAddr = 0;
+
+    @Override
+    public void init(int width, int height, CameraCalibration calibration) {
+        this.frameWidth = width;
+        this.frameHeight = height;
+        releaseStrips();
+        stripFrameAddr = 0;
+    }
+
+    @Override
+    public Object processFrame(Mat frame, long captureTimeNanos) {
+        if (!enabled) {
+            return null;
+        }
+
+        // The strips are views into the frame's buffer, so they are only valid for that buffer
+        if (frame.dataAddr() != stripFrameAddr) {
+            releaseStrips();
+            stripFrameAddr = frame.dataAddr();
+        }
+
+        // A concurrent setRegion() can mix edges of two ROIs for one frame, which is harmless
+        int l = clamp(left, 0, frame.cols());
+        int t = clamp(top, 0, frame.rows());
+        int r = clamp(right, l, frame.cols());
+        int b = clamp(bottom, t, frame.rows());
+
+        fill(frame, 0, 0, t, 0, frame.cols());
+        fill(frame, 1, b, frame.rows(), 0, frame.cols());
+        fill(frame, 2, t, b, 0, l);
+        fill(frame, 3, t, b, r, frame.cols());
+        return null;
+    }
+
+    private void fill(Mat frame, int strip, int rowStart, int rowEnd, int colStart, int colEnd) {
+        if (rowEnd <= rowStart || colEnd <= colStart) {
+            return;
+        }
+        int[] bounds = stripBounds[strip];
+        if (strips[strip] == null || bounds[0] != rowStart || bounds[1] != rowEnd
+                || bounds[2] != colStart || bounds[3] != colEnd) {
+            if (strips[strip] != null) {
+                strips[strip].release();
+            }
+            strips[strip] = frame.submat(rowStart, rowEnd, colStart, colEnd);
+            bounds[0] = rowStart;
+            bounds[1] = rowEnd;
+            bounds[2] = colStart;
+            bounds[3] = colEnd;
+        }
+        strips[strip].setTo(FILL);
+    }
+
+    private void releaseStrips() {
+        for (int strip = 0; strip < STRIPS; strip++) {
+            if (strips[strip] != null) {
+                strips[strip].release();
+                strips[strip] = null;
+            }
+        }
+    }
+
+    @Override
+    public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight,
+                            float scaleBmpPxToCanvasPx, float scaleCanvasDensity, Object userContext) {
+        // Nothing to draw, the blanked area is visible in the stream
+    }
+
+    /**
+     * Restrict processing to the given rectangle in image pixels. The rectangle is clamped to the
+     * frame when it is applied.
+     */
+    public void setRegion(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.enabled = true;
+    }
+
+    public void clearRegion() {
+        enabled = false;
+    }
+
+    public boolean hasRegion() {
+        return enabled;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
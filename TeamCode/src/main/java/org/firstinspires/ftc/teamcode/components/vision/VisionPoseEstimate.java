@@ -0,0 +1,75 @@
+package org.firstinspires.ftc.teamcode.components.vision;
+
+/**
+ * Immutable robot pose estimate produced by a vision pipeline.
+ *
+ * Instances are handed from the vision thread to the main loop through an AtomicReference, so
+ * every field is final and the main loop never sees a partially written estimate. Positions are
+ * in mm and heading in degrees using the same convention as GoBildaPinpointComponent.
+ */
+public final class VisionPoseEstimate {
+    private final double xMM;
+    private final double yMM;
+    private final double headingDegrees;
+    private final long captureTimeNanos;
+    private final double decisionMargin;
+    private final int tagId;
+    private final int tagCount;
+
+    public VisionPoseEstimate(double xMM, double yMM, double headingDegrees,
+                              long captureTimeNanos, double decisionMargin,
+                              int tagId, int tagCount) {
+        this.xMM = xMM;
+        this.yMM = yMM;
+        this.headingDegrees = headingDegrees;
+        this.captureTimeNanos = captureTimeNanos;
+        this.decisionMargin = decisionMargin;
+        this.tagId = tagId;
+        this.tagCount = tagCount;
+    }
+
+    public double getX() {
+        return xMM;
+    }
+
+    public double getY() {
+        return yMM;
+    }
+
+    public double getHeading() {
+        return headingDegrees;
+    }
+
+    /**
+     * @return System.nanoTime() at which the camera frame was acquired
+     */
+    public long getCaptureTimeNanos() {
+        return captureTimeNanos;
+    }
+
+    public double getDecisionMargin() {
+        return decisionMargin;
+    }
+
+    /**
+     * @return id of the tag the estimate was solved from
+     */
+    public int getTagId() {
+        return tagId;
+    }
+
+    /**
+     * @return number of usable tags that were visible in the frame
+     */
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    public long getAgeNanos(long nowNanos) {
+        return nowNanos - captureTimeNanos;
+    }
+
+    public boolean isStale(long nowNanos, long maxAgeNanos) {
+        return getAgeNanos(nowNanos) > maxAgeNanos;
+    }
+}
@@ -0,0 +1,186 @@
+package org.firstinspires.ftc.teamcode.config;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Loads the robot config file from Control Hub storage and watches it for edits.
+ *
+ * The file is parsed once at startup. After start() a background thread checks its modification
+ * time every POLL_INTERVAL_MS and parses it again when it changes. A parsed config is only handed
+ * over through takePendingConfig(), which the robot calls between loops, so a new set of values is
+ * applied all at once and never in the middle of a loop. If the file does not exist a copy of the
+ * defaults is written so there is something to edit.
+ */
+public class ConfigManager {
+    public static final String DEFAULT_FILE_NAME = "robot.properties";
+
+    private static final long POLL_INTERVAL_MS = 500;
+
+    private final File file;
+    private volatile RobotConfig current;
+    private final AtomicReference<RobotConfig> pending = new AtomicReference<>();
+
+    private Thread watchThread;
+    private volatile boolean running = false;
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+    private long lastModified = 0;
+    private long lastLength = -1;
+
+    public ConfigManager() {
+        this(new File(AppUtil.FIRST_FOLDER, DEFAULT_FILE_NAME));
+    }
+
+    public ConfigManager(File file) {
+        this.file = file;
+        this.current = RobotConfig.defaults();
+    }
+
+    /**
+     * Read the file, writing the defaults first if it does not exist.
+     *
+     * @return the loaded config, or the defaults if the file could not be read
+     */
+    public RobotConfig load() {
+        try {
+            if (!file.exists()) {
+                writeDefaults();
+            }
+            lastModified = file.lastModified();
+            lastLength = file.length();
+            current = read();
+        } catch (IOException e) {
+            lastError.set("Could not read " + file + ": " + e.getMessage());
+        }
+        return current;
+    }
+
+    /**
+     * Start watching the file for changes.
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        watchThread = new Thread(this::runWatchLoop, "ConfigWatcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+    }
+
+    private void runWatchLoop() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+
+                long modified = file.lastModified();
+                long length = file.length();
+                if (modified == 0 || (modified == lastModified && length == lastLength)) {
+                    continue;
+                }
+                lastModified = modified;
+                lastLength = length;
+
+                // A newer edit replaces one that has not been applied yet
+                pending.set(read());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Logging can redraw the Driver Station from the loop's batch, so the robot reports it
+                lastError.set("Could not reload " + file.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private RobotConfig read() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        return RobotConfig.parse(properties);
+    }
+
+    /**
+     * Write values into the config file, keeping every other key in it. The file is replaced in
+     * one rename so the watcher never reads a half written file, and the watcher then applies the
+     * new values like any other edit. Comments in the file are not kept.
+     */
+    public synchronized void save(Properties updates) throws IOException {
+        Properties properties = new Properties();
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            }
+        } else {
+            properties = RobotConfig.defaults().toProperties();
+        }
+        properties.putAll(updates);
+
+        File folder = file.getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+        File temp = new File(folder, file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            properties.store(out, "Robot settings, edits are applied while the robot runs");
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    private void writeDefaults() throws IOException {
+        File folder = file.getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            RobotConfig.defaults().toProperties().store(out, "Robot settings, edits are applied while the robot runs");
+        }
+    }
+
+    /**
+     * Called by the robot between loops.
+     *
+     * @return a config loaded since the last call, or null if the file has not changed
+     */
+    public RobotConfig takePendingConfig() {
+        RobotConfig config = pending.getAndSet(null);
+        if (config != null) {
+            current = config;
+        }
+        return config;
+    }
+
+    public RobotConfig getConfig() {
+        return current;
+    }
+
+    /**
+     * @return the last load error, cleared once read
+     */
+    public String takeLastError() {
+        return lastError.getAndSet(null);
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,11 @@
+package org.firstinspires.ftc.teamcode.config;
+
+/**
+ * Implemented by components and systems that take settings from the robot config.
+ *
+ * applyConfig() is called on the main thread between loops whenever a new config is loaded, so
+ * implementations can copy values into their own fields without any locking.
+ */
+public interface Configurable {
+    void applyConfig(RobotConfig config);
+}
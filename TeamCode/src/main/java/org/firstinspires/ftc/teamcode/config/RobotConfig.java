@@ -0,0 +1,395 @@
+package org.firstinspires.ftc.teamcode.config;
+
+import org.firstinspires.ftc.teamcode.drivers.GoBildaPinpointDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Immutable snapshot of the tunable robot settings.
+ *
+ * Values are parsed once from a properties file into final primitive fields, so reading them from
+ * the loop is a plain field access. A key that is missing keeps its default, and a key that cannot
+ * be parsed keeps its default and is reported through getErrors(). Distances are in mm and angles
+ * in degrees.
+ */
+public final class RobotConfig {
+    // Pinpoint odometry
+    public static final String PINPOINT_X_OFFSET = "pinpoint.xOffsetMm";
+    public static final String PINPOINT_Y_OFFSET = "pinpoint.yOffsetMm";
+    public static final String PINPOINT_POD_TYPE = "pinpoint.podType";
+    public static final String PINPOINT_TICKS_PER_MM = "pinpoint.ticksPerMm";
+    public static final String PINPOINT_YAW_SCALAR = "pinpoint.yawScalar";
+
+    // SparkFun OTOS mounting offset from the robot centre and calibration scalars
+    public static final String OTOS_X_OFFSET = "otos.xOffsetMm";
+    public static final String OTOS_Y_OFFSET = "otos.yOffsetMm";
+    public static final String OTOS_HEADING_OFFSET = "otos.headingOffset";
+    public static final String OTOS_LINEAR_SCALAR = "otos.linearScalar";
+    public static final String OTOS_ANGULAR_SCALAR = "otos.angularScalar";
+
+    // Drive encoder dead reckoning, centre to centre wheel spacing
+    public static final String ENCODER_TRACK_WIDTH_MM = "encoderLocalizer.trackWidthMm";
+    public static final String ENCODER_WHEEL_BASE_MM = "encoderLocalizer.wheelBaseMm";
+
+    // Drive motor names in the hardware map
+    public static final String DRIVE_FRONT_LEFT = "drive.frontLeft";
+    public static final String DRIVE_FRONT_RIGHT = "drive.frontRight";
+    public static final String DRIVE_BACK_LEFT = "drive.backLeft";
+    public static final String DRIVE_BACK_RIGHT = "drive.backRight";
+
+    // Scale drive output to behave as it would at the nominal battery voltage. Only applies to
+    // motors in RUN_WITHOUT_ENCODER, the velocity PID already compensates in RUN_USING_ENCODER
+    public static final String DRIVE_VOLTAGE_COMPENSATION = "drive.voltageCompensation";
+    public static final String DRIVE_NOMINAL_VOLTAGE = "drive.nominalVoltage";
+
+    // Drive input shaping, deadband and expo only apply to gamepad input
+    public static final String DRIVE_DEADBAND = "drive.deadband";
+    public static final String DRIVE_EXPO = "drive.expo";
+    public static final String DRIVE_SLEW_RATE = "drive.slewRate";
+    public static final String DRIVE_SCALE_FRONT_LEFT = "drive.scale.frontLeft";
+    public static final String DRIVE_SCALE_BACK_LEFT = "drive.scale.backLeft";
+    public static final String DRIVE_SCALE_FRONT_RIGHT = "drive.scale.frontRight";
+    public static final String DRIVE_SCALE_BACK_RIGHT = "drive.scale.backRight";
+
+    // Drive feedforward per axis, written by the characterization OpMode. Velocities are in wheel
+    // encoder counts per second, 0 means the axis has not been characterized
+    public static final String DRIVE_FORWARD_KS = "drive.ff.forward.kS";
+    public static final String DRIVE_FORWARD_KV = "drive.ff.forward.kV";
+    public static final String DRIVE_FORWARD_KA = "drive.ff.forward.kA";
+    public static final String DRIVE_STRAFE_KS = "drive.ff.strafe.kS";
+    public static final String DRIVE_STRAFE_KV = "drive.ff.strafe.kV";
+    public static final String DRIVE_STRAFE_KA = "drive.ff.strafe.kA";
+    public static final String DRIVE_ROTATE_KS = "drive.ff.rotate.kS";
+    public static final String DRIVE_ROTATE_KV = "drive.ff.rotate.kV";
+    public static final String DRIVE_ROTATE_KA = "drive.ff.rotate.kA";
+
+    // Drive motor stall and overcurrent detection
+    public static final String MOTOR_STALL_AMPS = "motorHealth.stallAmps";
+    public static final String MOTOR_STALL_MAX_VELOCITY = "motorHealth.stallMaxVelocity";
+    public static final String MOTOR_STALL_MIN_POWER = "motorHealth.stallMinPower";
+    public static final String MOTOR_OVERCURRENT_AMPS = "motorHealth.overcurrentAmps";
+
+    // SULU navigation
+    public static final String SULU_POSITION_THRESHOLD = "sulu.positionThreshold";
+    public static final String SULU_HEADING_THRESHOLD = "sulu.headingThreshold";
+    public static final String SULU_ROTATION_GAIN = "sulu.rotationGain";
+    public static final String SULU_DRIVE_GAIN = "sulu.driveGain";
+
+    // Path planning, the planner is built at startup so changes need a restart
+    public static final String PLANNER_ROBOT_RADIUS_MM = "planner.robotRadiusMm";
+    public static final String PLANNER_CELL_MM = "planner.cellMm";
+
+    // Largest distance a taught path may stray from the driven track, in mm
+    public static final String TEACH_TOLERANCE_MM = "teach.toleranceMm";
+
+    // Loop period above which the robot starts shedding load
+    public static final String LOOP_BUDGET_MS = "loop.budgetMs";
+    // Time per loop for component and system updates, lower priority work waits when it is spent
+    public static final String LOOP_UPDATE_BUDGET_MS = "loop.updateBudgetMs";
+
+    // UDP telemetry stream, off when the host is empty
+    public static final String TELEMETRY_UDP_HOST = "telemetry.udpHost";
+    public static final String TELEMETRY_UDP_PORT = "telemetry.udpPort";
+    public static final String TELEMETRY_UDP_LOOPS_PER_PACKET = "telemetry.udpLoopsPerPacket";
+
+    private static final RobotConfig DEFAULTS = new RobotConfig(new Properties());
+
+    // https://www.gobilda.com/content/user_manuals/3110-0002-0001%20User%20Guide.pdf
+    // the X/forward pod is -4 inches (-101.6mm) off center (to the right of center which makes it negative)
+    // the Y pod offset is -6 3/4 inches (-171.45)off the center point (below the center)
+    public final double pinpointXOffset;
+    public final double pinpointYOffset;
+    public final GoBildaPinpointDriver.GoBildaOdometryPods pinpointPodType;
+    // Custom pod resolution, used instead of the pod type when greater than zero
+    public final double pinpointTicksPerMm;
+    // Gyro scale, 0 keeps the device's factory calibration
+    public final double pinpointYawScalar;
+
+    public final double otosXOffset;
+    public final double otosYOffset;
+    public final double otosHeadingOffset;
+    // The sensor only accepts scalars within 12.7% of one
+    public final double otosLinearScalar;
+    public final double otosAngularScalar;
+
+    public final double encoderTrackWidthMm;
+    public final double encoderWheelBaseMm;
+
+    public final String frontLeftMotor;
+    public final String frontRightMotor;
+    public final String backLeftMotor;
+    public final String backRightMotor;
+    public final boolean driveVoltageCompensation;
+    public final double driveNominalVoltage;
+    public final double driveDeadband;
+    public final double driveExpo;
+    // Largest change of a drive axis per second, 0 for no limit
+    public final double driveSlewRate;
+    public final double driveScaleFrontLeft;
+    public final double driveScaleBackLeft;
+    public final double driveScaleFrontRight;
+    public final double driveScaleBackRight;
+    public final double driveForwardKs;
+    public final double driveForwardKv;
+    public final double driveForwardKa;
+    public final double driveStrafeKs;
+    public final double driveStrafeKv;
+    public final double driveStrafeKa;
+    public final double driveRotateKs;
+    public final double driveRotateKv;
+    public final double driveRotateKa;
+
+    // goBILDA 5203 motors stall at about 9.2 A. Velocity is in encoder ticks per second
+    public final double motorStallAmps;
+    public final double motorStallMaxVelocity;
+    public final double motorStallMinPower;
+    public final double motorOvercurrentAmps;
+
+    public final double suluPositionThreshold;
+    public final double suluHeadingThreshold;
+    public final double suluRotationGain;
+    public final double suluDriveGain;
+
+    // Smallest distance the robot's centre keeps from obstacles and walls
+    public final double plannerRobotRadiusMm;
+    public final double plannerCellMm;
+
+    public final double teachToleranceMm;
+
+    public final double loopBudgetMs;
+    public final double loopUpdateBudgetMs;
+
+    public final String telemetryUdpHost;
+    public final int telemetryUdpPort;
+    public final int telemetryUdpLoopsPerPacket;
+
+    private final List<String> errors;
+
+    private RobotConfig(Properties properties) {
+        List<String> problems = new ArrayList<>();
+        Parser parser = new Parser(properties, problems);
+
+        pinpointXOffset = parser.getDouble(PINPOINT_X_OFFSET, -101.6);
+        pinpointYOffset = parser.getDouble(PINPOINT_Y_OFFSET, -171.45);
+        pinpointPodType = parser.getEnum(PINPOINT_POD_TYPE, GoBildaPinpointDriver.GoBildaOdometryPods.class,
+                GoBildaPinpointDriver.GoBildaOdometryPods.goBILDA_SWINGARM_POD);
+        pinpointTicksPerMm = parser.getDouble(PINPOINT_TICKS_PER_MM, 0.0);
+        pinpointYawScalar = parser.getDouble(PINPOINT_YAW_SCALAR, 0.0);
+
+        otosXOffset = parser.getDouble(OTOS_X_OFFSET, 0.0);
+        otosYOffset = parser.getDouble(OTOS_Y_OFFSET, 0.0);
+        otosHeadingOffset = parser.getDouble(OTOS_HEADING_OFFSET, 0.0);
+        otosLinearScalar = clamp(parser.getDouble(OTOS_LINEAR_SCALAR, 1.0), 0.873, 1.127);
+        otosAngularScalar = clamp(parser.getDouble(OTOS_ANGULAR_SCALAR, 1.0), 0.873, 1.127);
+
+        encoderTrackWidthMm = Math.max(10.0, parser.getDouble(ENCODER_TRACK_WIDTH_MM, 360.0));
+        encoderWheelBaseMm = Math.max(10.0, parser.getDouble(ENCODER_WHEEL_BASE_MM, 300.0));
+
+        frontLeftMotor = parser.getString(DRIVE_FRONT_LEFT, "motor_front_left");
+        frontRightMotor = parser.getString(DRIVE_FRONT_RIGHT, "motor_front_right");
+        backLeftMotor = parser.getString(DRIVE_BACK_LEFT, "motor_back_left");
+        backRightMotor = parser.getString(DRIVE_BACK_RIGHT, "motor_back_right");
+        driveVoltageCompensation = parser.getBoolean(DRIVE_VOLTAGE_COMPENSATION, true);
+        // Zero would stop the motors and divide by zero in voltage control
+        driveNominalVoltage = clamp(parser.getDouble(DRIVE_NOMINAL_VOLTAGE, 12.0), 6.0, 16.0);
+        driveDeadband = parser.getDouble(DRIVE_DEADBAND, 0.05);
+        driveExpo = parser.getDouble(DRIVE_EXPO, 0.0);
+        driveSlewRate = parser.getDouble(DRIVE_SLEW_RATE, 0.0);
+        driveScaleFrontLeft = parser.getDouble(DRIVE_SCALE_FRONT_LEFT, 1.0);
+        driveScaleBackLeft = parser.getDouble(DRIVE_SCALE_BACK_LEFT, 1.0);
+        driveScaleFrontRight = parser.getDouble(DRIVE_SCALE_FRONT_RIGHT, 1.0);
+        driveScaleBackRight = parser.getDouble(DRIVE_SCALE_BACK_RIGHT, 1.0);
+        driveForwardKs = parser.getDouble(DRIVE_FORWARD_KS, 0.0);
+        driveForwardKv = parser.getDouble(DRIVE_FORWARD_KV, 0.0);
+        driveForwardKa = parser.getDouble(DRIVE_FORWARD_KA, 0.0);
+        driveStrafeKs = parser.getDouble(DRIVE_STRAFE_KS, 0.0);
+        driveStrafeKv = parser.getDouble(DRIVE_STRAFE_KV, 0.0);
+        driveStrafeKa = parser.getDouble(DRIVE_STRAFE_KA, 0.0);
+        driveRotateKs = parser.getDouble(DRIVE_ROTATE_KS, 0.0);
+        driveRotateKv = parser.getDouble(DRIVE_ROTATE_KV, 0.0);
+        driveRotateKa = parser.getDouble(DRIVE_ROTATE_KA, 0.0);
+
+        motorStallAmps = Math.max(0.5, parser.getDouble(MOTOR_STALL_AMPS, 5.0));
+        motorStallMaxVelocity = Math.max(0.0, parser.getDouble(MOTOR_STALL_MAX_VELOCITY, 50.0));
+        motorStallMinPower = clamp(parser.getDouble(MOTOR_STALL_MIN_POWER, 0.3), 0.0, 1.0);
+        motorOvercurrentAmps = Math.max(0.5, parser.getDouble(MOTOR_OVERCURRENT_AMPS, 7.0));
+
+        suluPositionThreshold = parser.getDouble(SULU_POSITION_THRESHOLD, 0.1);
+        suluHeadingThreshold = parser.getDouble(SULU_HEADING_THRESHOLD, 1.0);
+        suluRotationGain = parser.getDouble(SULU_ROTATION_GAIN, 0.01);
+        suluDriveGain = parser.getDouble(SULU_DRIVE_GAIN, 0.05);
+
+        plannerRobotRadiusMm = parser.getDouble(PLANNER_ROBOT_RADIUS_MM, 230.0);
+        plannerCellMm = Math.max(10.0, parser.getDouble(PLANNER_CELL_MM, 50.0));
+
+        teachToleranceMm = Math.max(1.0, parser.getDouble(TEACH_TOLERANCE_MM, 25.0));
+
+        loopBudgetMs = parser.getDouble(LOOP_BUDGET_MS, 25.0);
+        loopUpdateBudgetMs = parser.getDouble(LOOP_UPDATE_BUDGET_MS, 15.0);
+
+        telemetryUdpHost = parser.getString(TELEMETRY_UDP_HOST, "");
+        telemetryUdpPort = parser.getInt(TELEMETRY_UDP_PORT, 5805);
+        telemetryUdpLoopsPerPacket = Math.max(1, parser.getInt(TELEMETRY_UDP_LOOPS_PER_PACKET, 1));
+
+        errors = Collections.unmodifiableList(problems);
+    }
+
+    public static RobotConfig defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Parse a config, taking any missing or invalid keys from the defaults.
+     */
+    public static RobotConfig parse(Properties properties) {
+        return new RobotConfig(properties);
+    }
+
+    /**
+     * @return one message per key that could not be parsed
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return these settings as properties, for writing a starting config file
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(PINPOINT_X_OFFSET, Double.toString(pinpointXOffset));
+        properties.setProperty(PINPOINT_Y_OFFSET, Double.toString(pinpointYOffset));
+        properties.setProperty(PINPOINT_POD_TYPE, pinpointPodType.name());
+        properties.setProperty(PINPOINT_TICKS_PER_MM, Double.toString(pinpointTicksPerMm));
+        properties.setProperty(PINPOINT_YAW_SCALAR, Double.toString(pinpointYawScalar));
+        properties.setProperty(OTOS_X_OFFSET, Double.toString(otosXOffset));
+        properties.setProperty(OTOS_Y_OFFSET, Double.toString(otosYOffset));
+        properties.setProperty(OTOS_HEADING_OFFSET, Double.toString(otosHeadingOffset));
+        properties.setProperty(OTOS_LINEAR_SCALAR, Double.toString(otosLinearScalar));
+        properties.setProperty(OTOS_ANGULAR_SCALAR, Double.toString(otosAngularScalar));
+        properties.setProperty(ENCODER_TRACK_WIDTH_MM, Double.toString(encoderTrackWidthMm));
+        properties.setProperty(ENCODER_WHEEL_BASE_MM, Double.toString(encoderWheelBaseMm));
+        properties.setProperty(DRIVE_FRONT_LEFT, frontLeftMotor);
+        properties.setProperty(DRIVE_FRONT_RIGHT, frontRightMotor);
+        properties.setProperty(DRIVE_BACK_LEFT, backLeftMotor);
+        properties.setProperty(DRIVE_BACK_RIGHT, backRightMotor);
+        properties.setProperty(DRIVE_VOLTAGE_COMPENSATION, Boolean.toString(driveVoltageCompensation));
+        properties.setProperty(DRIVE_NOMINAL_VOLTAGE, Double.toString(driveNominalVoltage));
+        properties.setProperty(DRIVE_DEADBAND, Double.toString(driveDeadband));
+        properties.setProperty(DRIVE_EXPO, Double.toString(driveExpo));
+        properties.setProperty(DRIVE_SLEW_RATE, Double.toString(driveSlewRate));
+        properties.setProperty(DRIVE_SCALE_FRONT_LEFT, Double.toString(driveScaleFrontLeft));
+        properties.setProperty(DRIVE_SCALE_BACK_LEFT, Double.toString(driveScaleBackLeft));
+        properties.setProperty(DRIVE_SCALE_FRONT_RIGHT, Double.toString(driveScaleFrontRight));
+        properties.setProperty(DRIVE_SCALE_BACK_RIGHT, Double.toString(driveScaleBackRight));
+        properties.setProperty(DRIVE_FORWARD_KS, Double.toString(driveForwardKs));
+        properties.setProperty(DRIVE_FORWARD_KV, Double.toString(driveForwardKv));
+        properties.setProperty(DRIVE_FORWARD_KA, Double.toString(driveForwardKa));
+        properties.setProperty(DRIVE_STRAFE_KS, Double.toString(driveStrafeKs));
+        properties.setProperty(DRIVE_STRAFE_KV, Double.toString(driveStrafeKv));
+        properties.setProperty(DRIVE_STRAFE_KA, Double.toString(driveStrafeKa));
+        properties.setProperty(DRIVE_ROTATE_KS, Double.toString(driveRotateKs));
+        properties.setProperty(DRIVE_ROTATE_KV, Double.toString(driveRotateKv));
+        properties.setProperty(DRIVE_ROTATE_KA, Double.toString(driveRotateKa));
+        properties.setProperty(MOTOR_STALL_AMPS, Double.toString(motorStallAmps));
+        properties.setProperty(MOTOR_STALL_MAX_VELOCITY, Double.toString(motorStallMaxVelocity));
+        properties.setProperty(MOTOR_STALL_MIN_POWER, Double.toString(motorStallMinPower));
+        properties.setProperty(MOTOR_OVERCURRENT_AMPS, Double.toString(motorOvercurrentAmps));
+        properties.setProperty(SULU_POSITION_THRESHOLD, Double.toString(suluPositionThreshold));
+        properties.setProperty(SULU_HEADING_THRESHOLD, Double.toString(suluHeadingThreshold));
+        properties.setProperty(SULU_ROTATION_GAIN, Double.toString(suluRotationGain));
+        properties.setProperty(SULU_DRIVE_GAIN, Double.toString(suluDriveGain));
+        properties.setProperty(PLANNER_ROBOT_RADIUS_MM, Double.toString(plannerRobotRadiusMm));
+        properties.setProperty(PLANNER_CELL_MM, Double.toString(plannerCellMm));
+        properties.setProperty(TEACH_TOLERANCE_MM, Double.toString(teachToleranceMm));
+        properties.setProperty(LOOP_BUDGET_MS, Double.toString(loopBudgetMs));
+        properties.setProperty(LOOP_UPDATE_BUDGET_MS, Double.toString(loopUpdateBudgetMs));
+        properties.setProperty(TELEMETRY_UDP_HOST, telemetryUdpHost);
+        properties.setProperty(TELEMETRY_UDP_PORT, Integer.toString(telemetryUdpPort));
+        properties.setProperty(TELEMETRY_UDP_LOOPS_PER_PACKET, Integer.toString(telemetryUdpLoopsPerPacket));
+        return properties;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    // Reads typed values and records anything that does not parse
+    private static final class Parser {
+        private final Properties properties;
+        private final List<String> problems;
+
+        Parser(Properties properties, List<String> problems) {
+            this.properties = properties;
+            this.problems = problems;
+        }
+
+        double getDouble(String key, double fallback) {
+            String value = properties.getProperty(key);
+            if (value == null) {
+                return fallback;
+            }
+            try {
+                double parsed = Double.parseDouble(value.trim());
+                if (Double.isNaN(parsed) || Double.isInfinite(parsed)) {
+                    throw new NumberFormatException("not a finite number");
+                }
+                return parsed;
+            } catch (NumberFormatException e) {
+                problems.add(String.format(Locale.US, "%s=%s is not a number", key, value));
+                return fallback;
+            }
+        }
+
+        int getInt(String key, int fallback) {
+            String value = properties.getProperty(key);
+            if (value == null) {
+                return fallback;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                problems.add(String.format(Locale.US, "%s=%s is not a whole number", key, value));
+                return fallback;
+            }
+        }
+
+        boolean getBoolean(String key, boolean fallback) {
+            String value = properties.getProperty(key);
+            if (value == null) {
+                return fallback;
+            }
+            String trimmed = value.trim();
+            if (trimmed.equalsIgnoreCase("true")) {
+                return true;
+            }
+            if (trimmed.equalsIgnoreCase("false")) {
+                return false;
+            }
+            problems.add(String.format(Locale.US, "%s=%s is not true or false", key, value));
+            return fallback;
+        }
+
+        String getString(String key, String fallback) {
+            String value = properties.getProperty(key);
+            return value == null || value.trim().isEmpty() ? fallback : value.trim();
+        }
+
+        <T extends Enum<T>> T getEnum(String key, Class<T> type, T fallback) {
+            String value = properties.getProperty(key);
+            if (value == null) {
+                return fallback;
+            }
+            try {
+                return Enum.valueOf(type, value.trim());
+            } catch (IllegalArgumentException e) {
+                problems.add(String.format(Locale.US, "%s=%s is not a %s", key, value, type.getSimpleName()));
+                return fallback;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.firstinspires.ftc.teamcode.dashboard;
+
+import org.firstinspires.ftc.teamcode.TelemetryChannels;
+
+/**
+ * Runs the dashboard on a PC with a simulated robot driving a figure eight, for working on the
+ * page without a robot. Start it from the IDE and open http://localhost:8099/.
+ */
+public class DashboardDemo {
+    private static final long LOOP_MS = 10;
+
+    public static void main(String[] args) throws Exception {
+        TelemetryChannels channels = new TelemetryChannels();
+        int poseX = channels.register("pose.x");
+        int poseY = channels.register("pose.y");
+        int poseHeading = channels.register("pose.heading");
+        int loopMs = channels.register("loop.ms");
+
+        DashboardServer server = new DashboardServer(channels);
+        final double[] speed = { 0.5 };
+        server.getTunables().register("demo.speed", () -> speed[0], value -> speed[0] = value);
+        server.start();
+        System.out.println("Dashboard running on http://localhost:" + server.getPort() + "/");
+
+        double t = 0;
+        long last = System.nanoTime();
+        while (true) {
+            long now = System.nanoTime();
+            double dt = (now - last) / 1.0e9;
+            last = now;
+            t += dt * speed[0];
+
+            server.getTunables().applyPending();
+            double x = 1000.0 * Math.sin(t);
+            double y = 600.0 * Math.sin(2.0 * t);
+            double heading = Math.toDegrees(Math.atan2(1200.0 * Math.cos(2.0 * t), 1000.0 * Math.cos(t)));
+            channels.set(poseX, x);
+            channels.set(poseY, y);
+            channels.set(poseHeading, heading);
+            channels.set(loopMs, dt * 1000.0);
+            server.publish();
+
+            Thread.sleep(LOOP_MS);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.firstinspires.ftc.teamcode.dashboard;
+
+/**
+ * The single page served by DashboardServer. Kept inline so the server needs no asset files.
+ *
+ * The page draws the robot on a 12 ft field from the pose.x, pose.y and pose.heading channels
+ * (x forward and up the screen, y to the left, heading counter-clockwise), plots any channel
+ * ticked in the table, and sends "set name value" when a tunable is edited.
+ */
+final class DashboardPage {
+    private DashboardPage() {
+    }
+
+    static final String HTML = ""
+            + "<!DOCTYPE html>\n"
+            + "<html><head><meta charset=\"utf-8\"><title>BIGAfro Dashboard</title>\n"
+            + "<style>\n"
+            + "body{font-family:sans-serif;background:#111;color:#ddd;margin:8px}\n"
+            + "#top{display:flex;gap:12px;flex-wrap:wrap}\n"
+            + "canvas{background:#222;border:1px solid #444}\n"
+            + "table{border-collapse:collapse;font-size:13px}\n"
+            + "td{padding:2px 6px;border-bottom:1px solid #333}\n"
+            + "td.v{text-align:right;font-family:monospace;min-width:80px}\n"
+            + "input[type=number]{width:90px;background:#222;color:#ddd;border:1px solid #555}\n"
+            + "#status{margin-bottom:6px}\n"
+            + "</style></head><body>\n"
+            + "<div id=\"status\">Connecting...</div>\n"
+            + "<div id=\"top\">\n"
+            + "<canvas id=\"field\" width=\"480\" height=\"480\"></canvas>\n"
+            + "<div><table id=\"channels\"></table></div>\n"
+            + "<div><table id=\"tunables\"></table></div>\n"
+            + "</div>\n"
+            + "<canvas id=\"plot\" width=\"960\" height=\"240\"></canvas>\n"
+            + "<script>\n"
+            + "var FIELD_MM=3658,ROBOT_MM=457,HISTORY=500,TRAIL=300;\n"
+            + "var names=[],tunables=[],plotted={},history=[],trail=[],values=[],ws;\n"
+            + "var colors=['#4cf','#fc4','#f6a','#6f6','#c8f','#f84','#8ff','#ff8'];\n"
+            + "function idx(n){return names.indexOf(n);}\n"
+            + "function fmt(v){return v===null?'-':(Math.abs(v)>=1000?v.toFixed(0):v.toFixed(3));}\n"
+            + "function schema(m){\n"
+            + " names=m.channels;tunables=m.tunables;history=[];\n"
+            + " var t=document.getElementById('channels');t.innerHTML='';\n"
+            + " names.forEach(function(n,i){var r=t.insertRow();\n"
+            + "  var c=document.createElement('input');c.type='checkbox';c.checked=!!plotted[n];\n"
+            + "  c.onchange=function(){plotted[n]=c.checked;};\n"
+            + "  r.insertCell().appendChild(c);r.insertCell().textContent=n;\n"
+            + "  var v=r.insertCell();v.className='v';v.id='c'+i;});\n"
+            + " var u=document.getElementById('tunables');u.innerHTML='';\n"
+            + " tunables.forEach(function(n,i){var r=u.insertRow();r.insertCell().textContent=n;\n"
+            + "  var v=r.insertCell();v.className='v';v.id='p'+i;\n"
+            + "  var e=document.createElement('input');e.type='number';e.step='any';\n"
+            + "  e.onkeydown=function(k){if(k.key==='Enter'&&e.value!==''){ws.send('set '+n+' '+e.value);e.value='';}};\n"
+            + "  r.insertCell().appendChild(e);});\n"
+            + "}\n"
+            + "function frame(m){\n"
+            + " values=m.v;history.push(m.v);if(history.length>HISTORY)history.shift();\n"
+            + " m.v.forEach(function(v,i){var c=document.getElementById('c'+i);if(c)c.textContent=fmt(v);});\n"
+            + " m.p.forEach(function(v,i){var c=document.getElementById('p'+i);if(c)c.textContent=fmt(v);});\n"
+            + " var x=idx('pose.x'),y=idx('pose.y');\n"
+            + " if(x>=0&&y>=0&&m.v[x]!==null&&m.v[y]!==null){trail.push([m.v[x],m.v[y]]);if(trail.length>TRAIL)trail.shift();}\n"
+            + "}\n"
+            + "function drawField(){\n"
+            + " var c=document.getElementById('field'),g=c.getContext('2d'),s=c.width/FIELD_MM;\n"
+            + " g.setTransform(1,0,0,1,0,0);g.clearRect(0,0,c.width,c.height);\n"
+            + " g.strokeStyle='#333';for(var i=1;i<6;i++){var p=i*c.width/6;\n"
+            + "  g.beginPath();g.moveTo(p,0);g.lineTo(p,c.height);g.moveTo(0,p);g.lineTo(c.width,p);g.stroke();}\n"
+            + " // Field origin at the center, robot x up the screen and y to the left\n"
+            + " g.translate(c.width/2,c.height/2);g.scale(s,s);\n"
+            + " g.strokeStyle='#4cf';g.lineWidth=2/s;g.beginPath();\n"
+            + " trail.forEach(function(p,i){if(i)g.lineTo(-p[1],-p[0]);else g.moveTo(-p[1],-p[0]);});g.stroke();\n"
+            + " var x=idx('pose.x'),y=idx('pose.y'),h=idx('pose.heading');\n"
+            + " if(x<0||y<0||values[x]==null||values[y]==null)return;\n"
+            + " g.translate(-values[y],-values[x]);g.rotate(-(h>=0&&values[h]!=null?values[h]:0)*Math.PI/180);\n"
+            + " g.fillStyle='rgba(255,200,60,0.5)';g.fillRect(-ROBOT_MM/2,-ROBOT_MM/2,ROBOT_MM,ROBOT_MM);\n"
+            + " g.strokeStyle='#fc4';g.beginPath();g.moveTo(0,0);g.lineTo(0,-ROBOT_MM/2);g.stroke();\n"
+            + "}\n"
+            + "function drawPlot(){\n"
+            + " var c=document.getElementById('plot'),g=c.getContext('2d');g.clearRect(0,0,c.width,c.height);\n"
+            + " var sel=[];names.forEach(function(n,i){if(plotted[n])sel.push(i);});\n"
+            + " if(!sel.length||history.length<2)return;\n"
+            + " var lo=Infinity,hi=-Infinity;\n"
+            + " history.forEach(function(v){sel.forEach(function(i){if(v[i]!==null){lo=Math.min(lo,v[i]);hi=Math.max(hi,v[i]);}});});\n"
+            + " if(!(hi>lo)){hi=lo+1;lo-=1;}\n"
+            + " var dx=c.width/(HISTORY-1);\n"
+            + " sel.forEach(function(i,k){g.strokeStyle=colors[k%colors.length];g.beginPath();var on=false;\n"
+            + "  history.forEach(function(v,j){if(v[i]===null){on=false;return;}\n"
+            + "   var px=j*dx,py=c.height-(v[i]-lo)/(hi-lo)*(c.height-10)-5;\n"
+            + "   if(on)g.lineTo(px,py);else g.moveTo(px,py);on=true;});\n"
+            + "  g.stroke();g.fillStyle=g.strokeStyle;g.fillText(names[i],5,14+k*14);});\n"
+            + " g.fillStyle='#888';g.fillText(fmt(hi),c.width-70,12);g.fillText(fmt(lo),c.width-70,c.height-4);\n"
+            + "}\n"
+            + "function draw(){drawField();drawPlot();requestAnimationFrame(draw);}\n"
+            + "function connect(){\n"
+            + " ws=new WebSocket('ws://'+location.host+'/ws');\n"
+            + " ws.onopen=function(){document.getElementById('status').textContent='Connected';};\n"
+            + " ws.onclose=function(){document.getElementById('status').textContent='Disconnected, retrying...';setTimeout(connect,1000);};\n"
+            + " ws.onmessage=function(e){var m=JSON.parse(e.data);if(m.type==='schema')schema(m);else if(m.type==='frame')frame(m);};\n"
+            + "}\n"
+            + "connect();requestAnimationFrame(draw);\n"
+            + "</script></body></html>\n";
+}
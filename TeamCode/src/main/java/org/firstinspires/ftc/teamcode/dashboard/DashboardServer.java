@@ -0,0 +1,464 @@
+package org.firstinspires.ftc.teamcode.dashboard;
+
+import org.firstinspires.ftc.teamcode.TelemetryChannels;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves a live dashboard page and streams telemetry channels to it over a WebSocket.
+ *
+ * Open http://192.168.43.1:8099/ on a laptop connected to the Control Hub, or
+ * http://localhost:8099/ when running DashboardDemo on a PC.
+ *
+ * The main loop only calls publish(). At most PUBLISH_RATE_HZ times a second that copies the
+ * channel and tunable values into a frame taken from a small pool and hands it to the broadcast
+ * thread; when no pooled frame is free the frame is dropped, so publish() never blocks and never
+ * allocates once the pool has grown to the channel count. The broadcast thread serializes each
+ * frame once and offers it to every client's own bounded queue, dropping that client's oldest
+ * message when it is full. Each client has a writer thread, so a slow browser only delays itself.
+ * Edits to tunables arrive on the client reader threads and are applied by the main loop through
+ * Tunables.applyPending().
+ */
+public class DashboardServer {
+    public static final int DEFAULT_PORT = 8099;
+
+    private static final int PUBLISH_RATE_HZ = 50;
+    private static final long PUBLISH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / PUBLISH_RATE_HZ;
+    private static final int FRAME_POOL_SIZE = 3;
+    private static final int CLIENT_QUEUE_SIZE = 8;
+    private static final int MAX_CLIENTS = 4;
+    private static final int HTTP_TIMEOUT_MS = 5000;
+
+    private final int port;
+    private final TelemetryChannels channels;
+    private final Tunables tunables = new Tunables();
+
+    // Frames cycle from free to ready (main thread) and back to free (broadcast thread)
+    private final ArrayBlockingQueue<Frame> freeFrames = new ArrayBlockingQueue<>(FRAME_POOL_SIZE);
+    private final ArrayBlockingQueue<Frame> readyFrames = new ArrayBlockingQueue<>(FRAME_POOL_SIZE);
+    private long lastPublishNanos = 0;
+
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private ServerSocket serverSocket;
+    private Thread acceptThread;
+    private Thread broadcastThread;
+    private volatile boolean running = false;
+
+    private final AtomicInteger droppedFrames = new AtomicInteger();
+    private volatile String lastError;
+
+    private static final class Frame {
+        long timeNanos;
+        double[] values = new double[0];
+        int valueCount;
+        double[] tunableValues = new double[0];
+        int tunableCount;
+    }
+
+    public DashboardServer(TelemetryChannels channels) {
+        this(channels, DEFAULT_PORT);
+    }
+
+    public DashboardServer(TelemetryChannels channels, int port) {
+        this.channels = channels;
+        this.port = port;
+        for (int i = 0; i < FRAME_POOL_SIZE; i++) {
+            freeFrames.add(new Frame());
+        }
+    }
+
+    public void start() throws IOException {
+        if (running) {
+            return;
+        }
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+        running = true;
+
+        acceptThread = new Thread(this::runAcceptLoop, "DashboardAccept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        broadcastThread = new Thread(this::runBroadcastLoop, "DashboardBroadcast");
+        broadcastThread.setDaemon(true);
+        broadcastThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        for (Client client : clients) {
+            client.close();
+        }
+        if (broadcastThread != null) {
+            broadcastThread.interrupt();
+        }
+    }
+
+    /**
+     * Snapshot the channels for streaming. Called from the main loop, rate limited internally.
+     */
+    public void publish() {
+        long now = System.nanoTime();
+        if (!running || clients.isEmpty() || now - lastPublishNanos < PUBLISH_INTERVAL_NANOS) {
+            return;
+        }
+        lastPublishNanos = now;
+
+        Frame frame = freeFrames.poll();
+        if (frame == null) {
+            droppedFrames.incrementAndGet();
+            return;
+        }
+        frame.timeNanos = now;
+        frame.valueCount = channels.size();
+        if (frame.values.length < frame.valueCount) {
+            frame.values = new double[frame.valueCount];
+        }
+        channels.copyValues(frame.values);
+        frame.tunableCount = tunables.size();
+        if (frame.tunableValues.length < frame.tunableCount) {
+            frame.tunableValues = new double[frame.tunableCount];
+        }
+        tunables.copyValues(frame.tunableValues);
+        readyFrames.offer(frame);
+    }
+
+    private void runAcceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread handler = new Thread(() -> handleConnection(socket), "DashboardClient");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (SocketException e) {
+                // Server socket closed by stop()
+            } catch (IOException e) {
+                lastError = "Accept failed: " + e.getMessage();
+            }
+        }
+    }
+
+    private void runBroadcastLoop() {
+        StringBuilder json = new StringBuilder(1024);
+        String[] sentNames = null;
+        String[] sentTunables = null;
+
+        while (running) {
+            Frame frame;
+            try {
+                frame = readyFrames.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (frame == null) {
+                continue;
+            }
+
+            String[] names = channels.getNames();
+            String[] tunableNames = tunables.getNames();
+            if (names != sentNames || tunableNames != sentTunables) {
+                broadcast(schemaMessage(names, tunableNames));
+                sentNames = names;
+                sentTunables = tunableNames;
+            }
+
+            json.setLength(0);
+            json.append("{\"type\":\"frame\",\"t\":").append(frame.timeNanos / 1000000L).append(",\"v\":[");
+            appendValues(json, frame.values, frame.valueCount);
+            json.append("],\"p\":[");
+            appendValues(json, frame.tunableValues, frame.tunableCount);
+            json.append("]}");
+            freeFrames.offer(frame);
+
+            broadcast(json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void broadcast(byte[] message) {
+        for (Client client : clients) {
+            client.offer(message);
+        }
+    }
+
+    private static void appendValues(StringBuilder json, double[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            double value = values[i];
+            // JSON has no NaN or infinity
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                json.append("null");
+            } else {
+                json.append(value);
+            }
+        }
+    }
+
+    private static byte[] schemaMessage(String[] names, String[] tunableNames) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"type\":\"schema\",\"channels\":[");
+        appendNames(json, names);
+        json.append("],\"tunables\":[");
+        appendNames(json, tunableNames);
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendNames(StringBuilder json, String[] names) {
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"');
+            for (char c : names[i].toCharArray()) {
+                if (c == '"' || c == '\\') {
+                    json.append('\\');
+                }
+                json.append(c);
+            }
+            json.append('"');
+        }
+    }
+
+    // Runs on a per-connection thread
+    private void handleConnection(Socket socket) {
+        try {
+            socket.setSoTimeout(HTTP_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+
+            String requestLine = readLine(in);
+            Map<String, String> headers = new HashMap<>();
+            String line;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    headers.put(line.substring(0, colon).trim().toLowerCase(Locale.US), line.substring(colon + 1).trim());
+                }
+            }
+            if (requestLine == null) {
+                socket.close();
+                return;
+            }
+
+            String[] parts = requestLine.split(" ");
+            String path = parts.length > 1 ? parts[1] : "/";
+            String upgrade = headers.get("upgrade");
+
+            if (path.equals("/ws") && upgrade != null && upgrade.equalsIgnoreCase("websocket")) {
+                if (clients.size() >= MAX_CLIENTS) {
+                    writeResponse(out, "503 Service Unavailable", "text/plain", "Too many dashboard clients");
+                    socket.close();
+                    return;
+                }
+                String accept = WebSocket.acceptKey(headers.get("sec-websocket-key"));
+                out.write(("HTTP/1.1 101 Switching Protocols\r\n"
+                        + "Upgrade: websocket\r\n"
+                        + "Connection: Upgrade\r\n"
+                        + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                socket.setSoTimeout(0);
+
+                Client client = new Client(socket, out);
+                client.offer(schemaMessage(channels.getNames(), tunables.getNames()));
+                clients.add(client);
+                client.runReader(in);
+            } else if (path.equals("/") || path.startsWith("/index")) {
+                writeResponse(out, "200 OK", "text/html; charset=utf-8", DashboardPage.HTML);
+                socket.close();
+            } else {
+                writeResponse(out, "404 Not Found", "text/plain", "Not found");
+                socket.close();
+            }
+        } catch (Exception e) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already failing
+            }
+        }
+    }
+
+    private static void writeResponse(OutputStream out, String status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        out.write(("HTTP/1.1 " + status + "\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + "Content-Length: " + bytes.length + "\r\n"
+                + "Cache-Control: no-cache\r\n"
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+        out.flush();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+            if (line.size() > 8192) {
+                throw new IOException("Header line too long");
+            }
+        }
+        if (b < 0 && line.size() == 0) {
+            return null;
+        }
+        return line.toString("US-ASCII");
+    }
+
+    /**
+     * One connected browser with its own bounded outgoing queue and writer thread.
+     */
+    private final class Client {
+        private final Socket socket;
+        private final OutputStream out;
+        private final ArrayBlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(CLIENT_QUEUE_SIZE);
+        private final Thread writer;
+        private volatile boolean open = true;
+
+        Client(Socket socket, OutputStream out) {
+            this.socket = socket;
+            this.out = out;
+            this.writer = new Thread(this::runWriter, "DashboardWriter");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        void offer(byte[] message) {
+            // A client that cannot keep up loses its oldest messages, never the robot's time
+            while (!queue.offer(message)) {
+                queue.poll();
+            }
+        }
+
+        private void runWriter() {
+            try {
+                while (open) {
+                    byte[] message = queue.poll(250, TimeUnit.MILLISECONDS);
+                    if (message != null) {
+                        synchronized (out) {
+                            WebSocket.writeFrame(out, WebSocket.OPCODE_TEXT, message);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // Browser went away
+            }
+            close();
+        }
+
+        // Runs on the connection thread until the browser disconnects
+        void runReader(InputStream in) {
+            try {
+                while (open) {
+                    WebSocket.Frame frame = WebSocket.readFrame(in);
+                    switch (frame.opcode) {
+                        case WebSocket.OPCODE_TEXT:
+                            handleCommand(frame.text());
+                            break;
+                        case WebSocket.OPCODE_PING:
+                            synchronized (out) {
+                                WebSocket.writeFrame(out, WebSocket.OPCODE_PONG, frame.payload);
+                            }
+                            break;
+                        case WebSocket.OPCODE_CLOSE:
+                            synchronized (out) {
+                                WebSocket.writeFrame(out, WebSocket.OPCODE_CLOSE, new byte[0]);
+                            }
+                            close();
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            } catch (IOException e) {
+                // Browser went away
+            }
+            close();
+        }
+
+        // Commands are "set <name> <value>"
+        private void handleCommand(String command) {
+            String[] parts = command.trim().split("\\s+");
+            if (parts.length == 3 && parts[0].equals("set")) {
+                try {
+                    tunables.requestSet(parts[1], Double.parseDouble(parts[2]));
+                } catch (NumberFormatException e) {
+                    // Ignore malformed edits
+                }
+            }
+        }
+
+        void close() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            clients.remove(this);
+            writer.interrupt();
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+
+    public Tunables getTunables() {
+        return tunables;
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    public int getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return the last network error, cleared once read
+     */
+    public String takeLastError() {
+        String error = lastError;
+        lastError = null;
+        return error;
+    }
+}
@@ -0,0 +1,107 @@
+package org.firstinspires.ftc.teamcode.dashboard;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Numeric parameters that can be edited live from the dashboard.
+ *
+ * Parameters are registered on the main thread with a getter and a setter. Edits arrive on the
+ * server's network threads and are only queued there; applyPending() runs the setters on the main
+ * thread between loops, so the code that owns a parameter never sees it change mid-loop. The queue
+ * is bounded and edits beyond MAX_PENDING are refused rather than buffered.
+ */
+public class Tunables {
+    private static final int MAX_PENDING = 32;
+
+    private DoubleSupplier[] getters = new DoubleSupplier[8];
+    private DoubleConsumer[] setters = new DoubleConsumer[8];
+    private int count = 0;
+
+    // Replaced on every registration so network threads always see a complete list
+    private volatile String[] names = new String[0];
+
+    private final ArrayBlockingQueue<Edit> pending = new ArrayBlockingQueue<>(MAX_PENDING);
+
+    private static final class Edit {
+        final int id;
+        final double value;
+
+        Edit(int id, double value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Register a parameter. Must be called on the main thread.
+     *
+     * @return the parameter's id
+     */
+    public int register(String name, DoubleSupplier getter, DoubleConsumer setter) {
+        if (count == getters.length) {
+            getters = Arrays.copyOf(getters, count * 2);
+            setters = Arrays.copyOf(setters, count * 2);
+        }
+        int id = count++;
+        getters[id] = getter;
+        setters[id] = setter;
+
+        String[] updated = Arrays.copyOf(names, count);
+        updated[id] = name;
+        names = updated;
+        return id;
+    }
+
+    /**
+     * Queue an edit from any thread.
+     *
+     * @return false if the name is unknown, the value is not finite or the queue is full
+     */
+    public boolean requestSet(String name, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return false;
+        }
+        String[] current = names;
+        for (int id = 0; id < current.length; id++) {
+            if (current[id].equals(name)) {
+                return pending.offer(new Edit(id, value));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Apply queued edits. Must be called on the main thread.
+     *
+     * @return the number of edits applied
+     */
+    public int applyPending() {
+        int applied = 0;
+        Edit edit;
+        while ((edit = pending.poll()) != null) {
+            setters[edit.id].accept(edit.value);
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Copy every current value into out. Must be called on the main thread.
+     */
+    public void copyValues(double[] out) {
+        for (int id = 0; id < count; id++) {
+            out[id] = getters[id].getAsDouble();
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String[] getNames() {
+        return names;
+    }
+}
@@ -0,0 +1,150 @@
+package org.firstinspires.ftc.teamcode.dashboard;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The small part of RFC 6455 the dashboard needs: the opening handshake, unfragmented frames in
+ * both directions, and close/ping/pong. Base64 is done here because java.util.Base64 is not
+ * available at our minimum Android API level and android.util.Base64 is not available on a PC.
+ */
+final class WebSocket {
+    static final int OPCODE_TEXT = 0x1;
+    static final int OPCODE_CLOSE = 0x8;
+    static final int OPCODE_PING = 0x9;
+    static final int OPCODE_PONG = 0xA;
+
+    // Largest frame accepted from a browser, dashboard commands are a few dozen bytes
+    private static final int MAX_INCOMING_PAYLOAD = 4096;
+
+    private static final String HANDSHAKE_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final char[] BASE64 =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    /**
+     * A frame received from the client.
+     */
+    static final class Frame {
+        final int opcode;
+        final byte[] payload;
+
+        Frame(int opcode, byte[] payload) {
+            this.opcode = opcode;
+            this.payload = payload;
+        }
+
+        String text() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+    }
+
+    private WebSocket() {
+    }
+
+    /**
+     * @return the Sec-WebSocket-Accept value for a client's Sec-WebSocket-Key
+     */
+    static String acceptKey(String clientKey) throws NoSuchAlgorithmException {
+        MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+        byte[] digest = sha1.digest((clientKey.trim() + HANDSHAKE_GUID).getBytes(StandardCharsets.US_ASCII));
+        return base64(digest);
+    }
+
+    static String base64(byte[] data) {
+        StringBuilder out = new StringBuilder((data.length + 2) / 3 * 4);
+        for (int i = 0; i < data.length; i += 3) {
+            int b0 = data[i] & 0xFF;
+            int b1 = i + 1 < data.length ? data[i + 1] & 0xFF : 0;
+            int b2 = i + 2 < data.length ? data[i + 2] & 0xFF : 0;
+            out.append(BASE64[b0 >> 2]);
+            out.append(BASE64[((b0 & 0x3) << 4) | (b1 >> 4)]);
+            out.append(i + 1 < data.length ? BASE64[((b1 & 0xF) << 2) | (b2 >> 6)] : '=');
+            out.append(i + 2 < data.length ? BASE64[b2 & 0x3F] : '=');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Write one unmasked, final frame. Callers sharing a stream must synchronize on it.
+     */
+    static void writeFrame(OutputStream out, int opcode, byte[] payload) throws IOException {
+        int length = payload.length;
+        out.write(0x80 | opcode);
+        if (length < 126) {
+            out.write(length);
+        } else if (length <= 0xFFFF) {
+            out.write(126);
+            out.write(length >> 8);
+            out.write(length);
+        } else {
+            out.write(127);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) ((long) length >> shift));
+            }
+        }
+        out.write(payload);
+        out.flush();
+    }
+
+    /**
+     * Read one frame from the client. Client frames are always masked.
+     *
+     * @throws EOFException if the connection closed
+     */
+    static Frame readFrame(InputStream in) throws IOException {
+        int first = readByte(in);
+        int second = readByte(in);
+        int opcode = first & 0x0F;
+        boolean masked = (second & 0x80) != 0;
+
+        long length = second & 0x7F;
+        if (length == 126) {
+            length = (readByte(in) << 8) | readByte(in);
+        } else if (length == 127) {
+            length = 0;
+            for (int i = 0; i < 8; i++) {
+                length = (length << 8) | readByte(in);
+            }
+        }
+        if (length > MAX_INCOMING_PAYLOAD) {
+            throw new IOException("Frame too large: " + length);
+        }
+
+        byte[] mask = new byte[4];
+        if (masked) {
+            readFully(in, mask);
+        }
+        byte[] payload = new byte[(int) length];
+        readFully(in, payload);
+        if (masked) {
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= mask[i & 3];
+            }
+        }
+        return new Frame(opcode, payload);
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int value = in.read();
+        if (value < 0) {
+            throw new EOFException();
+        }
+        return value;
+    }
+
+    private static void readFully(InputStream in, byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int read = in.read(buffer, offset, buffer.length - offset);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            offset += read;
+        }
+    }
+}
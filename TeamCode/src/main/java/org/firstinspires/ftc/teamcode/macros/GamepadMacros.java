@@ -0,0 +1,381 @@
+package org.firstinspires.ftc.teamcode.macros;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Records both gamepads into a GamepadTrack and plays tracks back in their place.
+ *
+ * Afrobot drives and dispatches actions from getGamepad1() and getGamepad2(). Normally those are
+ * the driver's gamepads; while a macro plays they are synthetic gamepads that update() fills from
+ * the track. Playback is timed from System.nanoTime(), and each update applies the newest entry
+ * that is due, so a macro runs at the speed it was recorded at whatever the loop rate.
+ *
+ * A bound macro starts when its button is pressed on the driver's gamepads. Moving a stick on
+ * gamepad1 or pressing back on either gamepad stops it and hands control straight back. Back and
+ * guide are never recorded since they control the macros themselves.
+ */
+public class GamepadMacros {
+    // A few minutes of continuous stick movement at a fast loop
+    public static final int MAX_TRACK_BYTES = 128 * 1024;
+
+    private static final double OVERRIDE_THRESHOLD = 0.2;
+
+    private static final String[] BUTTON_NAMES = {
+            "a", "b", "x", "y",
+            "dpad_up", "dpad_down", "dpad_left", "dpad_right",
+            "left_bumper", "right_bumper", "left_stick_button", "right_stick_button", "start"
+    };
+
+    private enum Mode {
+        IDLE,
+        RECORDING,
+        PLAYING
+    }
+
+    private final Gamepad driverGamepad1;
+    private final Gamepad driverGamepad2;
+    private final Gamepad playbackGamepad1 = new Gamepad();
+    private final Gamepad playbackGamepad2 = new Gamepad();
+
+    private Mode mode = Mode.IDLE;
+    private long startNanos = 0;
+
+    // Recording
+    private final byte[] recordBuffer = new byte[MAX_TRACK_BYTES];
+    private int recordLength = 0;
+    private int recordEntries = 0;
+    private long lastEntryMs = 0;
+    private boolean recordFull = false;
+
+    // Playback
+    private GamepadTrack track = null;
+    private String trackName = null;
+    private int cursor = 0;
+    private long lastAppliedMs = 0;
+    private final long[] deltaMs = new long[1];
+    private final int[] nextState = new int[GamepadTrack.STATE_SIZE];
+
+    private final int[] state = new int[GamepadTrack.STATE_SIZE];
+    private final int[] lastState = new int[GamepadTrack.STATE_SIZE];
+
+    private final Map<String, GamepadTrack> bindings = new LinkedHashMap<>();
+    private final Map<String, Boolean> lastTriggerStates = new HashMap<>();
+
+    private final Map<String, Object> telemetry = new LinkedHashMap<>();
+    private String lastError;
+
+    public GamepadMacros(Gamepad gamepad1, Gamepad gamepad2) {
+        this.driverGamepad1 = gamepad1;
+        this.driverGamepad2 = gamepad2;
+    }
+
+    /**
+     * Play a track whenever a button is pressed.
+     *
+     * @param buttonId a button in the form used by Afrobot actions, like "gamepad2_dpad_up"
+     */
+    public void bind(String buttonId, GamepadTrack track) {
+        bindings.put(buttonId, track);
+    }
+
+    public void unbind(String buttonId) {
+        bindings.remove(buttonId);
+        lastTriggerStates.remove(buttonId);
+    }
+
+    /**
+     * Call once per loop before anything reads the gamepads.
+     */
+    public void update() {
+        switch (mode) {
+            case RECORDING:
+                record();
+                break;
+            case PLAYING:
+                if (isOverridden()) {
+                    stopPlayback();
+                } else {
+                    playSafely();
+                }
+                break;
+            default:
+                break;
+        }
+
+        // Edge detect every binding every loop so a button held when a macro ends does not re-trigger it
+        for (Map.Entry<String, GamepadTrack> binding : bindings.entrySet()) {
+            String buttonId = binding.getKey();
+            boolean pressed = isPressed(buttonId);
+            Boolean wasPressed = lastTriggerStates.put(buttonId, pressed);
+            if (pressed && wasPressed != null && !wasPressed && mode == Mode.IDLE) {
+                play(buttonId, binding.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return the gamepad to drive from, synthetic while a macro plays
+     */
+    public Gamepad getGamepad1() {
+        return mode == Mode.PLAYING ? playbackGamepad1 : driverGamepad1;
+    }
+
+    /**
+     * @return the gamepad to dispatch actions from, synthetic while a macro plays
+     */
+    public Gamepad getGamepad2() {
+        return mode == Mode.PLAYING ? playbackGamepad2 : driverGamepad2;
+    }
+
+    public void startRecording() {
+        if (mode == Mode.PLAYING) {
+            stopPlayback();
+        }
+        recordLength = 0;
+        recordEntries = 0;
+        recordFull = false;
+        lastEntryMs = 0;
+        mode = Mode.RECORDING;
+        startNanos = System.nanoTime();
+
+        capture(driverGamepad1, state, 0);
+        capture(driverGamepad2, state, GamepadTrack.VALUES_PER_GAMEPAD);
+        append(0);
+    }
+
+    /**
+     * Finish recording, ending the track with both gamepads released.
+     *
+     * @return the recorded track, or null if nothing was being recorded
+     */
+    public GamepadTrack stopRecording() {
+        if (mode != Mode.RECORDING) {
+            return null;
+        }
+        long now = elapsedMs();
+        if (!recordFull) {
+            for (int i = 0; i < state.length; i++) {
+                state[i] = 0;
+            }
+            append(now);
+        }
+        mode = Mode.IDLE;
+        return GamepadTrack.copyOf(recordBuffer, recordLength, lastEntryMs, recordEntries);
+    }
+
+    public void play(String name, GamepadTrack track) {
+        if (mode == Mode.RECORDING || track == null || track.length() == 0) {
+            return;
+        }
+        this.track = track;
+        this.trackName = name;
+        cursor = 0;
+        lastAppliedMs = 0;
+        mode = Mode.PLAYING;
+        startNanos = System.nanoTime();
+        playSafely();
+    }
+
+    public void stopPlayback() {
+        if (mode != Mode.PLAYING) {
+            return;
+        }
+        mode = Mode.IDLE;
+        track = null;
+        trackName = null;
+        for (int i = 0; i < state.length; i++) {
+            state[i] = 0;
+        }
+        apply(state, 0, playbackGamepad1);
+        apply(state, GamepadTrack.VALUES_PER_GAMEPAD, playbackGamepad2);
+    }
+
+    public boolean isRecording() {
+        return mode == Mode.RECORDING;
+    }
+
+    public boolean isPlaying() {
+        return mode == Mode.PLAYING;
+    }
+
+    private void record() {
+        if (recordFull) {
+            return;
+        }
+        capture(driverGamepad1, state, 0);
+        capture(driverGamepad2, state, GamepadTrack.VALUES_PER_GAMEPAD);
+        boolean changed = false;
+        for (int i = 0; i < state.length; i++) {
+            if (state[i] != lastState[i]) {
+                changed = true;
+                break;
+            }
+        }
+        if (changed) {
+            append(elapsedMs());
+        }
+    }
+
+    // Keep room for the released entry that stopRecording() writes
+    private void append(long timeMs) {
+        if (recordLength + 2 * GamepadTrack.MAX_ENTRY_BYTES > recordBuffer.length) {
+            recordFull = true;
+            for (int i = 0; i < state.length; i++) {
+                state[i] = 0;
+            }
+        }
+        recordLength = GamepadTrack.write(recordBuffer, recordLength, timeMs - lastEntryMs, state);
+        recordEntries++;
+        lastEntryMs = timeMs;
+        System.arraycopy(state, 0, lastState, 0, state.length);
+    }
+
+    // A bad track only ends the macro, it must never take down the robot loop
+    private void playSafely() {
+        try {
+            play();
+        } catch (RuntimeException e) {
+            lastError = "Macro " + trackName + " stopped: " + e;
+            stopPlayback();
+        }
+    }
+
+    private void play() {
+        long now = elapsedMs();
+        boolean applied = false;
+        while (cursor < track.length()) {
+            int next = track.read(cursor, deltaMs, nextState);
+            if (lastAppliedMs + deltaMs[0] > now) {
+                break;
+            }
+            lastAppliedMs += deltaMs[0];
+            cursor = next;
+            System.arraycopy(nextState, 0, state, 0, state.length);
+            applied = true;
+        }
+        if (applied) {
+            apply(state, 0, playbackGamepad1);
+            apply(state, GamepadTrack.VALUES_PER_GAMEPAD, playbackGamepad2);
+        }
+        if (cursor >= track.length() && now >= track.getDurationMs()) {
+            stopPlayback();
+        }
+    }
+
+    private boolean isOverridden() {
+        return Math.abs(driverGamepad1.left_stick_x) > OVERRIDE_THRESHOLD
+                || Math.abs(driverGamepad1.left_stick_y) > OVERRIDE_THRESHOLD
+                || Math.abs(driverGamepad1.right_stick_x) > OVERRIDE_THRESHOLD
+                || Math.abs(driverGamepad1.right_stick_y) > OVERRIDE_THRESHOLD
+                || driverGamepad1.back || driverGamepad2.back;
+    }
+
+    private long elapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    private boolean isPressed(String buttonId) {
+        Gamepad gamepad;
+        if (buttonId.startsWith("gamepad1_")) {
+            gamepad = driverGamepad1;
+        } else if (buttonId.startsWith("gamepad2_")) {
+            gamepad = driverGamepad2;
+        } else {
+            return false;
+        }
+        int prefix = "gamepad1_".length();
+        for (int bit = 0; bit < BUTTON_NAMES.length; bit++) {
+            String name = BUTTON_NAMES[bit];
+            if (buttonId.length() == prefix + name.length() && buttonId.startsWith(name, prefix)) {
+                return (buttons(gamepad) & (1 << bit)) != 0;
+            }
+        }
+        return false;
+    }
+
+    private static int buttons(Gamepad gamepad) {
+        return (gamepad.a ? 1 : 0)
+                | (gamepad.b ? 1 << 1 : 0)
+                | (gamepad.x ? 1 << 2 : 0)
+                | (gamepad.y ? 1 << 3 : 0)
+                | (gamepad.dpad_up ? 1 << 4 : 0)
+                | (gamepad.dpad_down ? 1 << 5 : 0)
+                | (gamepad.dpad_left ? 1 << 6 : 0)
+                | (gamepad.dpad_right ? 1 << 7 : 0)
+                | (gamepad.left_bumper ? 1 << 8 : 0)
+                | (gamepad.right_bumper ? 1 << 9 : 0)
+                | (gamepad.left_stick_button ? 1 << 10 : 0)
+                | (gamepad.right_stick_button ? 1 << 11 : 0)
+                | (gamepad.start ? 1 << 12 : 0);
+    }
+
+    private static void capture(Gamepad gamepad, int[] state, int offset) {
+        state[offset] = buttons(gamepad);
+        state[offset + 1] = quantizeStick(gamepad.left_stick_x);
+        state[offset + 2] = quantizeStick(gamepad.left_stick_y);
+        state[offset + 3] = quantizeStick(gamepad.right_stick_x);
+        state[offset + 4] = quantizeStick(gamepad.right_stick_y);
+        state[offset + 5] = quantizeTrigger(gamepad.left_trigger);
+        state[offset + 6] = quantizeTrigger(gamepad.right_trigger);
+    }
+
+    private static void apply(int[] state, int offset, Gamepad gamepad) {
+        int mask = state[offset];
+        gamepad.a = (mask & 1) != 0;
+        gamepad.b = (mask & (1 << 1)) != 0;
+        gamepad.x = (mask & (1 << 2)) != 0;
+        gamepad.y = (mask & (1 << 3)) != 0;
+        gamepad.dpad_up = (mask & (1 << 4)) != 0;
+        gamepad.dpad_down = (mask & (1 << 5)) != 0;
+        gamepad.dpad_left = (mask & (1 << 6)) != 0;
+        gamepad.dpad_right = (mask & (1 << 7)) != 0;
+        gamepad.left_bumper = (mask & (1 << 8)) != 0;
+        gamepad.right_bumper = (mask & (1 << 9)) != 0;
+        gamepad.left_stick_button = (mask & (1 << 10)) != 0;
+        gamepad.right_stick_button = (mask & (1 << 11)) != 0;
+        gamepad.start = (mask & (1 << 12)) != 0;
+        gamepad.back = false;
+        gamepad.guide = false;
+        gamepad.left_stick_x = state[offset + 1] / 127f;
+        gamepad.left_stick_y = state[offset + 2] / 127f;
+        gamepad.right_stick_x = state[offset + 3] / 127f;
+        gamepad.right_stick_y = state[offset + 4] / 127f;
+        gamepad.left_trigger = state[offset + 5] / 255f;
+        gamepad.right_trigger = state[offset + 6] / 255f;
+    }
+
+    private static int quantizeStick(float value) {
+        return Math.round(Math.max(-1f, Math.min(1f, value)) * 127f);
+    }
+
+    private static int quantizeTrigger(float value) {
+        return Math.round(Math.max(0f, Math.min(1f, value)) * 255f);
+    }
+
+    /**
+     * @return the last playback error, cleared once read
+     */
+    public String takeLastError() {
+        String error = lastError;
+        lastError = null;
+        return error;
+    }
+
+    // Afrobot only asks on loops whose batch reaches the Driver Station, so format here rather than in update()
+    public Map<String, Object> getTelemetry() {
+        telemetry.put("Mode", mode);
+        if (mode == Mode.RECORDING) {
+            telemetry.put("Recorded", String.format(Locale.US, "%.1f s, %d bytes%s", elapsedMs() / 1000.0,
+                    recordLength, recordFull ? " (full)" : ""));
+        } else if (mode == Mode.PLAYING) {
+            telemetry.put("Playing", String.format(Locale.US, "%s %.1f/%.1f s", trackName,
+                    elapsedMs() / 1000.0, track.getDurationMs() / 1000.0));
+        }
+        return telemetry;
+    }
+}
@@ -0,0 +1,182 @@
+package org.firstinspires.ftc.teamcode.macros;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A recorded sequence of both gamepads' states, stored as compact binary.
+ *
+ * Each entry is the time since the previous entry in ms as a varint, then for each gamepad the
+ * recorded buttons as a 16 bit mask and the four stick axes and two triggers as one byte each. An
+ * entry is only written when the state changes, so holding a stick still costs nothing. A track
+ * is immutable once recorded and can be replayed any number of times.
+ */
+public final class GamepadTrack {
+    public static final String FOLDER_NAME = "macros";
+    private static final String EXTENSION = ".macro";
+
+    private static final int MAGIC = 0x4D41_4352; // "MACR"
+    private static final int VERSION = 1;
+
+    // Buttons, then left x, left y, right x, right y, left trigger, right trigger, per gamepad
+    public static final int VALUES_PER_GAMEPAD = 7;
+    public static final int STATE_SIZE = 2 * VALUES_PER_GAMEPAD;
+    static final int MAX_ENTRY_BYTES = 5 + 2 * (2 + 6);
+
+    private final byte[] data;
+    private final long durationMs;
+    private final int entries;
+
+    GamepadTrack(byte[] data, long durationMs, int entries) {
+        this.data = data;
+        this.durationMs = durationMs;
+        this.entries = entries;
+    }
+
+    /**
+     * Append one entry to a recording buffer.
+     *
+     * @return the new end of the data
+     */
+    static int write(byte[] buffer, int position, long deltaMs, int[] state) {
+        long value = deltaMs;
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        for (int pad = 0; pad < 2; pad++) {
+            int base = pad * VALUES_PER_GAMEPAD;
+            buffer[position++] = (byte) (state[base] >> 8);
+            buffer[position++] = (byte) state[base];
+            for (int axis = 1; axis < VALUES_PER_GAMEPAD; axis++) {
+                buffer[position++] = (byte) state[base + axis];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Read the entry at a position into state.
+     *
+     * @param deltaMs receives the entry's time since the previous entry in its first element
+     * @return the position of the next entry
+     */
+    int read(int position, long[] deltaMs, int[] state) {
+        long value = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = data[position++];
+            value |= (long) (next & 0x7F) << shift;
+            shift += 7;
+        } while ((next & 0x80) != 0);
+        deltaMs[0] = value;
+
+        for (int pad = 0; pad < 2; pad++) {
+            int base = pad * VALUES_PER_GAMEPAD;
+            state[base] = ((data[position] & 0xFF) << 8) | (data[position + 1] & 0xFF);
+            position += 2;
+            for (int axis = 1; axis < VALUES_PER_GAMEPAD; axis++) {
+                // Sticks are signed, triggers are unsigned
+                state[base + axis] = axis <= 4 ? data[position] : data[position] & 0xFF;
+                position++;
+            }
+        }
+        return position;
+    }
+
+    // Walk every entry so playback can never read past the end of the data
+    private static boolean isValid(byte[] data, int entries, long durationMs) {
+        int position = 0;
+        long timeMs = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            long value = 0;
+            int shift = 0;
+            byte next;
+            do {
+                if (position >= data.length || shift > 56) {
+                    return false;
+                }
+                next = data[position++];
+                value |= (long) (next & 0x7F) << shift;
+                shift += 7;
+            } while ((next & 0x80) != 0);
+            if (value < 0 || position + 2 * (2 + 6) > data.length) {
+                return false;
+            }
+            position += 2 * (2 + 6);
+            timeMs += value;
+        }
+        return position == data.length && timeMs == durationMs;
+    }
+
+    int length() {
+        return data.length;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public int getEntryCount() {
+        return entries;
+    }
+
+    public int getSizeBytes() {
+        return data.length;
+    }
+
+    /**
+     * @return the file a macro with this name is stored in
+     */
+    public static File fileFor(String name) {
+        return new File(new File(AppUtil.FIRST_FOLDER, FOLDER_NAME), name + EXTENSION);
+    }
+
+    public void save(File file) throws IOException {
+        File folder = file.getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(durationMs);
+            out.writeInt(entries);
+            out.writeInt(data.length);
+            out.write(data);
+        }
+    }
+
+    public static GamepadTrack load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException(file.getName() + " is not a macro");
+            }
+            long durationMs = in.readLong();
+            int entries = in.readInt();
+            int length = in.readInt();
+            if (length < 0 || length > (long) entries * MAX_ENTRY_BYTES) {
+                throw new IOException(file.getName() + " is damaged");
+            }
+            byte[] data = new byte[length];
+            in.readFully(data);
+            if (!isValid(data, entries, durationMs)) {
+                throw new IOException(file.getName() + " is damaged");
+            }
+            return new GamepadTrack(data, durationMs, entries);
+        }
+    }
+
+    static GamepadTrack copyOf(byte[] buffer, int length, long durationMs, int entries) {
+        return new GamepadTrack(Arrays.copyOf(buffer, length), durationMs, entries);
+    }
+}
@@ -0,0 +1,68 @@
+package org.firstinspires.ftc.teamcode.opmodes.autonomous;
+
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+
+import org.firstinspires.ftc.teamcode.Afrobot;
+import org.firstinspires.ftc.teamcode.TelemetryManager;
+import org.firstinspires.ftc.teamcode.components.motion.DriveTrain;
+import org.firstinspires.ftc.teamcode.components.motion.InputShaper;
+import org.firstinspires.ftc.teamcode.systems.characterization.DriveCharacterizationSystem;
+
+/**
+ * Runs the drive feedforward characterization and writes the constants to the config file.
+ * Give the robot a few metres of clear floor and turn off the autonomous timer.
+ */
+@Autonomous(name="FeedforwardCharacterization", group="Tuning")
+public class FeedforwardCharacterization extends LinearOpMode {
+
+    private Afrobot robot;
+    private TelemetryManager telemetryManager;
+
+    @Override
+    public void runOpMode() {
+        // Initialize the robot hardware
+        robot = new Afrobot(hardwareMap, telemetry, gamepad1, gamepad2);
+        telemetryManager = robot.getTelemetryManager();
+
+        // The robot owns background threads and a dashboard socket, release them however the OpMode ends
+        try {
+            DriveCharacterizationSystem characterization = robot.registerSystem(robot ->
+                    new DriveCharacterizationSystem(robot.requireComponent(DriveTrain.class, DriveTrain.COMPONENT_NAME)));
+            robot.setGamepadDriveEnabled(false);
+
+            telemetryManager.info("Clear the area around the robot, it drives in every direction");
+
+            // Wait for start command
+            waitForStart();
+
+            characterization.start();
+            while (!characterization.isComplete && opModeIsActive()) {
+                robot.loop();
+            }
+            characterization.stop();
+
+            if (!characterization.hasResults()) {
+                telemetryManager.error("Characterization incomplete, config not changed");
+            } else {
+                try {
+                    robot.getConfigManager().save(characterization.getResults());
+                    telemetryManager.info("Feedforward saved to " + robot.getConfigManager().getFile());
+                } catch (Exception e) {
+                    telemetryManager.error("Could not save feedforward: " + e.getMessage());
+                }
+            }
+            telemetryManager.info(characterization.getResultSummary(InputShaper.DRIVE));
+            telemetryManager.info(characterization.getResultSummary(InputShaper.STRAFE));
+            telemetryManager.info(characterization.getResultSummary(InputShaper.ROTATE));
+
+            // Keep the results on screen until the OpMode is stopped
+            telemetryManager.displayLogs();
+            while (opModeIsActive()) {
+                sleep(100);
+            }
+        } finally {
+            robot.stop();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.firstinspires.ftc.teamcode.opmodes.autonomous;
+
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+
+import org.firstinspires.ftc.teamcode.Afrobot;
+import org.firstinspires.ftc.teamcode.TelemetryManager;
+import org.firstinspires.ftc.teamcode.components.imu.GoBildaPinpointComponent;
+import org.firstinspires.ftc.teamcode.components.motion.DriveTrain;
+import org.firstinspires.ftc.teamcode.components.vision.AprilTagLocalizerComponent;
+import org.firstinspires.ftc.teamcode.components.vision.LimelightComponent;
+import org.firstinspires.ftc.teamcode.systems.characterization.OdometryCalibrationSystem;
+
+import java.util.Map;
+
+/**
+ * Calibrates the Pinpoint pod offsets, yaw scalar and pod resolution and writes them to the
+ * config file. Start square on a tile seam with two clear tiles ahead and to the side, and follow
+ * the prompts on the Driver Station.
+ */
+@Autonomous(name="OdometryCalibration", group="Tuning")
+public class OdometryCalibration extends LinearOpMode {
+
+    private Afrobot robot;
+    private TelemetryManager telemetryManager;
+
+    @Override
+    public void runOpMode() {
+        // Initialize the robot hardware
+        robot = new Afrobot(hardwareMap, telemetry, gamepad1, gamepad2);
+        telemetryManager = robot.getTelemetryManager();
+
+        // The robot owns background threads and a dashboard socket, release them however the OpMode ends
+        try {
+            OdometryCalibrationSystem calibration = robot.registerSystem(robot -> new OdometryCalibrationSystem(
+                    robot.requireComponent(GoBildaPinpointComponent.class, GoBildaPinpointComponent.COMPONENT_NAME),
+                    robot.requireComponent(DriveTrain.class, DriveTrain.COMPONENT_NAME),
+                    gamepad1));
+            robot.setGamepadDriveEnabled(false);
+
+            // Wait for start command
+            waitForStart();
+
+            // Vision fixes rewrite the Pinpoint pose mid-run, which would corrupt every measurement
+            AprilTagLocalizerComponent aprilTag =
+                    robot.getComponent(AprilTagLocalizerComponent.class, AprilTagLocalizerComponent.COMPONENT_NAME);
+            LimelightComponent limelight = robot.getComponent(LimelightComponent.class, LimelightComponent.COMPONENT_NAME);
+            boolean aprilTagCorrections = aprilTag != null && aprilTag.isApplyingCorrections();
+            boolean limelightCorrections = limelight != null && limelight.isApplyingCorrections();
+            try {
+                if (aprilTag != null) {
+                    aprilTag.setApplyCorrections(false);
+                }
+                if (limelight != null) {
+                    limelight.setApplyCorrections(false);
+                }
+
+                calibration.start();
+                while (!calibration.isComplete && opModeIsActive()) {
+                    robot.loop();
+                }
+            } finally {
+                calibration.stop();
+                if (aprilTag != null) {
+                    aprilTag.setApplyCorrections(aprilTagCorrections);
+                }
+                if (limelight != null) {
+                    limelight.setApplyCorrections(limelightCorrections);
+                }
+            }
+
+            if (!calibration.hasResults()) {
+                telemetryManager.error("Calibration incomplete, config not changed");
+            } else {
+                try {
+                    robot.getConfigManager().save(calibration.getResults());
+                    telemetryManager.info("Odometry calibration saved to " + robot.getConfigManager().getFile());
+                } catch (Exception e) {
+                    telemetryManager.error("Could not save calibration: " + e.getMessage());
+                }
+            }
+            for (Map.Entry<String, Object> result : calibration.getTelemetry().entrySet()) {
+                telemetryManager.info(result.getKey() + ": " + result.getValue());
+            }
+
+            // Keep the results on screen until the OpMode is stopped
+            telemetryManager.displayLogs();
+            while (opModeIsActive()) {
+                sleep(100);
+            }
+        } finally {
+            robot.stop();
+        }
+    }
+}
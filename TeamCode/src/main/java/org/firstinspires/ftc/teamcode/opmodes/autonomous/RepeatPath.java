@@ -0,0 +1,61 @@
+package org.firstinspires.ftc.teamcode.opmodes.autonomous;
+
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+
+import org.firstinspires.ftc.teamcode.Afrobot;
+import org.firstinspires.ftc.teamcode.TelemetryManager;
+import org.firstinspires.ftc.teamcode.components.localization.Localizer;
+import org.firstinspires.ftc.teamcode.systems.navigation.SULUNavigationSystem;
+import org.firstinspires.ftc.teamcode.systems.navigation.TaughtPath;
+
+/**
+ * Replays the path saved by TeachPath through SULU. Start the robot where the path was taught.
+ */
+@Autonomous(name="RepeatPath", group="Autonomous")
+public class RepeatPath extends LinearOpMode {
+
+    private Afrobot robot;
+    private TelemetryManager telemetryManager;
+
+    @Override
+    public void runOpMode() {
+        // Initialize the robot hardware
+        robot = new Afrobot(hardwareMap, telemetry, gamepad1, gamepad2);
+        telemetryManager = robot.getTelemetryManager();
+
+        // Release the robot's threads and sockets on every way out
+        try {
+            robot.setGamepadDriveEnabled(false);
+
+            TaughtPath taught = null;
+            try {
+                taught = TaughtPath.load(TaughtPath.fileFor(TaughtPath.DEFAULT_NAME));
+                telemetryManager.info("Loaded " + taught.getPath().size() + " waypoints");
+            } catch (Exception e) {
+                telemetryManager.error("Could not load taught path: " + e.getMessage());
+            }
+
+            SULUNavigationSystem sulu = robot.getSystem(SULUNavigationSystem.class, SULUNavigationSystem.SYSTEM_NAME);
+            Localizer localizer = robot.getLocalizer();
+
+            // Wait for start command
+            waitForStart();
+
+            if (taught == null || sulu == null || localizer == null) {
+                telemetryManager.error("Nothing to replay");
+                return;
+            }
+
+            // Replay in the frame the path was recorded in
+            localizer.setPose(taught.getStartX(), taught.getStartY(), taught.getStartHeading());
+            sulu.followPath(taught.getPath(), taught.getEndHeading());
+
+            while (!sulu.isComplete && opModeIsActive()) {
+                robot.loop();
+            }
+        } finally {
+            robot.stop();
+        }
+    }
+}
\ No newline at end of file
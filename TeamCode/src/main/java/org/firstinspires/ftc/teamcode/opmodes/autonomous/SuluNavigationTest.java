@@ -18,33 +18,37 @@ public class SuluNavigationTest extends LinearOpMode {
         // Initialize the robot hardware
         robot = new Afrobot(hardwareMap, telemetry, gamepad1, gamepad2);
 
-        // Wait for start command
-        waitForStart();
+        // The robot owns background threads and a dashboard socket, release them however the OpMode ends
+        try {
+            // Wait for start command
+            waitForStart();
 
-        telemetryManager = robot.getTelemetryManager();
+            telemetryManager = robot.getTelemetryManager();
 
-        // get sulu
-        SULUNavigationSystem sulu = (SULUNavigationSystem) robot.getSystem(SULUNavigationSystem.SYSTEM_NAME);
+            // get sulu
+            SULUNavigationSystem sulu = robot.getSystem(SULUNavigationSystem.class, SULUNavigationSystem.SYSTEM_NAME);
 
 
-        // go to a particular location
-        sulu.setCourse( 0.0, 100.0, -20.0 );
+            // go to a particular location
+            sulu.setCourse( 0.0, 100.0, -20.0 );
 
-        telemetryManager.info("Course set");
+            telemetryManager.info("Course set");
 
-        while ( !sulu.isComplete || !isStopRequested() )
-        {
-            robot.loop();
-        }
+            while ( !sulu.isComplete && opModeIsActive() )
+            {
+                robot.loop();
+            }
 
-        sleep( 5000 );
+            sleep( 5000 );
 
-        sulu.setCourse( 0.0, 0.0, 0.0 );
+            sulu.setCourse( 0.0, 0.0, 0.0 );
 
-        while ( !sulu.isComplete || !isStopRequested() )
-        {
-            robot.loop();
+            while ( !sulu.isComplete && opModeIsActive() )
+            {
+                robot.loop();
+            }
+        } finally {
+            robot.stop();
         }
-
     }
 }
\ No newline at end of file
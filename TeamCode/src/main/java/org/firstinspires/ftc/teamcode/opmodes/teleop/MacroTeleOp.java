@@ -0,0 +1,124 @@
+package org.firstinspires.ftc.teamcode.opmodes.teleop;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+
+import org.firstinspires.ftc.teamcode.Afrobot;
+import org.firstinspires.ftc.teamcode.TelemetryManager;
+import org.firstinspires.ftc.teamcode.macros.GamepadMacros;
+import org.firstinspires.ftc.teamcode.macros.GamepadTrack;
+
+import java.io.File;
+
+/**
+ * Drive normally with four macro slots on gamepad2's dpad (up, right, down, left).
+ *
+ * To record, hold a dpad direction on gamepad1 and press back to pick the slot; recording starts
+ * once back and the dpad are both released, so neither is part of the macro. Press back again to
+ * stop and save. Moving a gamepad1 stick or pressing back stops a playing macro.
+ */
+@TeleOp(name="MacroTeleOp", group="TeleOp")
+public class MacroTeleOp extends OpMode {
+    private static final String[] SLOT_BUTTONS = {
+            "gamepad2_dpad_up", "gamepad2_dpad_right", "gamepad2_dpad_down", "gamepad2_dpad_left" };
+
+    private Afrobot robot;
+    private TelemetryManager telemetryManager;
+    private GamepadMacros macros;
+    private int armedSlot = -1;
+    private int recordingSlot = -1;
+    private boolean lastBack = false;
+
+    @Override
+    public void init() {
+        // Initialize the robot hardware
+        robot = new Afrobot(hardwareMap, telemetry, gamepad1, gamepad2);
+        telemetryManager = robot.getTelemetryManager();
+        macros = robot.getMacros();
+
+        for (int slot = 0; slot < SLOT_BUTTONS.length; slot++) {
+            File file = GamepadTrack.fileFor(slotName(slot));
+            if (!file.exists()) {
+                continue;
+            }
+            try {
+                GamepadTrack track = GamepadTrack.load(file);
+                macros.bind(SLOT_BUTTONS[slot], track);
+                telemetryManager.info(String.format("Macro %d loaded, %.1f s", slot + 1, track.getDurationMs() / 1000.0));
+            } catch (Exception e) {
+                telemetryManager.warning("Could not load macro " + (slot + 1) + ": " + e.getMessage());
+            }
+        }
+        telemetryManager.info("Hold a gamepad1 dpad direction and press back to record that slot");
+    }
+
+    @Override
+    public void start()
+    {
+        robot.start();
+    }
+
+    @Override
+    public void loop() {
+        boolean back = gamepad1.back;
+
+        // Stop before the robot loop, so the press that ends the recording is not in it
+        if (back && !lastBack && recordingSlot >= 0) {
+            save(recordingSlot);
+            recordingSlot = -1;
+        } else if (back && !lastBack && !macros.isPlaying()) {
+            armedSlot = selectedSlot();
+        } else if (!back && armedSlot >= 0 && !isDpadPressed()) {
+            macros.startRecording();
+            recordingSlot = armedSlot;
+            armedSlot = -1;
+            telemetryManager.info("Recording macro " + (recordingSlot + 1));
+        }
+        lastBack = back;
+
+        // move control of the loop over to the robot class
+        robot.loop();
+    }
+
+    private boolean isDpadPressed() {
+        return gamepad1.dpad_up || gamepad1.dpad_down || gamepad1.dpad_left || gamepad1.dpad_right;
+    }
+
+    private int selectedSlot() {
+        if (gamepad1.dpad_right) {
+            return 1;
+        } else if (gamepad1.dpad_down) {
+            return 2;
+        } else if (gamepad1.dpad_left) {
+            return 3;
+        }
+        return 0;
+    }
+
+    private void save(int slot) {
+        GamepadTrack track = macros.stopRecording();
+        if (track == null) {
+            telemetryManager.warning("Nothing recorded");
+            return;
+        }
+        macros.bind(SLOT_BUTTONS[slot], track);
+        File file = GamepadTrack.fileFor(slotName(slot));
+        try {
+            track.save(file);
+            telemetryManager.info(String.format("Saved macro %d, %.1f s in %d bytes",
+                    slot + 1, track.getDurationMs() / 1000.0, track.getSizeBytes()));
+        } catch (Exception e) {
+            telemetryManager.error("Could not save macro: " + e.getMessage());
+        }
+    }
+
+    private static String slotName(int slot) {
+        return "macro" + (slot + 1);
+    }
+
+    @Override
+    public void stop()
+    {
+        robot.stop();
+    }
+}
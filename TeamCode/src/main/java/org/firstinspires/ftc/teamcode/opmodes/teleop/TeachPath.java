@@ -0,0 +1,84 @@
+package org.firstinspires.ftc.teamcode.opmodes.teleop;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+
+import org.firstinspires.ftc.teamcode.Afrobot;
+import org.firstinspires.ftc.teamcode.TelemetryManager;
+import org.firstinspires.ftc.teamcode.components.imu.GoBildaPinpointComponent;
+import org.firstinspires.ftc.teamcode.systems.navigation.PathRecorder;
+import org.firstinspires.ftc.teamcode.systems.navigation.TaughtPath;
+
+import java.io.File;
+
+/**
+ * Drive normally, press X to start recording and Y to stop and save the path for RepeatPath.
+ * Start from the same spot the autonomous will start from.
+ */
+@TeleOp(name="TeachPath", group="TeleOp")
+public class TeachPath extends OpMode {
+    private Afrobot robot;
+    private TelemetryManager telemetryManager;
+    private PathRecorder recorder;
+    private boolean lastX = false, lastY = false;
+
+    @Override
+    public void init() {
+        // Initialize the robot hardware
+        robot = new Afrobot(hardwareMap, telemetry, gamepad1, gamepad2);
+        telemetryManager = robot.getTelemetryManager();
+        try {
+            recorder = robot.registerSystem(robot -> new PathRecorder(
+                    robot.requireComponent(GoBildaPinpointComponent.class, GoBildaPinpointComponent.COMPONENT_NAME)));
+            telemetryManager.info("X to start recording, Y to stop and save");
+        } catch (Exception e) {
+            telemetryManager.error("Path recording unavailable: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void start()
+    {
+        robot.start();
+    }
+
+    @Override
+    public void loop() {
+        // move control of the loop over to the robot class
+        robot.loop();
+        if (recorder == null) {
+            return;
+        }
+
+        if (gamepad1.x && !lastX) {
+            recorder.start();
+            telemetryManager.info("Recording path");
+        }
+        if (gamepad1.y && !lastY && recorder.isRecording()) {
+            save();
+        }
+        lastX = gamepad1.x;
+        lastY = gamepad1.y;
+    }
+
+    private void save() {
+        TaughtPath path = recorder.finish();
+        if (path == null) {
+            telemetryManager.warning("Nothing recorded");
+            return;
+        }
+        File file = TaughtPath.fileFor(TaughtPath.DEFAULT_NAME);
+        try {
+            path.save(file);
+            telemetryManager.info("Saved " + path.getPath().size() + " waypoints to " + file);
+        } catch (Exception e) {
+            telemetryManager.error("Could not save path: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        robot.stop();
+    }
+}
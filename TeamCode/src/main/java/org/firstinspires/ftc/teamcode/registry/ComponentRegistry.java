@@ -0,0 +1,47 @@
+package org.firstinspires.ftc.teamcode.registry;
+
+import org.firstinspires.ftc.teamcode.components.Component;
+import org.firstinspires.ftc.teamcode.components.ComponentType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of components that can also be queried by ComponentType.
+ */
+public class ComponentRegistry extends Registry<Component> {
+    private final Map<ComponentType, List<Component>> byType = new EnumMap<>(ComponentType.class);
+
+    public ComponentRegistry() {
+        super(Component::getName);
+    }
+
+    @Override
+    protected void onRegistered(Component component) {
+        List<Component> ofType = byType.get(component.getType());
+        if (ofType == null) {
+            ofType = new ArrayList<>();
+            byType.put(component.getType(), ofType);
+        }
+        ofType.add(component);
+    }
+
+    @Override
+    protected void onRemoved(Component component) {
+        List<Component> ofType = byType.get(component.getType());
+        if (ofType != null) {
+            ofType.remove(component);
+        }
+    }
+
+    /**
+     * @return the registered components of a type, in registration order
+     */
+    public List<Component> getByType(ComponentType type) {
+        List<Component> ofType = byType.get(type);
+        return ofType == null ? Collections.<Component>emptyList() : Collections.unmodifiableList(ofType);
+    }
+}
@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.registry;
+
+/**
+ * Typed reference to an entry in a Registry.
+ *
+ * A handle remembers the slot its entry was registered in, so resolving it is an array read and a
+ * class check rather than a map lookup and an unchecked cast. Handles are only valid for the
+ * registry that issued them, and only until an entry is removed from it.
+ */
+public final class Handle<T> {
+    private final Class<T> type;
+    private final String name;
+    private final int slot;
+
+    Handle(Class<T> type, String name, int slot) {
+        this.type = type;
+        this.name = name;
+        this.slot = slot;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return name + "#" + slot;
+    }
+}
@@ -0,0 +1,114 @@
+package org.firstinspires.ftc.teamcode.registry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Name-unique collection that gives every entry a dense integer slot.
+ *
+ * Entries are stored in registration order in a plain array, so the robot loop can walk them with
+ * an index and no iterator or hashing. Names are only hashed when an entry is registered or looked
+ * up by name, which happens while the robot is being set up.
+ *
+ * @param <E> common type of the entries
+ */
+public class Registry<E> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Supplies the unique name an entry is registered under.
+     */
+    public interface Namer<E> {
+        String nameOf(E entry);
+    }
+
+    private final Namer<E> namer;
+    private Object[] entries = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+    private final Map<String, Integer> slotsByName = new HashMap<>();
+
+    public Registry(Namer<E> namer) {
+        this.namer = namer;
+    }
+
+    /**
+     * Add an entry in the next free slot.
+     *
+     * @throws IllegalArgumentException if an entry with the same name is already registered
+     */
+    public <T extends E> Handle<T> register(T entry) {
+        String name = namer.nameOf(entry);
+        if (slotsByName.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate registration: " + name);
+        }
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        int slot = size++;
+        entries[slot] = entry;
+        slotsByName.put(name, slot);
+        onRegistered(entry);
+
+        // getClass() of a T is always a Class of some subtype of T
+        @SuppressWarnings("unchecked")
+        Class<T> type = (Class<T>) entry.getClass();
+        return new Handle<>(type, name, slot);
+    }
+
+    /**
+     * Remove an entry and close the gap it leaves, keeping the others in registration order. This
+     * moves later entries to new slots, so every handle issued before the removal becomes invalid.
+     *
+     * @return false if nothing is registered under the name
+     */
+    public boolean remove(String name) {
+        Integer slot = slotsByName.remove(name);
+        if (slot == null) {
+            return false;
+        }
+        E removed = get(slot);
+        System.arraycopy(entries, slot + 1, entries, slot, size - slot - 1);
+        entries[--size] = null;
+        for (int i = slot; i < size; i++) {
+            slotsByName.put(namer.nameOf(get(i)), i);
+        }
+        onRemoved(removed);
+        return true;
+    }
+
+    /**
+     * Look up an entry by name and type.
+     *
+     * @return a handle to the entry, or null if there is none or it is not a {@code type}
+     */
+    public <T extends E> Handle<T> find(Class<T> type, String name) {
+        Integer slot = slotsByName.get(name);
+        if (slot == null || !type.isInstance(entries[slot])) {
+            return null;
+        }
+        return new Handle<>(type, name, slot);
+    }
+
+    public <T extends E> T get(Handle<T> handle) {
+        return handle.getType().cast(entries[handle.getSlot()]);
+    }
+
+    /**
+     * @return the entry in a slot, for walking every entry in registration order
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int slot) {
+        return (E) entries[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    protected void onRegistered(E entry) {
+    }
+
+    protected void onRemoved(E entry) {
+    }
+}
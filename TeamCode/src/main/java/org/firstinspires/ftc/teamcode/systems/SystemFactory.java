@@ -0,0 +1,15 @@
+package org.firstinspires.ftc.teamcode.systems;
+
+import org.firstinspires.ftc.teamcode.Afrobot;
+
+/**
+ * Builds a system from the robot's initialized components.
+ *
+ * Systems take their inputs as constructor arguments, and a factory resolves those arguments from
+ * the component registry with Afrobot.requireComponent(). A wrong type is a compile error and a
+ * missing component fails at registration with its name, instead of a null or ClassCastException
+ * the first time the system runs.
+ */
+public interface SystemFactory<T extends SystemInterface> {
+    T create(Afrobot robot);
+}
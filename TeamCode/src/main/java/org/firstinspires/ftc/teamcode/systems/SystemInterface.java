@@ -1,14 +1,26 @@
 package org.firstinspires.ftc.teamcode.systems;
 
 import org.firstinspires.ftc.teamcode.components.ComponentType;
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
 
 import java.util.Map;
 
 public interface SystemInterface
 {
-    void init(Map<String,Object> parameters);
+    /**
+     * Called once after the system is constructed with its dependencies
+     * @throws RuntimeException if a dependency is unusable
+     */
+    void init();
     void update();
 
+    /**
+     * How important this system's update is when the loop is running over budget
+     */
+    default UpdatePriority getUpdatePriority() {
+        return UpdatePriority.NORMAL;
+    }
+
 
     /**
      * Get the unique identifier for this component
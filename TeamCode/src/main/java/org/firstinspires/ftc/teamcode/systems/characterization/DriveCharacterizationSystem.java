@@ -0,0 +1,294 @@
+package org.firstinspires.ftc.teamcode.systems.characterization;
+
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+import org.firstinspires.ftc.teamcode.components.motion.DriveTrain;
+import org.firstinspires.ftc.teamcode.components.motion.InputShaper;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
+import org.firstinspires.ftc.teamcode.systems.AbstractSystem;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Measures the drive's feedforward constants by driving it with known voltages.
+ *
+ * For each axis (forward, strafe, rotate) it runs a quasi-static test, a slow voltage ramp where
+ * the voltage mostly goes into friction and back EMF, and a dynamic test, a voltage step where
+ * much of it goes into acceleration. Each test runs forward and then in reverse so the robot ends
+ * up near where it started. Samples are recorded into buffers allocated up front, the acceleration
+ * is taken from a difference across ACCEL_WINDOW samples, and every sample is streamed into one
+ * LeastSquaresFit per axis for volts = kS sign(v) + kV v + kA a.
+ *
+ * The motors run in RUN_WITHOUT_ENCODER while a test drives them, so the hub's velocity PID does
+ * not fight the voltage command, and go back to their previous mode when the drive train stops.
+ *
+ * Velocities are in wheel encoder counts per second. The robot needs a few metres of clear floor
+ * in every direction, and the Driver Station's 30 second autonomous timer should be off since a
+ * full run takes about a minute.
+ */
+public class DriveCharacterizationSystem extends AbstractSystem {
+
+    public static String SYSTEM_NAME = "driveCharacterization";
+
+    private static final double RAMP_VOLTS_PER_SECOND = 1.0;
+    private static final double QUASI_STATIC_SECONDS = 5.0;
+    private static final double STEP_VOLTS = 6.0;
+    private static final double DYNAMIC_SECONDS = 1.5;
+    private static final double REST_SECONDS = 1.0;
+
+    // Wheels that are barely turning are still in static friction and would skew kS
+    private static final double MIN_VELOCITY = 20.0;
+    private static final int ACCEL_WINDOW = 5;
+    private static final int MAX_SAMPLES = 1024;
+
+    private static final String[] AXIS_NAMES = { "forward", "strafe", "rotate" };
+
+    private enum Test {
+        QUASI_STATIC,
+        DYNAMIC
+    }
+
+    private enum Phase {
+        IDLE,
+        RUNNING,
+        RESTING,
+        DONE
+    }
+
+    private final DriveTrain driveTrain;
+
+    // Every run in order: axis, then test, then direction
+    private final int runCount = AXIS_NAMES.length * Test.values().length * 2;
+    private int run = 0;
+    private Phase phase = Phase.IDLE;
+    private long phaseStartNanos = 0;
+
+    // One run's samples, reused for every run
+    private final double[] sampleTimes = new double[MAX_SAMPLES];
+    private final double[] sampleVelocities = new double[MAX_SAMPLES];
+    private final double[] sampleVolts = new double[MAX_SAMPLES];
+    private int sampleCount = 0;
+    private final double[] axisVelocities = new double[3];
+
+    private final LeastSquaresFit[] fits = {
+            new LeastSquaresFit(), new LeastSquaresFit(), new LeastSquaresFit() };
+    private final double[][] results = new double[3][3];
+    private final double[] rSquared = new double[3];
+    private final boolean[] solved = new boolean[3];
+
+    private final Map<String, Object> telemetry = new LinkedHashMap<>();
+
+    public DriveCharacterizationSystem(DriveTrain driveTrain) {
+        this.driveTrain = driveTrain;
+    }
+
+    @Override
+    public void init() {
+        if (driveTrain == null) {
+            throw new IllegalStateException("Characterization needs a drive train");
+        }
+        // Against the nominal voltage the fitted constants would carry the battery's sag
+        if (!driveTrain.hasBatteryVoltage()) {
+            throw new IllegalStateException("Characterization needs a battery voltage reading");
+        }
+    }
+
+    /**
+     * Start the full set of runs from the beginning.
+     */
+    public void start() {
+        for (LeastSquaresFit fit : fits) {
+            fit.clear();
+        }
+        for (int axis = 0; axis < solved.length; axis++) {
+            solved[axis] = false;
+        }
+        run = 0;
+        beginPhase(Phase.RUNNING);
+        sampleCount = 0;
+        isComplete = false;
+    }
+
+    @Override
+    public void update() {
+        if (phase == Phase.IDLE || phase == Phase.DONE) {
+            return;
+        }
+
+        double seconds = (System.nanoTime() - phaseStartNanos) / 1.0e9;
+        int axis = runAxis(run);
+
+        if (phase == Phase.RESTING) {
+            if (seconds >= REST_SECONDS) {
+                beginPhase(Phase.RUNNING);
+                sampleCount = 0;
+            }
+            return;
+        }
+
+        Test test = runTest(run);
+        double direction = runDirection(run);
+        double duration = test == Test.QUASI_STATIC ? QUASI_STATIC_SECONDS : DYNAMIC_SECONDS;
+        if (seconds >= duration || sampleCount == MAX_SAMPLES) {
+            finishRun(axis);
+            return;
+        }
+
+        double volts = direction * (test == Test.QUASI_STATIC ? RAMP_VOLTS_PER_SECOND * seconds : STEP_VOLTS);
+        drive(axis, volts);
+
+        driveTrain.getAxisVelocities(axisVelocities);
+        sampleTimes[sampleCount] = seconds;
+        sampleVelocities[sampleCount] = axisVelocities[axis];
+        sampleVolts[sampleCount] = volts;
+        sampleCount++;
+        addSample(axis, sampleCount - 1);
+    }
+
+    // Fit the sample in the middle of the newest window, with the acceleration across the window
+    private void addSample(int axis, int newest) {
+        int oldest = newest - (ACCEL_WINDOW - 1);
+        if (oldest < 0) {
+            return;
+        }
+        int middle = newest - ACCEL_WINDOW / 2;
+        double dt = sampleTimes[newest] - sampleTimes[oldest];
+        double velocity = sampleVelocities[middle];
+        if (dt <= 0 || Math.abs(velocity) < MIN_VELOCITY) {
+            return;
+        }
+        double acceleration = (sampleVelocities[newest] - sampleVelocities[oldest]) / dt;
+        fits[axis].add(Math.signum(velocity), velocity, acceleration, sampleVolts[middle]);
+    }
+
+    private void finishRun(int axis) {
+        driveTrain.stop();
+        boolean lastOfAxis = run + 1 == runCount || runAxis(run + 1) != axis;
+        if (lastOfAxis) {
+            solved[axis] = fits[axis].solve(results[axis]);
+            rSquared[axis] = solved[axis] ? fits[axis].rSquared(results[axis]) : 0;
+            telemetry.put("Result " + AXIS_NAMES[axis], describe(axis));
+        }
+
+        run++;
+        if (run == runCount) {
+            phase = Phase.DONE;
+            isComplete = true;
+        } else {
+            beginPhase(Phase.RESTING);
+        }
+    }
+
+    private void drive(int axis, double volts) {
+        switch (axis) {
+            case InputShaper.DRIVE:
+                driveTrain.driveWithVoltage(volts, 0, 0);
+                break;
+            case InputShaper.STRAFE:
+                driveTrain.driveWithVoltage(0, volts, 0);
+                break;
+            default:
+                driveTrain.driveWithVoltage(0, 0, volts);
+                break;
+        }
+    }
+
+    private void beginPhase(Phase next) {
+        phase = next;
+        phaseStartNanos = System.nanoTime();
+    }
+
+    private static int runAxis(int run) {
+        return run / (Test.values().length * 2);
+    }
+
+    private static Test runTest(int run) {
+        return Test.values()[(run / 2) % Test.values().length];
+    }
+
+    private static double runDirection(int run) {
+        return run % 2 == 0 ? 1.0 : -1.0;
+    }
+
+    private String describe(int axis) {
+        if (!solved[axis]) {
+            return String.format(Locale.US, "no fit from %d samples", fits[axis].getCount());
+        }
+        return String.format(Locale.US, "kS %.4f kV %.6f kA %.6f (r2 %.3f, %d samples)",
+                results[axis][0], results[axis][1], results[axis][2], rSquared[axis], fits[axis].getCount());
+    }
+
+    /**
+     * @return true if every axis was fitted with a positive kV
+     */
+    public boolean hasResults() {
+        for (int axis = 0; axis < solved.length; axis++) {
+            if (!solved[axis] || results[axis][1] <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the fitted constants as config entries, for ConfigManager.save()
+     */
+    public Properties getResults() {
+        Properties properties = new Properties();
+        putResult(properties, InputShaper.DRIVE, RobotConfig.DRIVE_FORWARD_KS, RobotConfig.DRIVE_FORWARD_KV, RobotConfig.DRIVE_FORWARD_KA);
+        putResult(properties, InputShaper.STRAFE, RobotConfig.DRIVE_STRAFE_KS, RobotConfig.DRIVE_STRAFE_KV, RobotConfig.DRIVE_STRAFE_KA);
+        putResult(properties, InputShaper.ROTATE, RobotConfig.DRIVE_ROTATE_KS, RobotConfig.DRIVE_ROTATE_KV, RobotConfig.DRIVE_ROTATE_KA);
+        return properties;
+    }
+
+    private void putResult(Properties properties, int axis, String kS, String kV, String kA) {
+        if (!solved[axis]) {
+            return;
+        }
+        properties.setProperty(kS, Double.toString(results[axis][0]));
+        properties.setProperty(kV, Double.toString(results[axis][1]));
+        properties.setProperty(kA, Double.toString(results[axis][2]));
+    }
+
+    /**
+     * @return a summary of the fit for an axis, in InputShaper axis order
+     */
+    public String getResultSummary(int axis) {
+        return AXIS_NAMES[axis] + ": " + describe(axis);
+    }
+
+    @Override
+    public String getName() {
+        return SYSTEM_NAME;
+    }
+
+    @Override
+    public UpdatePriority getUpdatePriority() {
+        return UpdatePriority.CRITICAL;
+    }
+
+    @Override
+    public void stop() {
+        if (phase == Phase.RUNNING || phase == Phase.RESTING) {
+            phase = Phase.IDLE;
+        }
+        isComplete = true;
+        driveTrain.stop();
+    }
+
+    // Afrobot only asks for telemetry on loops whose batch reaches the Driver Station, so the
+    // current sample is formatted here rather than on every update()
+    @Override
+    public Map<String, Object> getTelemetry() {
+        if (phase == Phase.RUNNING && sampleCount > 0) {
+            int axis = runAxis(run);
+            telemetry.put("Run", String.format(Locale.US, "%d/%d %s %s %s", run + 1, runCount,
+                    AXIS_NAMES[axis], runTest(run), runDirection(run) > 0 ? "+" : "-"));
+            telemetry.put("Volts", String.format(Locale.US, "%.2f", sampleVolts[sampleCount - 1]));
+            telemetry.put("Velocity", String.format(Locale.US, "%.0f", sampleVelocities[sampleCount - 1]));
+        }
+        return telemetry;
+    }
+}
@@ -0,0 +1,121 @@
+package org.firstinspires.ftc.teamcode.systems.characterization;
+
+/**
+ * Streaming ordinary least squares for y = b0 x0 + b1 x1 + b2 x2.
+ *
+ * Each sample only updates the running sums of the normal equations, so samples do not have to be
+ * kept and adding one costs a few multiplies with no allocation. solve() can be called at any time
+ * and as often as needed.
+ */
+public final class LeastSquaresFit {
+    private static final int TERMS = 3;
+    // Pivots smaller than this mean the samples cannot tell two terms apart
+    private static final double SINGULAR_PIVOT = 1e-12;
+
+    private final double[][] xtx = new double[TERMS][TERMS];
+    private final double[] xty = new double[TERMS];
+    private double yty = 0;
+    private double sumY = 0;
+    private int count = 0;
+
+    // Scratch for solve(), so solving does not allocate either
+    private final double[][] matrix = new double[TERMS][TERMS + 1];
+
+    public void add(double x0, double x1, double x2, double y) {
+        addRow(0, x0, x0, x1, x2, y);
+        addRow(1, x1, x0, x1, x2, y);
+        addRow(2, x2, x0, x1, x2, y);
+        yty += y * y;
+        sumY += y;
+        count++;
+    }
+
+    private void addRow(int row, double xRow, double x0, double x1, double x2, double y) {
+        xtx[row][0] += xRow * x0;
+        xtx[row][1] += xRow * x1;
+        xtx[row][2] += xRow * x2;
+        xty[row] += xRow * y;
+    }
+
+    /**
+     * Solve the normal equations by Gaussian elimination with partial pivoting.
+     *
+     * @param out receives b0, b1, b2
+     * @return false if there are too few samples or they do not excite every term
+     */
+    public boolean solve(double[] out) {
+        if (count < TERMS) {
+            return false;
+        }
+        for (int row = 0; row < TERMS; row++) {
+            System.arraycopy(xtx[row], 0, matrix[row], 0, TERMS);
+            matrix[row][TERMS] = xty[row];
+        }
+
+        for (int column = 0; column < TERMS; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < TERMS; row++) {
+                if (Math.abs(matrix[row][column]) > Math.abs(matrix[pivot][column])) {
+                    pivot = row;
+                }
+            }
+            if (Math.abs(matrix[pivot][column]) < SINGULAR_PIVOT) {
+                return false;
+            }
+            double[] swap = matrix[column];
+            matrix[column] = matrix[pivot];
+            matrix[pivot] = swap;
+
+            for (int row = column + 1; row < TERMS; row++) {
+                double factor = matrix[row][column] / matrix[column][column];
+                for (int k = column; k <= TERMS; k++) {
+                    matrix[row][k] -= factor * matrix[column][k];
+                }
+            }
+        }
+
+        for (int row = TERMS - 1; row >= 0; row--) {
+            double sum = matrix[row][TERMS];
+            for (int k = row + 1; k < TERMS; k++) {
+                sum -= matrix[row][k] * out[k];
+            }
+            out[row] = sum / matrix[row][row];
+        }
+        return true;
+    }
+
+    /**
+     * @return the fraction of the variance in y explained by coefficients from solve()
+     */
+    public double rSquared(double[] coefficients) {
+        if (count == 0) {
+            return 0;
+        }
+        // Residual sum of squares from the sums alone: y'y - 2 b'X'y + b'X'X b
+        double residual = yty;
+        for (int i = 0; i < TERMS; i++) {
+            residual -= 2 * coefficients[i] * xty[i];
+            for (int j = 0; j < TERMS; j++) {
+                residual += coefficients[i] * xtx[i][j] * coefficients[j];
+            }
+        }
+        double total = yty - sumY * sumY / count;
+        return total <= 0 ? 0 : 1.0 - residual / total;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void clear() {
+        for (int row = 0; row < TERMS; row++) {
+            for (int column = 0; column < TERMS; column++) {
+                xtx[row][column] = 0;
+            }
+            xty[row] = 0;
+        }
+        yty = 0;
+        sumY = 0;
+        count = 0;
+    }
+}
@@ -0,0 +1,349 @@
+package org.firstinspires.ftc.teamcode.systems.characterization;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+import org.firstinspires.ftc.teamcode.components.imu.GoBildaPinpointComponent;
+import org.firstinspires.ftc.teamcode.components.motion.DriveTrain;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
+import org.firstinspires.ftc.teamcode.systems.AbstractSystem;
+import org.firstinspires.ftc.teamcode.systems.navigation.SULUNavigationSystem;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Calibrates the Pinpoint's pod offsets, yaw scalar and pod resolution on the field.
+ *
+ * The robot spins SPIN_TURNS turns by its own heading, then the operator nudges it with the right
+ * stick back onto the mark it started on and presses A. The heading it reports at that point
+ * against SPIN_TURNS full turns gives the yaw scalar. While the robot spins, any translation the
+ * Pinpoint reports in the robot's frame comes from wrong pod offsets: the Pinpoint subtracts
+ * offset times heading change from each pod, so with the true offsets a pure rotation reads as no
+ * translation. The offset error is fitted, through the origin, from every loop's translation
+ * against its heading change.
+ *
+ * The robot then drives LINE_MM forward and LINE_MM sideways, holding its heading, and after
+ * each line the operator nudges it with the left stick onto the end mark and presses A. The
+ * distance the Pinpoint reports against LINE_MM gives the pod resolution.
+ *
+ * Offsets follow the driver's convention: the X pod offset is left of centre positive and the Y
+ * pod offset is forward of centre positive.
+ */
+public class OdometryCalibrationSystem extends AbstractSystem {
+
+    public static String SYSTEM_NAME = "odometryCalibration";
+
+    private static final int SPIN_TURNS = 5;
+    private static final double SPIN_POWER = 0.4;
+    private static final double SPIN_SLOW_POWER = 0.15;
+    private static final double SPIN_SLOW_DEGREES = 45.0;
+
+    // Two field tiles, easy to mark with the tile seams
+    private static final double LINE_MM = 1219.2;
+    private static final double LINE_POWER = 0.3;
+    private static final double LINE_SLOW_POWER = 0.12;
+    private static final double LINE_SLOW_MM = 150.0;
+    private static final double HEADING_HOLD_GAIN = 0.02;
+
+    private static final double NUDGE_POWER = 0.25;
+
+    // The driver's advice is that a scalar outside this range means a faulty device
+    private static final double MIN_YAW_SCALAR = 0.95;
+    private static final double MAX_YAW_SCALAR = 1.05;
+    // The two lines measure different pods, the Pinpoint has a single resolution for both
+    private static final double RESOLUTION_MISMATCH = 0.02;
+
+    private enum Phase {
+        IDLE,
+        SPIN,
+        ALIGN_SPIN,
+        LINE_FORWARD,
+        ALIGN_FORWARD,
+        LINE_STRAFE,
+        ALIGN_STRAFE,
+        DONE
+    }
+
+    private final GoBildaPinpointComponent pinpoint;
+    private final DriveTrain driveTrain;
+    private final Gamepad gamepad;
+
+    private Phase phase = Phase.IDLE;
+    private boolean lastConfirm = false;
+
+    // Heading unwrapped across turns, in degrees
+    private double lastHeading;
+    private double totalHeading;
+    private double lastX, lastY;
+
+    // Fit of robot frame translation against heading change, through the origin
+    private double sumTurnSquared, sumTurnForward, sumTurnLeft;
+
+    private double lineStartX, lineStartY, lineHeading;
+    private double forwardMeasuredMm, strafeMeasuredMm;
+
+    // Values the run started with, and the results
+    private double startXOffset, startYOffset, startYawScalar, startTicksPerMm;
+    private double xOffset, yOffset, yawScalar, ticksPerMm;
+    private boolean yawScalarValid, resolutionValid;
+
+    private final Map<String, Object> telemetry = new LinkedHashMap<>();
+
+    public OdometryCalibrationSystem(GoBildaPinpointComponent pinpoint, DriveTrain driveTrain, Gamepad gamepad) {
+        this.pinpoint = pinpoint;
+        this.driveTrain = driveTrain;
+        this.gamepad = gamepad;
+    }
+
+    @Override
+    public void init() {
+        if (pinpoint == null || driveTrain == null || gamepad == null) {
+            throw new IllegalStateException("Odometry calibration needs the Pinpoint, a drive train and a gamepad");
+        }
+    }
+
+    /**
+     * Start from the spin. The robot should be square on a mark with clear floor around it.
+     */
+    public void start() {
+        startXOffset = pinpoint.getXOffset();
+        startYOffset = pinpoint.getYOffset();
+        startYawScalar = pinpoint.getYawScalar();
+        startTicksPerMm = pinpoint.getTicksPerMm();
+
+        lastHeading = pinpoint.getHeading();
+        totalHeading = 0;
+        lastX = pinpoint.getX();
+        lastY = pinpoint.getY();
+        sumTurnSquared = 0;
+        sumTurnForward = 0;
+        sumTurnLeft = 0;
+        lastConfirm = true; // A must be released before it confirms anything
+
+        phase = Phase.SPIN;
+        isComplete = false;
+        telemetry.clear();
+    }
+
+    @Override
+    public void update() {
+        if (phase == Phase.IDLE || phase == Phase.DONE) {
+            return;
+        }
+
+        trackPose();
+        boolean confirm = gamepad.a && !lastConfirm;
+        lastConfirm = gamepad.a;
+
+        switch (phase) {
+            case SPIN:
+                double remaining = SPIN_TURNS * 360.0 - Math.abs(totalHeading);
+                if (remaining <= 0) {
+                    driveTrain.stop();
+                    phase = Phase.ALIGN_SPIN;
+                } else {
+                    driveTrain.driveWithPower(0, 0, remaining < SPIN_SLOW_DEGREES ? SPIN_SLOW_POWER : SPIN_POWER);
+                }
+                break;
+
+            case ALIGN_SPIN:
+                driveTrain.driveWithPower(0, 0, gamepad.right_stick_x * NUDGE_POWER);
+                if (confirm) {
+                    driveTrain.stop();
+                    solveSpin();
+                    beginLine(Phase.LINE_FORWARD);
+                }
+                break;
+
+            case LINE_FORWARD:
+            case LINE_STRAFE:
+                driveLine();
+                break;
+
+            case ALIGN_FORWARD:
+            case ALIGN_STRAFE:
+                driveTrain.driveWithPower(-gamepad.left_stick_y * NUDGE_POWER, -gamepad.left_stick_x * NUDGE_POWER,
+                        holdHeading());
+                if (confirm) {
+                    driveTrain.stop();
+                    if (phase == Phase.ALIGN_FORWARD) {
+                        forwardMeasuredMm = lineDistance();
+                        beginLine(Phase.LINE_STRAFE);
+                    } else {
+                        strafeMeasuredMm = lineDistance();
+                        solveResolution();
+                        phase = Phase.DONE;
+                        isComplete = true;
+                    }
+                }
+                break;
+
+            default:
+                break;
+        }
+
+        telemetry.put("Phase", phase);
+        telemetry.put("Heading", String.format(Locale.US, "%.1f deg total", totalHeading));
+        telemetry.put("Action", instructions());
+    }
+
+    // Unwrap the heading and feed the offset fit while the robot is turning
+    private void trackPose() {
+        double heading = pinpoint.getHeading();
+        double x = pinpoint.getX();
+        double y = pinpoint.getY();
+        double turnDegrees = SULUNavigationSystem.normalizeAngle(heading - lastHeading);
+        totalHeading += turnDegrees;
+
+        if (phase == Phase.SPIN || phase == Phase.ALIGN_SPIN) {
+            // Translation this loop in the robot's frame, at the heading halfway through the loop
+            double mid = Math.toRadians(lastHeading + turnDegrees / 2);
+            double dx = x - lastX;
+            double dy = y - lastY;
+            double forward = Math.cos(mid) * dx + Math.sin(mid) * dy;
+            double left = -Math.sin(mid) * dx + Math.cos(mid) * dy;
+            double turn = Math.toRadians(turnDegrees);
+            sumTurnSquared += turn * turn;
+            sumTurnForward += turn * forward;
+            sumTurnLeft += turn * left;
+        }
+
+        lastHeading = heading;
+        lastX = x;
+        lastY = y;
+    }
+
+    private void solveSpin() {
+        double measured = Math.abs(totalHeading);
+        double actual = SPIN_TURNS * 360.0;
+        // Actual turn per measured turn, the scalar makes the two equal
+        double scale = actual / measured;
+        yawScalar = startYawScalar * scale;
+        yawScalarValid = yawScalar >= MIN_YAW_SCALAR && yawScalar <= MAX_YAW_SCALAR;
+
+        // The Pinpoint reads forward (xOffset - trueX) and left (trueY - yOffset) per measured
+        // radian, the true offsets are per actual radian
+        double forwardPerRadian = sumTurnSquared > 0 ? sumTurnForward / sumTurnSquared : 0;
+        double leftPerRadian = sumTurnSquared > 0 ? sumTurnLeft / sumTurnSquared : 0;
+        xOffset = (startXOffset - forwardPerRadian) / scale;
+        yOffset = (startYOffset + leftPerRadian) / scale;
+
+        telemetry.put("Yaw scalar", String.format(Locale.US, "%.5f (was %.5f)%s", yawScalar, startYawScalar,
+                yawScalarValid ? "" : " out of range, check the device"));
+        telemetry.put("Pod offsets", String.format(Locale.US, "X %.1f mm, Y %.1f mm (were %.1f, %.1f)",
+                xOffset, yOffset, startXOffset, startYOffset));
+    }
+
+    private void solveResolution() {
+        double forwardTicks = startTicksPerMm * forwardMeasuredMm / LINE_MM;
+        double strafeTicks = startTicksPerMm * strafeMeasuredMm / LINE_MM;
+        ticksPerMm = (forwardTicks + strafeTicks) / 2;
+        resolutionValid = forwardMeasuredMm > 0 && strafeMeasuredMm > 0;
+
+        String mismatch = Math.abs(forwardTicks - strafeTicks) > RESOLUTION_MISMATCH * ticksPerMm
+                ? ", pods disagree, check for wheel slip" : "";
+        telemetry.put("Pod resolution", String.format(Locale.US, "%.4f ticks/mm (forward %.4f, strafe %.4f, was %.4f)%s",
+                ticksPerMm, forwardTicks, strafeTicks, startTicksPerMm, mismatch));
+    }
+
+    private void beginLine(Phase line) {
+        phase = line;
+        lineStartX = pinpoint.getX();
+        lineStartY = pinpoint.getY();
+        lineHeading = pinpoint.getHeading();
+    }
+
+    private void driveLine() {
+        double remaining = LINE_MM - lineDistance();
+        if (remaining <= 0) {
+            driveTrain.stop();
+            phase = phase == Phase.LINE_FORWARD ? Phase.ALIGN_FORWARD : Phase.ALIGN_STRAFE;
+            return;
+        }
+        double power = remaining < LINE_SLOW_MM ? LINE_SLOW_POWER : LINE_POWER;
+        if (phase == Phase.LINE_FORWARD) {
+            driveTrain.driveWithPower(power, 0, holdHeading());
+        } else {
+            driveTrain.driveWithPower(0, power, holdHeading());
+        }
+    }
+
+    // Same sign convention as SULU, positive rotation power turns towards a positive heading error
+    private double holdHeading() {
+        return HEADING_HOLD_GAIN * SULUNavigationSystem.normalizeAngle(lineHeading - pinpoint.getHeading());
+    }
+
+    private double lineDistance() {
+        return Math.hypot(pinpoint.getX() - lineStartX, pinpoint.getY() - lineStartY);
+    }
+
+    private String instructions() {
+        switch (phase) {
+            case SPIN:
+                return "Spinning " + SPIN_TURNS + " turns";
+            case ALIGN_SPIN:
+                return "Right stick to turn back onto the start mark, then A";
+            case LINE_FORWARD:
+            case LINE_STRAFE:
+                return String.format(Locale.US, "Driving %.0f mm", LINE_MM);
+            case ALIGN_FORWARD:
+            case ALIGN_STRAFE:
+                return String.format(Locale.US, "Left stick onto the mark %.0f mm from the start, then A", LINE_MM);
+            case DONE:
+                return "Done";
+            default:
+                return "Waiting";
+        }
+    }
+
+    /**
+     * @return the calibrated values as config entries for ConfigManager.save(), leaving out any
+     * that failed their sanity check
+     */
+    public Properties getResults() {
+        Properties properties = new Properties();
+        if (phase != Phase.DONE) {
+            return properties;
+        }
+        properties.setProperty(RobotConfig.PINPOINT_X_OFFSET, Double.toString(xOffset));
+        properties.setProperty(RobotConfig.PINPOINT_Y_OFFSET, Double.toString(yOffset));
+        if (yawScalarValid) {
+            properties.setProperty(RobotConfig.PINPOINT_YAW_SCALAR, Double.toString(yawScalar));
+        }
+        if (resolutionValid) {
+            properties.setProperty(RobotConfig.PINPOINT_TICKS_PER_MM, Double.toString(ticksPerMm));
+        }
+        return properties;
+    }
+
+    public boolean hasResults() {
+        return phase == Phase.DONE;
+    }
+
+    @Override
+    public String getName() {
+        return SYSTEM_NAME;
+    }
+
+    @Override
+    public UpdatePriority getUpdatePriority() {
+        return UpdatePriority.CRITICAL;
+    }
+
+    @Override
+    public void stop() {
+        if (phase != Phase.DONE) {
+            phase = Phase.IDLE;
+        }
+        isComplete = true;
+        driveTrain.stop();
+    }
+
+    @Override
+    public Map<String, Object> getTelemetry() {
+        return telemetry;
+    }
+}
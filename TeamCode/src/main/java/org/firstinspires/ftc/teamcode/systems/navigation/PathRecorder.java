@@ -0,0 +1,159 @@
+package org.firstinspires.ftc.teamcode.systems.navigation;
+
+import org.firstinspires.ftc.teamcode.components.imu.GoBildaPinpointComponent;
+import org.firstinspires.ftc.teamcode.components.localization.LocalizerHealth;
+import org.firstinspires.ftc.teamcode.config.Configurable;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
+import org.firstinspires.ftc.teamcode.systems.AbstractSystem;
+import org.firstinspires.ftc.teamcode.systems.navigation.planning.Path;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Records the Pinpoint's poses while a driver drives, for replaying later as an autonomous path.
+ *
+ * Poses go into primitive arrays allocated up front, and a pose is only recorded once the robot
+ * has moved MIN_SPACING_MM from the last one, so standing still costs nothing and the buffer
+ * lasts a whole match. finish() runs Douglas-Peucker over the track to get the few waypoints
+ * that stay within the configured tolerance of it.
+ */
+public class PathRecorder extends AbstractSystem implements Configurable {
+
+    public static String SYSTEM_NAME = "pathRecorder";
+
+    private static final int MAX_POSES = 8192;
+    private static final double MIN_SPACING_MM = 10.0;
+
+    private final GoBildaPinpointComponent pinpoint;
+
+    private final double[] xs = new double[MAX_POSES];
+    private final double[] ys = new double[MAX_POSES];
+    private final double[] headings = new double[MAX_POSES];
+    private final boolean[] keep = new boolean[MAX_POSES];
+    private int count = 0;
+    private boolean recording = false;
+    private boolean full = false;
+
+    private double toleranceMm;
+
+    private final Map<String, Object> telemetry = new LinkedHashMap<>();
+
+    public PathRecorder(GoBildaPinpointComponent pinpoint) {
+        this.pinpoint = pinpoint;
+    }
+
+    @Override
+    public void init() {
+        if (pinpoint == null) {
+            throw new IllegalStateException("Path recording needs the Pinpoint");
+        }
+    }
+
+    @Override
+    public void applyConfig(RobotConfig config) {
+        toleranceMm = config.teachToleranceMm;
+    }
+
+    /**
+     * Throw away any earlier track and start recording from the current pose.
+     */
+    public void start() {
+        count = 0;
+        full = false;
+        recording = true;
+        record();
+    }
+
+    @Override
+    public void update() {
+        if (!recording) {
+            return;
+        }
+        double dx = pinpoint.getX() - xs[count - 1];
+        double dy = pinpoint.getY() - ys[count - 1];
+        if (dx * dx + dy * dy >= MIN_SPACING_MM * MIN_SPACING_MM) {
+            record();
+        }
+    }
+
+    private void record() {
+        // A faulted Pinpoint would record a jump, skip it and keep the gap straight
+        if (pinpoint.getHealth() != LocalizerHealth.OK && count > 0) {
+            return;
+        }
+        if (count == MAX_POSES) {
+            full = true;
+            recording = false;
+            return;
+        }
+        xs[count] = pinpoint.getX();
+        ys[count] = pinpoint.getY();
+        headings[count] = pinpoint.getHeading();
+        count++;
+    }
+
+    /**
+     * Stop recording and simplify the track.
+     *
+     * @return the simplified path, or null if nothing was recorded
+     */
+    public TaughtPath finish() {
+        if (recording) {
+            // Always end on where the robot stopped
+            recording = false;
+            if (count < MAX_POSES) {
+                xs[count] = pinpoint.getX();
+                ys[count] = pinpoint.getY();
+                headings[count] = pinpoint.getHeading();
+                count++;
+            }
+        }
+        if (count < 2) {
+            return null;
+        }
+
+        int kept = PathSimplifier.simplify(xs, ys, count, toleranceMm, keep);
+        // The start pose is where the path begins, not a waypoint to drive to
+        double[] waypointXs = new double[kept - 1];
+        double[] waypointYs = new double[kept - 1];
+        int index = 0;
+        for (int i = 1; i < count; i++) {
+            if (keep[i]) {
+                waypointXs[index] = xs[i];
+                waypointYs[index] = ys[i];
+                index++;
+            }
+        }
+        telemetry.put("Simplified", String.format(Locale.US, "%d poses to %d waypoints", count, kept - 1));
+        return new TaughtPath(xs[0], ys[0], headings[0], headings[count - 1], new Path(waypointXs, waypointYs));
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public int getPoseCount() {
+        return count;
+    }
+
+    @Override
+    public String getName() {
+        return SYSTEM_NAME;
+    }
+
+    @Override
+    public void stop() {
+        recording = false;
+    }
+
+    // Afrobot only asks on loops whose batch reaches the Driver Station, so format here rather than in update()
+    @Override
+    public Map<String, Object> getTelemetry() {
+        if (recording) {
+            telemetry.put("Recording", String.format(Locale.US, "%d poses%s", count, full ? ", buffer full" : ""));
+        }
+        return telemetry;
+    }
+}
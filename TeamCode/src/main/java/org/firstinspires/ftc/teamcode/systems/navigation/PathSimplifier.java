@@ -0,0 +1,76 @@
+package org.firstinspires.ftc.teamcode.systems.navigation;
+
+/**
+ * Douglas-Peucker simplification of a recorded track.
+ *
+ * Keeps the first and last points, then repeatedly keeps the point furthest from the straight
+ * line between two kept points until every dropped point is within the tolerance of the line that
+ * replaces it. Runs with an explicit stack rather than recursion, so a long recording cannot
+ * overflow the thread's stack.
+ */
+public final class PathSimplifier {
+    private PathSimplifier() {
+    }
+
+    /**
+     * @param keep receives true for every point that is kept, at least count long
+     * @return the number of points kept
+     */
+    public static int simplify(double[] xs, double[] ys, int count, double toleranceMm, boolean[] keep) {
+        if (count <= 0) {
+            return 0;
+        }
+        for (int i = 0; i < count; i++) {
+            keep[i] = false;
+        }
+        keep[0] = true;
+        keep[count - 1] = true;
+        if (count < 3) {
+            return count;
+        }
+
+        int kept = 2;
+        // Pairs of first and last index still to check, at most one pair per point
+        int[] stack = new int[2 * count];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+
+            int furthest = -1;
+            double furthestDistance = toleranceMm;
+            for (int i = first + 1; i < last; i++) {
+                double distance = distanceToSegment(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+                if (distance > furthestDistance) {
+                    furthest = i;
+                    furthestDistance = distance;
+                }
+            }
+            if (furthest < 0) {
+                continue;
+            }
+            keep[furthest] = true;
+            kept++;
+            stack[top++] = first;
+            stack[top++] = furthest;
+            stack[top++] = furthest;
+            stack[top++] = last;
+        }
+        return kept;
+    }
+
+    // Distance to the segment rather than the infinite line, so a track that doubles back is kept
+    static double distanceToSegment(double x, double y, double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return Math.hypot(x - x1, y - y1);
+        }
+        double t = ((x - x1) * dx + (y - y1) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        return Math.hypot(x - (x1 + t * dx), y - (y1 + t * dy));
+    }
+}
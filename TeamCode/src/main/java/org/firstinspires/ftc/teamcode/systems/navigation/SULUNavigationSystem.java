@@ -1,41 +1,90 @@
 package org.firstinspires.ftc.teamcode.systems.navigation;
 
-import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
 import org.firstinspires.ftc.teamcode.components.ComponentType;
-import org.firstinspires.ftc.teamcode.components.imu.GoBildaPinpointComponent;
+import org.firstinspires.ftc.teamcode.components.UpdatePriority;
+import org.firstinspires.ftc.teamcode.components.localization.Localizer;
 import org.firstinspires.ftc.teamcode.components.motion.DriveTrain;
+import org.firstinspires.ftc.teamcode.config.Configurable;
+import org.firstinspires.ftc.teamcode.config.RobotConfig;
 import org.firstinspires.ftc.teamcode.systems.AbstractSystem;
+import org.firstinspires.ftc.teamcode.systems.navigation.planning.Path;
+import org.firstinspires.ftc.teamcode.systems.navigation.planning.PathPlanner;
 
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
-public class SULUNavigationSystem extends AbstractSystem {
+public class SULUNavigationSystem extends AbstractSystem implements Configurable {
 
     public static String SYSTEM_NAME = "sulu";
 
-    public static String DRIVE_TRAIN_PARAMETER = "driveTrain";
-    public static String IMU_SYSTEM_PARAMETER = "imuSystem";
+    // Close enough to a waypoint along a path to turn towards the next one, in mm
+    private static final double WAYPOINT_RADIUS = 75.0;
 
-    private final double POSITION_THRESHOLD = 0.1; // Stop when close enough
-    private final double HEADING_THRESHOLD = 1.0; // Stop when aligned
-    private final double ROTATION_GAIN = 0.01; // Adjust rotation sensitivity
-    private final double DRIVE_GAIN = 0.05; // Adjust drive sensitivity
+    // Tuned from RobotConfig
+    private double positionThreshold; // Stop when close enough
+    private double headingThreshold; // Stop when aligned
+    private double rotationGain; // Adjust rotation sensitivity
+    private double driveGain; // Adjust drive sensitivity
 
-    private DriveTrain driveTrain;
-    private GoBildaPinpointComponent imuComponent;
+    private final DriveTrain driveTrain;
+    private final Localizer localizer;
+    private final PathPlanner planner;
+
+    // Path being followed, the last waypoint is the course target
+    private Path path;
+    private int waypoint;
+    private double pathHeading;
+    private PathPlanner.Request pendingPlan;
+    private final Map<String, Object> telemetry = new LinkedHashMap<>();
 
     // Initial and target parameters
     double currentX = 0.0, currentY = 0.0, currentHeading = 0.0; // Starting position and heading
     double targetX = 10.0, targetY = 10.0, targetHeading = 90.0; // Target position and heading
 
+    // Errors from the last update, for telemetry
+    private double distanceError = 0.0, headingError = 0.0;
+
+    public SULUNavigationSystem( DriveTrain driveTrain, Localizer localizer )
+    {
+        this( driveTrain, localizer, null );
+    }
+
+    /**
+     * @param planner routes navigateTo() around obstacles, or null to always drive straight
+     */
+    public SULUNavigationSystem( DriveTrain driveTrain, Localizer localizer, PathPlanner planner )
+    {
+        this.driveTrain = driveTrain;
+        this.localizer = localizer;
+        this.planner = planner;
+    }
+
     @Override
-    public void init(Map<String,Object> parameters)
+    public void init()
     {
-        this.driveTrain = (DriveTrain) parameters.get( DRIVE_TRAIN_PARAMETER );
-        this.imuComponent = (GoBildaPinpointComponent) parameters.get( IMU_SYSTEM_PARAMETER );
+        if ( driveTrain == null || localizer == null )
+        {
+            throw new IllegalStateException("SULU needs a drive train and a localizer");
+        }
+    }
+
+    @Override
+    public void applyConfig(RobotConfig config)
+    {
+        this.positionThreshold = config.suluPositionThreshold;
+        this.headingThreshold = config.suluHeadingThreshold;
+        this.rotationGain = config.suluRotationGain;
+        this.driveGain = config.suluDriveGain;
     }
 
     public void setCourse( double target_x, double target_y, double target_heading )
+    {
+        this.path = null;
+        this.pendingPlan = null;
+        steerTo( target_x, target_y, target_heading );
+    }
+
+    private void steerTo( double target_x, double target_y, double target_heading )
     {
         this.targetX = target_x;
         this.targetY = target_y;
@@ -43,54 +92,176 @@ public class SULUNavigationSystem extends AbstractSystem {
         isComplete = false;
     }
 
+    /**
+     * Drive to a target around any obstacles. The route comes from the planner's cache or is
+     * planned on its thread; the robot holds still until it arrives, which is only a few loops.
+     * Without a planner this is setCourse(). The planner's obstacles are in field coordinates,
+     * so the pose must be too, usually by turning on vision corrections.
+     */
+    public void navigateTo( double target_x, double target_y, double target_heading )
+    {
+        if ( planner == null )
+        {
+            setCourse( target_x, target_y, target_heading );
+            return;
+        }
+        path = null;
+        pathHeading = target_heading;
+        pendingPlan = planner.request( localizer.getX(), localizer.getY(), target_x, target_y );
+        targetX = target_x;
+        targetY = target_y;
+        targetHeading = target_heading;
+        isComplete = false;
+    }
+
+    /**
+     * Drive through every waypoint of a path in turn, finishing at the last one with the given
+     * heading.
+     */
+    public void followPath( Path path, double final_heading )
+    {
+        pendingPlan = null;
+        if ( path == null || path.size() == 0 )
+        {
+            setCourse( localizer.getX(), localizer.getY(), final_heading );
+            return;
+        }
+        this.path = path;
+        this.pathHeading = final_heading;
+        this.waypoint = 0;
+        steerToWaypoint();
+    }
+
+    private void steerToWaypoint()
+    {
+        boolean last = waypoint == path.size() - 1;
+        steerTo( path.getX( waypoint ), path.getY( waypoint ), last ? pathHeading : targetHeading );
+    }
+
+    // Start following a plan once the planner has answered, or fall back to a straight line
+    private boolean waitForPlan()
+    {
+        if ( pendingPlan == null )
+        {
+            return false;
+        }
+        switch ( pendingPlan.getStatus() )
+        {
+            case PENDING:
+                driveTrain.driveWithPower( 0, 0, 0 );
+                return true;
+            case DONE:
+                telemetry.put( "Plan", pendingPlan.getPath().size() + " waypoints" );
+                followPath( pendingPlan.getPath(), pathHeading );
+                return false;
+            default:
+                telemetry.put( "Plan", pendingPlan.getError() + ", driving straight" );
+                setCourse( targetX, targetY, pathHeading );
+                return false;
+        }
+    }
+
     @Override
     public void update() {
+        if (!isComplete && waitForPlan())
+        {
+            return;
+        }
         if (!isComplete)
         {
-            currentX = imuComponent.getPosition().getX(DistanceUnit.MM);
-            currentY = imuComponent.getPosition().getY(DistanceUnit.MM);
-            currentHeading = imuComponent.getHeading();
+            currentX = localizer.getX();
+            currentY = localizer.getY();
+            currentHeading = localizer.getHeading();
+
+            // Along a path, move on to the next waypoint once close enough to this one, and steer
+            // toward the new one in this same update so the drive never holds a stale command
+            while (path != null && waypoint < path.size() - 1
+                    && Math.hypot(targetX - currentX, targetY - currentY) <= WAYPOINT_RADIUS) {
+                waypoint++;
+                steerToWaypoint();
+                telemetry.put("Waypoint", (waypoint + 1) + "/" + path.size());
+            }
 
             // Calculate distance to target
             double deltaX = targetX - currentX;
             double deltaY = targetY - currentY;
             double distanceToTarget = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+            distanceError = distanceToTarget;
 
             // Calculate target angle and heading error
             double targetAngle = Math.toDegrees(Math.atan2(deltaY, deltaX));
-            double headingError = normalizeAngle(targetAngle - currentHeading);
+            headingError = normalizeAngle(targetAngle - currentHeading);
 
             // If within position and heading thresholds, stop
-            if (distanceToTarget <= POSITION_THRESHOLD &&
-                    Math.abs(normalizeAngle(targetHeading - currentHeading)) <= HEADING_THRESHOLD) {
+            if (distanceToTarget <= positionThreshold &&
+                    Math.abs(normalizeAngle(targetHeading - currentHeading)) <= headingThreshold) {
                 driveTrain.stop();
                 isComplete = true;
                 return;
             }
 
             // Proportional control for movement
-            double drivePower = DRIVE_GAIN * distanceToTarget; // Move forward
-            double rotationPower = ROTATION_GAIN * headingError; // Rotate to face the target
+            double drivePower = driveGain * distanceToTarget; // Move forward
+            double rotationPower = rotationGain * headingError; // Rotate to face the target
 
             // Instruct the drivetrain
             driveTrain.driveWithPower(drivePower, 0, rotationPower);
         }
     }
 
+    public double getDistanceError() {
+        return distanceError;
+    }
+
+    public double getHeadingError() {
+        return headingError;
+    }
+
+    // Gains can also be adjusted live from the dashboard, until the next config reload
+    public double getRotationGain() {
+        return rotationGain;
+    }
+
+    public void setRotationGain(double rotationGain) {
+        this.rotationGain = rotationGain;
+    }
+
+    public double getDriveGain() {
+        return driveGain;
+    }
+
+    public void setDriveGain(double driveGain) {
+        this.driveGain = driveGain;
+    }
+
     @Override
     public String getName() {
         return SYSTEM_NAME;
     }
 
+    @Override
+    public UpdatePriority getUpdatePriority() {
+        return UpdatePriority.CRITICAL;
+    }
+
     @Override
     public void stop() {
         isComplete = true;
+        path = null;
+        pendingPlan = null;
         driveTrain.stop();
     }
 
+    /**
+     * @return the path being followed, or null when driving straight
+     */
+    public Path getPath() {
+        return path;
+    }
+
     @Override
     public Map<String, Object> getTelemetry() {
-        return Collections.emptyMap();
+        return telemetry;
     }
 
     // Normalize angle to range [-180, 180]
@@ -0,0 +1,141 @@
+package org.firstinspires.ftc.teamcode.systems.navigation;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.systems.navigation.planning.Path;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A simplified path recorded from teleop, with the pose it started from and the heading it ended
+ * on, saved as a small text file on the Control Hub.
+ *
+ * The file has a comment line, a "start x,y,heading" line, an "end heading" line and then one
+ * "x,y" line per waypoint in mm, so it can be checked or nudged by hand before it is replayed.
+ */
+public final class TaughtPath {
+    public static final String FOLDER_NAME = "paths";
+    public static final String DEFAULT_NAME = "taught";
+    private static final String EXTENSION = ".path";
+
+    private final double startX, startY, startHeading;
+    private final double endHeading;
+    private final Path path;
+
+    public TaughtPath(double startX, double startY, double startHeading, double endHeading, Path path) {
+        this.startX = startX;
+        this.startY = startY;
+        this.startHeading = startHeading;
+        this.endHeading = endHeading;
+        this.path = path;
+    }
+
+    /**
+     * @return the file a path with this name is stored in
+     */
+    public static File fileFor(String name) {
+        return new File(new File(AppUtil.FIRST_FOLDER, FOLDER_NAME), name + EXTENSION);
+    }
+
+    public void save(File file) throws IOException {
+        File folder = file.getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("# Taught path, distances in mm and headings in degrees");
+            out.println(String.format(Locale.US, "start %.1f,%.1f,%.2f", startX, startY, startHeading));
+            out.println(String.format(Locale.US, "end %.2f", endHeading));
+            for (int i = 0; i < path.size(); i++) {
+                out.println(String.format(Locale.US, "%.1f,%.1f", path.getX(i), path.getY(i)));
+            }
+            if (out.checkError()) {
+                throw new IOException("Could not write " + file);
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if the file cannot be read or a line does not parse
+     */
+    public static TaughtPath load(File file) throws IOException {
+        double[] start = null;
+        Double end = null;
+        double[] xs = new double[64];
+        double[] ys = new double[64];
+        int count = 0;
+
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            int number = 0;
+            while ((line = in.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    if (line.startsWith("start ")) {
+                        start = parseNumbers(line.substring(6), 3);
+                    } else if (line.startsWith("end ")) {
+                        end = Double.parseDouble(line.substring(4).trim());
+                    } else {
+                        double[] point = parseNumbers(line, 2);
+                        if (count == xs.length) {
+                            xs = Arrays.copyOf(xs, count * 2);
+                            ys = Arrays.copyOf(ys, count * 2);
+                        }
+                        xs[count] = point[0];
+                        ys[count] = point[1];
+                        count++;
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IOException(String.format(Locale.US, "%s line %d: %s", file.getName(), number, line));
+                }
+            }
+        }
+        if (start == null || end == null || count == 0) {
+            throw new IOException(file.getName() + " is missing its start, end or waypoints");
+        }
+        return new TaughtPath(start[0], start[1], start[2], end,
+                new Path(Arrays.copyOf(xs, count), Arrays.copyOf(ys, count)));
+    }
+
+    private static double[] parseNumbers(String text, int expected) {
+        String[] parts = text.split(",");
+        if (parts.length != expected) {
+            throw new NumberFormatException("expected " + expected + " numbers");
+        }
+        double[] numbers = new double[expected];
+        for (int i = 0; i < expected; i++) {
+            numbers[i] = Double.parseDouble(parts[i].trim());
+        }
+        return numbers;
+    }
+
+    public double getStartX() {
+        return startX;
+    }
+
+    public double getStartY() {
+        return startY;
+    }
+
+    public double getStartHeading() {
+        return startHeading;
+    }
+
+    public double getEndHeading() {
+        return endHeading;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
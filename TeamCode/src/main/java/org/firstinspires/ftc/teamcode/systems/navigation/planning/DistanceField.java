@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.systems.navigation.planning;
+
+/**
+ * Distance from every grid cell to the nearest blocked cell or wall, in mm.
+ *
+ * Computed once with a two pass chamfer transform, straight steps costing one cell and diagonal
+ * steps root two cells, which is within a few percent of the true Euclidean distance. After that a
+ * clearance check anywhere on the field is a single array read.
+ */
+public final class DistanceField {
+    private final OccupancyGrid grid;
+    private final float[] distances;
+
+    public DistanceField(OccupancyGrid grid) {
+        this.grid = grid;
+        this.distances = new float[grid.getCellCount()];
+        compute();
+    }
+
+    private void compute() {
+        int columns = grid.getColumns();
+        int rows = grid.getRows();
+        float straight = (float) grid.getCellMm();
+        float diagonal = (float) (grid.getCellMm() * Math.sqrt(2));
+
+        // Walls are exact, blocked cells are the sources the passes spread from
+        for (int cell = 0; cell < distances.length; cell++) {
+            distances[cell] = grid.isBlocked(cell) ? 0f : (float) grid.distanceToEdge(cell);
+        }
+
+        // Forward pass from the top left, looking at neighbours already visited
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int cell = row * columns + column;
+                float best = distances[cell];
+                if (column > 0) best = Math.min(best, distances[cell - 1] + straight);
+                if (row > 0) {
+                    best = Math.min(best, distances[cell - columns] + straight);
+                    if (column > 0) best = Math.min(best, distances[cell - columns - 1] + diagonal);
+                    if (column < columns - 1) best = Math.min(best, distances[cell - columns + 1] + diagonal);
+                }
+                distances[cell] = best;
+            }
+        }
+
+        // Backward pass from the bottom right
+        for (int row = rows - 1; row >= 0; row--) {
+            for (int column = columns - 1; column >= 0; column--) {
+                int cell = row * columns + column;
+                float best = distances[cell];
+                if (column < columns - 1) best = Math.min(best, distances[cell + 1] + straight);
+                if (row < rows - 1) {
+                    best = Math.min(best, distances[cell + columns] + straight);
+                    if (column < columns - 1) best = Math.min(best, distances[cell + columns + 1] + diagonal);
+                    if (column > 0) best = Math.min(best, distances[cell + columns - 1] + diagonal);
+                }
+                distances[cell] = best;
+            }
+        }
+    }
+
+    public double getDistance(int cell) {
+        return distances[cell];
+    }
+
+    /**
+     * @return the clearance at a point, 0 if it is off the grid
+     */
+    public double getDistanceAt(double x, double y) {
+        int cell = grid.cellAt(x, y);
+        return cell < 0 ? 0 : distances[cell];
+    }
+
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+}
@@ -0,0 +1,128 @@
+package org.firstinspires.ftc.teamcode.systems.navigation.planning;
+
+/**
+ * The field as a grid of square cells, each free or blocked by a field element.
+ *
+ * Coordinates are in mm in the localizer's frame, so the grid is only meaningful once the
+ * localizer's pose has been set to field coordinates at the start of the OpMode. Everything outside
+ * the grid counts as a wall. Obstacles are added while the robot is set up; PathPlanner takes a
+ * copy of the blocked cells when it is built, so later edits need a new planner.
+ */
+public final class OccupancyGrid {
+    // A standard FTC field is 12 feet square, centred on the origin
+    public static final double FIELD_SIZE_MM = 3657.6;
+
+    private final double minX, minY;
+    private final double cellMm;
+    private final int columns, rows;
+    private final boolean[] blocked;
+
+    public OccupancyGrid(double minX, double minY, double widthMm, double heightMm, double cellMm) {
+        if (cellMm <= 0 || widthMm < cellMm || heightMm < cellMm) {
+            throw new IllegalArgumentException("Grid must be at least one cell");
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.cellMm = cellMm;
+        this.columns = (int) Math.ceil(widthMm / cellMm);
+        this.rows = (int) Math.ceil(heightMm / cellMm);
+        this.blocked = new boolean[columns * rows];
+    }
+
+    /**
+     * @return an empty field centred on the origin, bounded by the perimeter walls
+     */
+    public static OccupancyGrid field(double cellMm) {
+        return new OccupancyGrid(-FIELD_SIZE_MM / 2, -FIELD_SIZE_MM / 2, FIELD_SIZE_MM, FIELD_SIZE_MM, cellMm);
+    }
+
+    /**
+     * Block every cell whose centre is inside the rectangle.
+     */
+    public void addRectangle(double x1, double y1, double x2, double y2) {
+        double left = Math.min(x1, x2), right = Math.max(x1, x2);
+        double bottom = Math.min(y1, y2), top = Math.max(y1, y2);
+        for (int row = 0; row < rows; row++) {
+            double y = centerY(row);
+            if (y < bottom || y > top) {
+                continue;
+            }
+            for (int column = 0; column < columns; column++) {
+                double x = centerX(column);
+                if (x >= left && x <= right) {
+                    blocked[row * columns + column] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Block every cell whose centre is inside the circle.
+     */
+    public void addCircle(double centerX, double centerY, double radiusMm) {
+        for (int cell = 0; cell < blocked.length; cell++) {
+            double dx = centerX(column(cell)) - centerX;
+            double dy = centerY(row(cell)) - centerY;
+            if (dx * dx + dy * dy <= radiusMm * radiusMm) {
+                blocked[cell] = true;
+            }
+        }
+    }
+
+    /**
+     * @return the cell containing the point, or -1 if it is off the grid
+     */
+    public int cellAt(double x, double y) {
+        int column = (int) Math.floor((x - minX) / cellMm);
+        int row = (int) Math.floor((y - minY) / cellMm);
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            return -1;
+        }
+        return row * columns + column;
+    }
+
+    public int column(int cell) {
+        return cell % columns;
+    }
+
+    public int row(int cell) {
+        return cell / columns;
+    }
+
+    public double centerX(int column) {
+        return minX + (column + 0.5) * cellMm;
+    }
+
+    public double centerY(int row) {
+        return minY + (row + 0.5) * cellMm;
+    }
+
+    /**
+     * @return how far the centre of a cell is from the nearest edge of the grid, in mm
+     */
+    public double distanceToEdge(int cell) {
+        double x = centerX(column(cell)) - minX;
+        double y = centerY(row(cell)) - minY;
+        return Math.min(Math.min(x, columns * cellMm - x), Math.min(y, rows * cellMm - y));
+    }
+
+    public boolean isBlocked(int cell) {
+        return blocked[cell];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCellCount() {
+        return blocked.length;
+    }
+
+    public double getCellMm() {
+        return cellMm;
+    }
+}
@@ -0,0 +1,55 @@
+package org.firstinspires.ftc.teamcode.systems.navigation.planning;
+
+/**
+ * An immutable list of waypoints in mm, not including the point the path starts from. Built on
+ * the planner thread and read by the loop, so it is never modified after construction.
+ */
+public final class Path {
+    private final double[] xs;
+    private final double[] ys;
+
+    public Path(double[] xs, double[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Waypoint coordinates do not match");
+        }
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public double getX(int index) {
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * @return the same path with its last waypoint moved to the given point
+     */
+    public Path withEnd(double x, double y) {
+        double[] endXs = xs.clone();
+        double[] endYs = ys.clone();
+        endXs[endXs.length - 1] = x;
+        endYs[endYs.length - 1] = y;
+        return new Path(endXs, endYs);
+    }
+
+    /**
+     * @return the path length from a starting point through every waypoint, in mm
+     */
+    public double length(double startX, double startY) {
+        double total = 0;
+        double x = startX, y = startY;
+        for (int i = 0; i < xs.length; i++) {
+            total += Math.hypot(xs[i] - x, ys[i] - y);
+            x = xs[i];
+            y = ys[i];
+        }
+        return total;
+    }
+}
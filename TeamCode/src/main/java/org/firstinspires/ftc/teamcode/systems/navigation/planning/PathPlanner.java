@@ -0,0 +1,544 @@
+package org.firstinspires.ftc.teamcode.systems.navigation.planning;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Plans obstacle-free paths over an OccupancyGrid on its own thread.
+ *
+ * Searches use Theta*, which is A* that also tries to connect each new cell straight to its
+ * parent's parent when the line between them is clear, so paths come out as a few straight legs
+ * instead of a staircase of grid steps. A cell is usable when the DistanceField puts it at least
+ * the robot radius from every obstacle, and cells within COMFORT_MARGIN_MM of that limit cost more
+ * so paths keep clear of field elements when there is room. A final pass drops any waypoint the
+ * robot can skip in a straight line.
+ *
+ * request() answers from the cache straight away when the start and goal cells have been planned
+ * before. Otherwise the request is queued for the planner thread and the loop polls it, so a
+ * search never runs on the loop thread. All search state is allocated once and only touched by
+ * the planner thread.
+ */
+public class PathPlanner {
+    private static final double COMFORT_MARGIN_MM = 150.0;
+    private static final double CLEARANCE_WEIGHT = 2.0;
+    // How far a start or goal inside an obstacle's clearance is moved to reach free space
+    private static final int SNAP_CELLS = 8;
+    private static final int CACHE_SIZE = 128;
+    private static final int MAX_QUEUED = 16;
+
+    private static final double SQRT2 = Math.sqrt(2);
+
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED
+    }
+
+    /**
+     * One plan request, filled in by the planner thread and polled by the loop.
+     */
+    public static final class Request {
+        final double startX, startY, goalX, goalY;
+        private volatile Status status = Status.PENDING;
+        private volatile Path path;
+        private volatile String error;
+
+        Request(double startX, double startY, double goalX, double goalY) {
+            this.startX = startX;
+            this.startY = startY;
+            this.goalX = goalX;
+            this.goalY = goalY;
+        }
+
+        void complete(Path path) {
+            this.path = path;
+            this.status = Status.DONE;
+        }
+
+        void fail(String error) {
+            this.error = error;
+            this.status = Status.FAILED;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the path once the status is DONE
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final OccupancyGrid grid;
+    private final DistanceField distanceField;
+    private final double robotRadiusMm;
+
+    // Cell to cell paths, most recently used last
+    private final LinkedHashMap<Long, Path> cache = new LinkedHashMap<Long, Path>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Path> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>(MAX_QUEUED);
+    private Thread plannerThread;
+    private volatile boolean running = false;
+
+    // Search state, planner thread only
+    private final double[] costs;
+    private final int[] parents;
+    private final int[] visited; // search number that last touched a cell
+    private final boolean[] closed;
+    private final IntHeap open;
+    private int search = 0;
+    private final int[] pathCells;
+
+    private volatile long plans = 0;
+    private volatile double lastPlanMs = 0;
+
+    public PathPlanner(OccupancyGrid grid, double robotRadiusMm) {
+        this.grid = grid;
+        this.distanceField = new DistanceField(grid);
+        this.robotRadiusMm = robotRadiusMm;
+
+        int cells = grid.getCellCount();
+        costs = new double[cells];
+        parents = new int[cells];
+        visited = new int[cells];
+        closed = new boolean[cells];
+        open = new IntHeap(cells);
+        pathCells = new int[cells];
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        plannerThread = new Thread(this::runPlanLoop, "PathPlanner");
+        plannerThread.setDaemon(true);
+        plannerThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (plannerThread != null) {
+            plannerThread.interrupt();
+            plannerThread = null;
+        }
+        for (Request request : queue) {
+            request.fail("Planner stopped");
+        }
+        queue.clear();
+    }
+
+    /**
+     * Ask for a path. Answered immediately from the cache when possible, otherwise planned on the
+     * planner thread.
+     */
+    public Request request(double startX, double startY, double goalX, double goalY) {
+        Request request = new Request(startX, startY, goalX, goalY);
+        Path cached = lookup(startX, startY, goalX, goalY);
+        if (cached != null) {
+            request.complete(cached);
+        } else if (!running) {
+            request.fail("Planner not running");
+        } else if (!queue.offer(request)) {
+            request.fail("Planner busy");
+        }
+        return request;
+    }
+
+    /**
+     * Plan a route ahead of time, for example every leg of an autonomous during init, so the
+     * request at match time comes straight from the cache.
+     */
+    public void prefetch(double startX, double startY, double goalX, double goalY) {
+        request(startX, startY, goalX, goalY);
+    }
+
+    private Path lookup(double startX, double startY, double goalX, double goalY) {
+        int start = grid.cellAt(startX, startY);
+        int goal = grid.cellAt(goalX, goalY);
+        if (start < 0 || goal < 0) {
+            return null;
+        }
+        Path path;
+        synchronized (cache) {
+            path = cache.get(cacheKey(start, goal));
+        }
+        return path == null ? null : path.withEnd(goalX, goalY);
+    }
+
+    private static long cacheKey(int start, int goal) {
+        return ((long) start << 32) | (goal & 0xFFFFFFFFL);
+    }
+
+    private void runPlanLoop() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            Request request;
+            try {
+                request = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                // An earlier request may have planned the same cells while this one waited
+                Path path = lookup(request.startX, request.startY, request.goalX, request.goalY);
+                if (path == null) {
+                    path = plan(request);
+                }
+                if (path == null) {
+                    request.fail("No path to the goal");
+                } else {
+                    request.complete(path);
+                }
+            } catch (Exception e) {
+                request.fail("Planning failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Theta* from the start cell to the goal cell, caching the cell path
+    private Path plan(Request request) {
+        long startNanos = System.nanoTime();
+        int start = snapToFree(grid.cellAt(request.startX, request.startY));
+        int goal = snapToFree(grid.cellAt(request.goalX, request.goalY));
+        if (start < 0 || goal < 0) {
+            return null;
+        }
+
+        search++;
+        open.clear();
+        touch(start);
+        costs[start] = 0;
+        parents[start] = start;
+        open.push(start, heuristic(start, goal));
+
+        int columns = grid.getColumns();
+        int rows = grid.getRows();
+        boolean found = false;
+        while (!open.isEmpty()) {
+            int cell = open.pop();
+            if (cell == goal) {
+                found = true;
+                break;
+            }
+            closed[cell] = true;
+
+            int column = grid.column(cell);
+            int row = grid.row(cell);
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx == 0 && dy == 0) {
+                        continue;
+                    }
+                    int nextColumn = column + dx, nextRow = row + dy;
+                    if (nextColumn < 0 || nextRow < 0 || nextColumn >= columns || nextRow >= rows) {
+                        continue;
+                    }
+                    int next = nextRow * columns + nextColumn;
+                    if (!isFree(next)) {
+                        continue;
+                    }
+                    touch(next);
+                    if (closed[next]) {
+                        continue;
+                    }
+                    relax(cell, next, goal);
+                }
+            }
+        }
+        if (!found) {
+            return null;
+        }
+
+        int length = 0;
+        for (int cell = goal; ; cell = parents[cell]) {
+            pathCells[length++] = cell;
+            if (cell == start) {
+                break;
+            }
+        }
+        Path path = toPath(length);
+        synchronized (cache) {
+            cache.put(cacheKey(grid.cellAt(request.startX, request.startY), grid.cellAt(request.goalX, request.goalY)), path);
+        }
+        plans++;
+        lastPlanMs = (System.nanoTime() - startNanos) / 1.0e6;
+        return path.withEnd(request.goalX, request.goalY);
+    }
+
+    private void relax(int cell, int next, int goal) {
+        // Theta*: go straight from the parent when nothing is in the way
+        int parent = parents[cell];
+        double viaParent = lineCost(parent, next);
+        double cost;
+        int from;
+        if (viaParent >= 0) {
+            cost = costs[parent] + viaParent;
+            from = parent;
+        } else {
+            cost = costs[cell] + stepCost(cell, next);
+            from = cell;
+        }
+        if (cost < costs[next]) {
+            costs[next] = cost;
+            parents[next] = from;
+            open.pushOrDecrease(next, cost + heuristic(next, goal));
+        }
+    }
+
+    // Reset a cell's search state the first time this search reaches it
+    private void touch(int cell) {
+        if (visited[cell] != search) {
+            visited[cell] = search;
+            costs[cell] = Double.MAX_VALUE;
+            closed[cell] = false;
+        }
+    }
+
+    private boolean isFree(int cell) {
+        return distanceField.getDistance(cell) >= robotRadiusMm;
+    }
+
+    // Extra cost per mm close to an obstacle, 0 with plenty of room
+    private double penalty(int cell) {
+        double clearance = distanceField.getDistance(cell) - robotRadiusMm;
+        if (clearance >= COMFORT_MARGIN_MM) {
+            return 0;
+        }
+        return CLEARANCE_WEIGHT * (COMFORT_MARGIN_MM - Math.max(0, clearance)) / COMFORT_MARGIN_MM;
+    }
+
+    private double stepCost(int from, int to) {
+        boolean diagonal = grid.column(from) != grid.column(to) && grid.row(from) != grid.row(to);
+        double length = (diagonal ? SQRT2 : 1.0) * grid.getCellMm();
+        return length * (1 + Math.max(penalty(from), penalty(to)));
+    }
+
+    private double heuristic(int from, int to) {
+        return Math.hypot(grid.column(from) - grid.column(to), grid.row(from) - grid.row(to)) * grid.getCellMm();
+    }
+
+    /**
+     * Walk the cells on the line between two cells.
+     *
+     * @return the cost of the straight line, or -1 if any cell on it is not free
+     */
+    private double lineCost(int from, int to) {
+        int x = grid.column(from), y = grid.row(from);
+        int endX = grid.column(to), endY = grid.row(to);
+        int dx = Math.abs(endX - x), dy = Math.abs(endY - y);
+        int stepX = x < endX ? 1 : -1, stepY = y < endY ? 1 : -1;
+        int error = dx - dy;
+        double worst = 0;
+        int columns = grid.getColumns();
+        while (true) {
+            int cell = y * columns + x;
+            if (!isFree(cell)) {
+                return -1;
+            }
+            worst = Math.max(worst, penalty(cell));
+            if (x == endX && y == endY) {
+                break;
+            }
+            int doubled = 2 * error;
+            if (doubled > -dy) {
+                error -= dy;
+                x += stepX;
+            }
+            if (doubled < dx) {
+                error += dx;
+                y += stepY;
+            }
+        }
+        return Math.hypot(grid.column(to) - grid.column(from), grid.row(to) - grid.row(from))
+                * grid.getCellMm() * (1 + worst);
+    }
+
+    // Nearest free cell in growing squares around a cell, or -1 if there is none close by
+    private int snapToFree(int cell) {
+        if (cell < 0 || isFree(cell)) {
+            return cell;
+        }
+        int column = grid.column(cell), row = grid.row(cell);
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int ring = 1; ring <= SNAP_CELLS && best < 0; ring++) {
+            for (int dy = -ring; dy <= ring; dy++) {
+                for (int dx = -ring; dx <= ring; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != ring) {
+                        continue;
+                    }
+                    int nextColumn = column + dx, nextRow = row + dy;
+                    if (nextColumn < 0 || nextRow < 0 || nextColumn >= grid.getColumns() || nextRow >= grid.getRows()) {
+                        continue;
+                    }
+                    int next = nextRow * grid.getColumns() + nextColumn;
+                    double distance = Math.hypot(dx, dy);
+                    if (isFree(next) && distance < bestDistance) {
+                        best = next;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // pathCells holds goal back to start, skip every waypoint a straight line can cut out
+    private Path toPath(int length) {
+        int[] kept = new int[length];
+        int count = 0;
+        int anchor = length - 1;
+        while (anchor > 0) {
+            int next = anchor - 1;
+            while (next > 0 && lineCost(pathCells[anchor], pathCells[next - 1]) >= 0) {
+                next--;
+            }
+            kept[count++] = pathCells[next];
+            anchor = next;
+        }
+        if (count == 0) {
+            // Start and goal share a cell
+            kept[count++] = pathCells[0];
+        }
+
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = grid.centerX(grid.column(kept[i]));
+            ys[i] = grid.centerY(grid.row(kept[i]));
+        }
+        return new Path(xs, ys);
+    }
+
+    /**
+     * @return true if a robot at the point would be clear of every obstacle
+     */
+    public boolean isClear(double x, double y) {
+        return distanceField.getDistanceAt(x, y) >= robotRadiusMm;
+    }
+
+    public DistanceField getDistanceField() {
+        return distanceField;
+    }
+
+    public long getPlanCount() {
+        return plans;
+    }
+
+    public double getLastPlanMs() {
+        return lastPlanMs;
+    }
+
+    public int getCacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    // Binary min heap of cells keyed by estimated total cost, with decrease-key
+    private static final class IntHeap {
+        private final int[] cells;
+        private final double[] keys;
+        private final int[] positions; // cell to heap index, -1 when not in the heap
+        private int size = 0;
+
+        IntHeap(int capacity) {
+            cells = new int[capacity];
+            keys = new double[capacity];
+            positions = new int[capacity];
+            Arrays.fill(positions, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                positions[cells[i]] = -1;
+            }
+            size = 0;
+        }
+
+        void push(int cell, double key) {
+            pushOrDecrease(cell, key);
+        }
+
+        void pushOrDecrease(int cell, double key) {
+            int index = positions[cell];
+            if (index < 0) {
+                index = size++;
+                cells[index] = cell;
+                positions[cell] = index;
+            } else if (key >= keys[index]) {
+                return;
+            }
+            keys[index] = key;
+            siftUp(index);
+        }
+
+        int pop() {
+            int top = cells[0];
+            positions[top] = -1;
+            size--;
+            if (size > 0) {
+                cells[0] = cells[size];
+                keys[0] = keys[size];
+                positions[cells[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (keys[parent] <= keys[index]) {
+                    break;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                int smallest = index;
+                if (left < size && keys[left] < keys[smallest]) smallest = left;
+                if (left + 1 < size && keys[left + 1] < keys[smallest]) smallest = left + 1;
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int cell = cells[a];
+            double key = keys[a];
+            cells[a] = cells[b];
+            keys[a] = keys[b];
+            cells[b] = cell;
+            keys[b] = key;
+            positions[cells[a]] = a;
+            positions[cells[b]] = b;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.firstinspires.ftc.teamcode.telemetry;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format shared by UdpTelemetryPublisher and UdpTelemetryReceiver.
+ *
+ * Every datagram starts with the header
+ *   magic 'B' 'T', version, type, sequence (unsigned 16 bit big endian), channel count (varint)
+ * followed by a body that depends on the type:
+ *   SCHEMA    one name per channel, each a varint byte length then UTF-8
+ *   KEYFRAME  time in us since the stream started, then every value (zigzag varints)
+ *   DELTA     us since the previous data packet, then each value minus the previous packet's value
+ *
+ * Values are sent as fixed point with VALUE_SCALE steps per unit, so a pose in mm keeps um
+ * resolution and a motor power keeps 0.001. A value that did not change costs one byte. NaN is sent
+ * as NAN_VALUE. Delta arithmetic wraps in 64 bits, so the receiver always reconstructs exactly.
+ */
+final class TelemetryPacket {
+    static final byte MAGIC_0 = 'B';
+    static final byte MAGIC_1 = 'T';
+    static final byte VERSION = 1;
+
+    static final byte TYPE_SCHEMA = 0;
+    static final byte TYPE_KEYFRAME = 1;
+    static final byte TYPE_DELTA = 2;
+
+    static final double VALUE_SCALE = 1000.0;
+    static final long NAN_VALUE = Long.MIN_VALUE;
+
+    // Fits a typical Ethernet and Wi-Fi MTU without fragmenting
+    static final int MAX_PACKET_BYTES = 1400;
+    static final int MAX_VARINT_BYTES = 10;
+    // Fixed fields, the channel count and the time
+    static final int HEADER_BYTES = 6 + 5 + MAX_VARINT_BYTES;
+
+    private TelemetryPacket() {
+    }
+
+    static long quantize(double value) {
+        if (Double.isNaN(value)) {
+            return NAN_VALUE;
+        }
+        // Math.round saturates infinities to the long range
+        return Math.round(value * VALUE_SCALE);
+    }
+
+    static double dequantize(long value) {
+        return value == NAN_VALUE ? Double.NaN : value / VALUE_SCALE;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return the position after the varint
+     */
+    static int writeVarint(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    static int writeHeader(byte[] buffer, byte type, int sequence, int channelCount) {
+        buffer[0] = MAGIC_0;
+        buffer[1] = MAGIC_1;
+        buffer[2] = VERSION;
+        buffer[3] = type;
+        buffer[4] = (byte) (sequence >>> 8);
+        buffer[5] = (byte) sequence;
+        return writeVarint(buffer, 6, channelCount);
+    }
+
+    /**
+     * Sequential reader over a received datagram.
+     */
+    static final class Reader {
+        private final byte[] buffer;
+        private final int end;
+        private int position;
+
+        Reader(byte[] buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        int remaining() {
+            return end - position;
+        }
+
+        int readByte() {
+            if (position >= end) {
+                throw new IllegalArgumentException("Truncated packet");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Varint too long");
+        }
+
+        String readString() {
+            int length = (int) readVarint();
+            if (length < 0 || length > remaining()) {
+                throw new IllegalArgumentException("Truncated name");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
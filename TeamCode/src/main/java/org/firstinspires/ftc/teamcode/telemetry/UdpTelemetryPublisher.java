@@ -0,0 +1,166 @@
+package org.firstinspires.ftc.teamcode.telemetry;
+
+import org.firstinspires.ftc.teamcode.TelemetryChannels;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Sends the numeric telemetry channels to a laptop as compact UDP datagrams.
+ *
+ * One datagram goes out every loopsPerPacket calls to publish(). Most are delta packets against
+ * the previous datagram, with a keyframe every KEYFRAME_INTERVAL packets so a receiver that starts
+ * late or loses a packet resynchronizes within a second. The channel names go out in a schema
+ * packet whenever a channel is added and every SCHEMA_INTERVAL packets. See TelemetryPacket for
+ * the format and UdpTelemetryReceiver for the laptop side.
+ *
+ * publish() runs on the main loop. It reuses one buffer and one DatagramPacket so nothing is
+ * allocated per loop, and a UDP send does not wait on the receiver. Send errors are counted and
+ * reported through takeLastError() instead of being thrown into the loop.
+ */
+public class UdpTelemetryPublisher {
+    public static final int DEFAULT_PORT = 5805;
+
+    private static final int KEYFRAME_INTERVAL = 50;
+    private static final int SCHEMA_INTERVAL = 250;
+
+    private final DatagramSocket socket;
+    private final byte[] buffer = new byte[TelemetryPacket.MAX_PACKET_BYTES];
+    private final DatagramPacket packet;
+    private final int loopsPerPacket;
+
+    private double[] values = new double[0];
+    private long[] lastSent = new long[0];
+    private int sentChannelCount = -1;
+
+    private final long startNanos = System.nanoTime();
+    private long lastPacketNanos = 0;
+    private int loopCount = 0;
+    private int sequence = 0;
+    private int packetsSinceKeyframe = KEYFRAME_INTERVAL;
+    private int packetsSinceSchema = SCHEMA_INTERVAL;
+
+    private int packetsSent = 0;
+    private long bytesSent = 0;
+    private int sendFailures = 0;
+    private String lastError;
+
+    /**
+     * @param host           address of the laptop running the receiver
+     * @param port           UDP port the receiver listens on
+     * @param loopsPerPacket send every Nth loop, 1 for every loop
+     */
+    public UdpTelemetryPublisher(String host, int port, int loopsPerPacket) throws IOException {
+        if (loopsPerPacket < 1) {
+            throw new IllegalArgumentException("loopsPerPacket must be at least 1");
+        }
+        this.loopsPerPacket = loopsPerPacket;
+        this.socket = new DatagramSocket();
+        this.packet = new DatagramPacket(buffer, 0, InetAddress.getByName(host), port);
+    }
+
+    /**
+     * Send the current channel values if this loop is due. Called from the main loop.
+     */
+    public void publish(TelemetryChannels channels) {
+        if (++loopCount < loopsPerPacket) {
+            return;
+        }
+        loopCount = 0;
+
+        int count = channels.size();
+        if (TelemetryPacket.HEADER_BYTES + (long) count * TelemetryPacket.MAX_VARINT_BYTES > buffer.length) {
+            lastError = "Too many telemetry channels for one UDP packet: " + count;
+            return;
+        }
+        if (values.length < count) {
+            values = Arrays.copyOf(values, count);
+            lastSent = Arrays.copyOf(lastSent, count);
+        }
+        channels.copyValues(values);
+
+        boolean schemaChanged = count != sentChannelCount;
+        if (schemaChanged || packetsSinceSchema >= SCHEMA_INTERVAL) {
+            sendSchema(channels.getNames(), count);
+            packetsSinceSchema = 0;
+        }
+
+        long now = System.nanoTime();
+        boolean keyframe = schemaChanged || packetsSinceKeyframe >= KEYFRAME_INTERVAL;
+        int position = TelemetryPacket.writeHeader(buffer,
+                keyframe ? TelemetryPacket.TYPE_KEYFRAME : TelemetryPacket.TYPE_DELTA, sequence, count);
+        long micros = ((keyframe ? now - startNanos : now - lastPacketNanos)) / 1000L;
+        position = TelemetryPacket.writeVarint(buffer, position, micros);
+
+        for (int i = 0; i < count; i++) {
+            long quantized = TelemetryPacket.quantize(values[i]);
+            long encoded = keyframe ? quantized : quantized - lastSent[i];
+            position = TelemetryPacket.writeVarint(buffer, position, TelemetryPacket.zigzag(encoded));
+            lastSent[i] = quantized;
+        }
+
+        // Advance even if the send fails, the receiver sees the gap and waits for a keyframe
+        send(position);
+        lastPacketNanos = now;
+        sentChannelCount = count;
+        sequence = (sequence + 1) & 0xFFFF;
+        packetsSinceKeyframe = keyframe ? 1 : packetsSinceKeyframe + 1;
+        packetsSinceSchema++;
+    }
+
+    private void sendSchema(String[] names, int count) {
+        int position = TelemetryPacket.writeHeader(buffer, TelemetryPacket.TYPE_SCHEMA, sequence, count);
+        for (int i = 0; i < count; i++) {
+            byte[] name = names[i].getBytes(StandardCharsets.UTF_8);
+            if (position + TelemetryPacket.MAX_VARINT_BYTES + name.length > buffer.length) {
+                lastError = "Telemetry channel names do not fit in one UDP packet";
+                return;
+            }
+            position = TelemetryPacket.writeVarint(buffer, position, name.length);
+            System.arraycopy(name, 0, buffer, position, name.length);
+            position += name.length;
+        }
+        send(position);
+    }
+
+    private void send(int length) {
+        try {
+            packet.setLength(length);
+            socket.send(packet);
+            packetsSent++;
+            bytesSent += length;
+        } catch (IOException e) {
+            sendFailures++;
+            lastError = "UDP telemetry send failed: " + e.getMessage();
+        }
+    }
+
+    public void close() {
+        socket.close();
+    }
+
+    public int getPacketsSent() {
+        return packetsSent;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public int getSendFailures() {
+        return sendFailures;
+    }
+
+    /**
+     * @return the last error, cleared once read
+     */
+    public String takeLastError() {
+        String error = lastError;
+        lastError = null;
+        return error;
+    }
+}
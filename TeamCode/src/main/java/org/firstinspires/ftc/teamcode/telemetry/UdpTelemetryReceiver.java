@@ -0,0 +1,166 @@
+package org.firstinspires.ftc.teamcode.telemetry;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Laptop side of UdpTelemetryPublisher. Receives the telemetry stream and writes it to a CSV file
+ * with one row per datagram, ready for a spreadsheet or a plotting script.
+ *
+ * Run from the IDE or with java on a PC connected to the robot's network:
+ *   UdpTelemetryReceiver [port] [output.csv]
+ * A new header row is written whenever the robot adds channels. After a lost packet rows are
+ * skipped until the next keyframe, so every row written is exact.
+ */
+public class UdpTelemetryReceiver {
+    private static final int FLUSH_ROWS = 50;
+    private static final long STATUS_INTERVAL_MS = 5000;
+
+    private String[] names = null;
+    private long[] values = new long[0];
+    private boolean synced = false;
+    private int lastSequence = -1;
+    private long timeMicros = 0;
+
+    private int packets = 0;
+    private int lostPackets = 0;
+    private int badPackets = 0;
+    private int rows = 0;
+
+    private final PrintWriter out;
+
+    public UdpTelemetryReceiver(PrintWriter out) {
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : UdpTelemetryPublisher.DEFAULT_PORT;
+        String file = args.length > 1 ? args[1] : "telemetry.csv";
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+        UdpTelemetryReceiver receiver = new UdpTelemetryReceiver(out);
+        Runtime.getRuntime().addShutdownHook(new Thread(out::close));
+
+        System.out.println("Listening on UDP port " + port + ", writing " + file);
+        byte[] buffer = new byte[TelemetryPacket.MAX_PACKET_BYTES + 100];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        long lastStatus = System.currentTimeMillis();
+        try (DatagramSocket socket = new DatagramSocket(port)) {
+            socket.setSoTimeout((int) STATUS_INTERVAL_MS);
+            while (true) {
+                try {
+                    packet.setLength(buffer.length);
+                    socket.receive(packet);
+                    receiver.handle(buffer, packet.getOffset(), packet.getLength());
+                } catch (SocketTimeoutException e) {
+                    // Fall through to the status line
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastStatus >= STATUS_INTERVAL_MS) {
+                    System.out.println(receiver.status());
+                    lastStatus = now;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decode one datagram and write a row if it carries values.
+     */
+    public void handle(byte[] buffer, int offset, int length) {
+        try {
+            TelemetryPacket.Reader reader = new TelemetryPacket.Reader(buffer, offset, length);
+            if (reader.readByte() != TelemetryPacket.MAGIC_0 || reader.readByte() != TelemetryPacket.MAGIC_1
+                    || reader.readByte() != TelemetryPacket.VERSION) {
+                badPackets++;
+                return;
+            }
+            int type = reader.readByte();
+            int sequence = (reader.readByte() << 8) | reader.readByte();
+            int count = (int) reader.readVarint();
+            packets++;
+
+            if (type == TelemetryPacket.TYPE_SCHEMA) {
+                handleSchema(reader, count);
+                return;
+            }
+
+            if (lastSequence >= 0 && sequence != ((lastSequence + 1) & 0xFFFF)) {
+                lostPackets += (sequence - lastSequence - 1) & 0xFFFF;
+                synced = false;
+            }
+            lastSequence = sequence;
+
+            if (names == null || count != names.length) {
+                synced = false;
+                return;
+            }
+            if (type == TelemetryPacket.TYPE_KEYFRAME) {
+                timeMicros = reader.readVarint();
+                for (int i = 0; i < count; i++) {
+                    values[i] = TelemetryPacket.unzigzag(reader.readVarint());
+                }
+                synced = true;
+            } else if (type == TelemetryPacket.TYPE_DELTA && synced) {
+                timeMicros += reader.readVarint();
+                for (int i = 0; i < count; i++) {
+                    values[i] += TelemetryPacket.unzigzag(reader.readVarint());
+                }
+            } else {
+                return;
+            }
+            writeRow();
+        } catch (IllegalArgumentException e) {
+            badPackets++;
+            synced = false;
+        }
+    }
+
+    private void handleSchema(TelemetryPacket.Reader reader, int count) {
+        String[] received = new String[count];
+        for (int i = 0; i < count; i++) {
+            received[i] = reader.readString();
+        }
+        if (names != null && Arrays.equals(names, received)) {
+            return;
+        }
+        names = received;
+        values = new long[count];
+        synced = false;
+
+        StringBuilder header = new StringBuilder("time_s");
+        for (String name : names) {
+            header.append(',').append(name);
+        }
+        out.println(header);
+        out.flush();
+    }
+
+    private void writeRow() {
+        StringBuilder row = new StringBuilder(16 * (values.length + 1));
+        row.append(String.format(Locale.US, "%.6f", timeMicros / 1.0e6));
+        for (long value : values) {
+            row.append(',');
+            // Leave NaN cells empty
+            if (value != TelemetryPacket.NAN_VALUE) {
+                row.append(TelemetryPacket.dequantize(value));
+            }
+        }
+        out.println(row);
+        if (++rows % FLUSH_ROWS == 0) {
+            out.flush();
+        }
+    }
+
+    public String status() {
+        return String.format(Locale.US, "%d packets, %d rows, %d lost, %d malformed, %d channels",
+                packets, rows, lostPackets, badPackets, names == null ? 0 : names.length);
+    }
+}